@@ -0,0 +1,42 @@
+package onlinecourseplatform.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Numbers the modules, videos and documents created before display positions existed. Within each
+ * parent that still has rows without a position, all rows are renumbered from 0 in the order they load
+ * in today ({@code position ASC, id ASC}, where MySQL sorts missing positions first), so nothing visibly
+ * moves and appended entries can no longer collide with unpositioned ones.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ContentPositionInitializer implements CommandLineRunner {
+
+    private static final Map<String, String> PARENT_COLUMNS = Map.of(
+            "module", "course_id",
+            "video", "module_id",
+            "document", "module_id"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        PARENT_COLUMNS.forEach((table, parent) -> {
+            int updated = jdbcTemplate.update("UPDATE " + table + " t JOIN ("
+                    + "SELECT id, ROW_NUMBER() OVER (PARTITION BY " + parent + " ORDER BY position, id) - 1 AS pos FROM " + table
+                    + " WHERE " + parent + " IN (SELECT " + parent + " FROM " + table + " WHERE position IS NULL)"
+                    + ") numbered ON t.id = numbered.id SET t.position = numbered.pos");
+            if (updated > 0) {
+                log.info("Assigned display positions to {} rows of {}", updated, table);
+            }
+        });
+    }
+}
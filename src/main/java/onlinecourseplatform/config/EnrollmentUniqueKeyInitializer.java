@@ -0,0 +1,44 @@
+package onlinecourseplatform.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Makes sure the unique (student_id, course_id) key on enrollments exists. Schema update cannot add it
+ * while duplicate enrollments are present, so duplicates are removed first: the oldest row is kept and
+ * takes over the earliest completion of its duplicates, so no completed course is lost.
+ * Enrollment counters are corrected by the next popularity reconciliation.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EnrollmentUniqueKeyInitializer implements CommandLineRunner {
+
+    private static final String KEY_NAME = "uk_enrollments_student_course";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.statistics "
+                        + "WHERE table_schema = DATABASE() AND table_name = 'enrollments' AND index_name = ?",
+                Integer.class, KEY_NAME);
+        if (existing != null && existing > 0) {
+            return;
+        }
+        jdbcTemplate.update("UPDATE enrollments keep JOIN ("
+                + "SELECT MIN(id) AS keep_id, MIN(completed_at) AS completed_at, MAX(completed_assets) AS completed_assets "
+                + "FROM enrollments GROUP BY student_id, course_id HAVING COUNT(*) > 1) d ON keep.id = d.keep_id "
+                + "SET keep.completed_at = COALESCE(keep.completed_at, d.completed_at), "
+                + "keep.status = IF(d.completed_at IS NULL, keep.status, 'COMPLETED'), "
+                + "keep.completed_assets = GREATEST(keep.completed_assets, d.completed_assets)");
+        int removed = jdbcTemplate.update("DELETE e FROM enrollments e JOIN enrollments older "
+                + "ON older.student_id = e.student_id AND older.course_id = e.course_id AND older.id < e.id");
+        jdbcTemplate.execute("ALTER TABLE enrollments ADD CONSTRAINT " + KEY_NAME + " UNIQUE (student_id, course_id)");
+        log.info("Added unique key {} after removing {} duplicate enrollments", KEY_NAME, removed);
+    }
+}
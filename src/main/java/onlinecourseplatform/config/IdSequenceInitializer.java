@@ -0,0 +1,41 @@
+package onlinecourseplatform.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves the table-backed id sequences of module, video and document past the ids already in use.
+ * Those tables used IDENTITY ids before pooled sequences were introduced, so a fresh sequence
+ * would otherwise hand out ids that collide with existing rows.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdSequenceInitializer implements CommandLineRunner {
+
+    private static final int ALLOCATION_SIZE = 50; // must match @SequenceGenerator allocationSize
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "module_seq", "module",
+            "video_seq", "video",
+            "document_seq", "document"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        SEQUENCES.forEach((sequence, table) -> {
+            int updated = jdbcTemplate.update(
+                    "UPDATE " + sequence + " SET next_val = GREATEST(next_val, "
+                            + "(SELECT COALESCE(MAX(id), 0) + 1 + ? FROM " + table + "))",
+                    ALLOCATION_SIZE);
+            log.debug("Aligned sequence {} with table {} ({} row)", sequence, table, updated);
+        });
+    }
+}
@@ -0,0 +1,30 @@
+package onlinecourseplatform.config;
+
+import onlinecourseplatform.service.CatalogCacheService;
+import onlinecourseplatform.service.EnrollmentIndexService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Redis pub/sub configuration used to broadcast cache invalidations and enrollment index changes between nodes.
+ */
+@Configuration
+public class RedisConfig {
+
+    /**
+     * Subscribes the catalog cache to the invalidation channel and the enrollment index to its change channel.
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       CatalogCacheService catalogCacheService,
+                                                                       EnrollmentIndexService enrollmentIndexService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(catalogCacheService, new ChannelTopic(CatalogCacheService.INVALIDATION_CHANNEL));
+        container.addMessageListener(enrollmentIndexService, new ChannelTopic(EnrollmentIndexService.CHANGES_CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,63 @@
+package onlinecourseplatform.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import onlinecourseplatform.dto.responseDTOs.AnalyticsResponse;
+import onlinecourseplatform.service.AnalyticsService;
+import onlinecourseplatform.utility.Utility;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.time.LocalDate;
+
+/**
+ * Enrollment, completion, revenue and rating reports served from the analytics rollups.
+ * Ranges default to the last 30 days.
+ */
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+    private final Utility utility;
+
+    /**
+     * Get daily figures of a course (owner or admin).
+     */
+    @Operation(summary = "Get course analytics for a date range (Owner or Admin)")
+    @GetMapping("/courses/{id}")
+    @PreAuthorize("hasAnyRole('INSTRUCTOR','ADMIN')")
+    public ResponseEntity<AnalyticsResponse> getCourseAnalytics(@PathVariable Long id,
+                                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                Principal principal) {
+        Long userId = utility.getUserIdFromPrincipal(principal);
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        log.info("User {} fetching analytics of course {} from {} to {}", userId, id, start, end);
+        return ResponseEntity.ok(analyticsService.courseReport(id, userId, utility.isCurrentUserAdmin(), start, end));
+    }
+
+    /**
+     * Get daily figures across all courses of an instructor (the instructor or an admin).
+     */
+    @Operation(summary = "Get instructor analytics for a date range (Instructor themselves or Admin)")
+    @GetMapping("/instructors/{id}")
+    @PreAuthorize("hasAnyRole('INSTRUCTOR','ADMIN')")
+    public ResponseEntity<AnalyticsResponse> getInstructorAnalytics(@PathVariable Long id,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                    Principal principal) {
+        Long userId = utility.getUserIdFromPrincipal(principal);
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        log.info("User {} fetching analytics of instructor {} from {} to {}", userId, id, start, end);
+        return ResponseEntity.ok(analyticsService.instructorReport(id, userId, utility.isCurrentUserAdmin(), start, end));
+    }
+}
@@ -1,27 +1,59 @@
 package onlinecourseplatform.controller;
 
+import onlinecourseplatform.dto.entityDTOs.DocumentDTO;
+import onlinecourseplatform.dto.entityDTOs.ModuleDTO;
+import onlinecourseplatform.dto.entityDTOs.VideoDTO;
 import onlinecourseplatform.dto.requestDTOs.CourseRequestDTO;
 import onlinecourseplatform.dto.requestDTOs.CourseUpdateRequest;
+import onlinecourseplatform.dto.requestDTOs.DocumentRequestDTO;
+import onlinecourseplatform.dto.requestDTOs.ModuleRequestDTO;
+import onlinecourseplatform.dto.requestDTOs.ModuleUpdateRequest;
+import onlinecourseplatform.dto.requestDTOs.ReorderRequest;
+import onlinecourseplatform.dto.requestDTOs.VideoRequestDTO;
 import onlinecourseplatform.dto.responseDTOs.BasicCourseDetailsResponse;
+import onlinecourseplatform.dto.responseDTOs.CourseBrowseResponse;
 import onlinecourseplatform.dto.responseDTOs.CourseResponseDTO;
-import onlinecourseplatform.dto.responseDTOs.UserResponseDTO;
+import onlinecourseplatform.dto.responseDTOs.DocumentSearchHitDTO;
+import onlinecourseplatform.dto.responseDTOs.EnrolledStudentDTO;
+import onlinecourseplatform.dto.responseDTOs.InstructorCourseSummaryDTO;
 import onlinecourseplatform.entity.Course;
+import onlinecourseplatform.entity.CoursePurgeJob;
 import onlinecourseplatform.entity.Role;
+import onlinecourseplatform.search.Completion;
+import onlinecourseplatform.service.CourseAutocompleteService;
+import onlinecourseplatform.service.CourseContentService;
+import onlinecourseplatform.service.CourseFacetService;
 import onlinecourseplatform.service.CourseService;
+import onlinecourseplatform.service.CourseRecommendationService;
+import onlinecourseplatform.service.PopularCourseService;
+import onlinecourseplatform.service.TrendingCourseService;
 import onlinecourseplatform.utility.Conversion;
 import onlinecourseplatform.utility.Utility;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.security.Principal;
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Handles operations related to course management.
@@ -33,8 +65,16 @@ import java.util.List;
 public class CourseController {
 
     private final CourseService courseService;
+    private final CourseContentService courseContentService;
+    private final CourseAutocompleteService courseAutocompleteService;
     private final Utility utility;
 
+    @Value("${search.fuzzy.max-edits:2}")
+    private int fuzzyMaxEdits;
+
+    @Value("${search.fuzzy.max-edits-limit:3}")
+    private int fuzzyMaxEditsLimit;
+
     /**
      * Retrieve all courses.
      */
@@ -83,13 +123,29 @@ public class CourseController {
     /**
      * Get all courses created by the logged-in instructor.
      */
-    @Operation(summary = "Get instructor's courses")
+    @Operation(summary = "Get instructor's courses (paginated, total in X-Total-Count)")
     @GetMapping("/instructor")
     @PreAuthorize("hasRole('INSTRUCTOR')")
-    public ResponseEntity<List<CourseResponseDTO>> getInstructorCourses(Principal principal) {
+    public ResponseEntity<List<CourseResponseDTO>> getInstructorCourses(@RequestParam(defaultValue = "0") int page,
+                                                                        @RequestParam(defaultValue = "10") int size,
+                                                                        Principal principal) {
         Long instructorId = utility.getUserIdFromPrincipal(principal);
         log.info("Fetching courses for instructor ID {}", instructorId);
-        return ResponseEntity.ok(courseService.getCoursesByInstructor(instructorId));
+        Page<CourseResponseDTO> courses = courseService.getCoursesByInstructor(instructorId, Math.max(page, 0), Math.clamp(size, 1, 50));
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(courses.getTotalElements()))
+                .body(courses.getContent());
+    }
+
+    /**
+     * Get per-course dashboard figures for the logged-in instructor.
+     */
+    @Operation(summary = "Get enrollment, completion, rating and revenue figures per course (Instructor only)")
+    @GetMapping("/instructor/summary")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<List<InstructorCourseSummaryDTO>> getInstructorSummary(Principal principal) {
+        Long instructorId = utility.getUserIdFromPrincipal(principal);
+        return ResponseEntity.ok(courseService.getInstructorSummary(instructorId));
     }
 
     /**
@@ -128,33 +184,223 @@ public class CourseController {
         boolean isAdmin = utility.isCurrentUserAdmin(); // <-- Check if current user is admin
         courseService.deleteCourse(id, userId, isAdmin);
         log.info("{} deleted course ID {}", isAdmin ? "Admin" : "Instructor", id);
-        return ResponseEntity.ok("Course deleted successfully");
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body("Course deleted successfully, content is being removed in the background");
+    }
+
+    /**
+     * Get the progress of a course deletion (instructors and admins).
+     */
+    @Operation(summary = "Get course deletion progress (Instructor or Admin)")
+    @GetMapping("/{id}/deletion-status")
+    @PreAuthorize("hasAnyRole('INSTRUCTOR','ADMIN')")
+    public ResponseEntity<?> getDeletionStatus(@PathVariable Long id, Principal principal) {
+        Long userId = utility.getUserIdFromPrincipal(principal);
+        CoursePurgeJob job = courseService.getDeletionStatus(id, userId, utility.isCurrentUserAdmin());
+        return ResponseEntity.ok(Map.of(
+                "courseId", job.getCourseId(),
+                "phase", job.getPhase(),
+                "rowsPurged", job.getRowsPurged(),
+                "completed", job.getCompletedAt() != null
+        ));
+    }
+
+
+    /**
+     * Add a module to a course (instructors only).
+     */
+    @Operation(summary = "Add a module to a course (Instructor only)")
+    @PostMapping("/{id}/modules")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<ModuleDTO> addModule(@PathVariable Long id, @Valid @RequestBody ModuleRequestDTO moduleDto, Principal principal) {
+        Long instructorId = utility.getUserIdFromPrincipal(principal);
+        return ResponseEntity.status(HttpStatus.CREATED).body(courseContentService.addModule(id, moduleDto, instructorId));
+    }
+
+    /**
+     * Reorder the modules of a course (instructors only).
+     */
+    @Operation(summary = "Reorder modules of a course (Instructor only)")
+    @PutMapping("/{id}/modules/order")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<List<ModuleDTO>> reorderModules(@PathVariable Long id, @Valid @RequestBody ReorderRequest request, Principal principal) {
+        Long instructorId = utility.getUserIdFromPrincipal(principal);
+        return ResponseEntity.ok(courseContentService.reorderModules(id, request.getOrderedIds(), instructorId));
+    }
+
+    /**
+     * Rename a module (instructors only).
+     */
+    @Operation(summary = "Update a module (Instructor only)")
+    @PutMapping("/{id}/modules/{moduleId}")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<ModuleDTO> updateModule(@PathVariable Long id, @PathVariable Long moduleId,
+                                                  @Valid @RequestBody ModuleUpdateRequest request, Principal principal) {
+        Long instructorId = utility.getUserIdFromPrincipal(principal);
+        return ResponseEntity.ok(courseContentService.updateModule(id, moduleId, request, instructorId));
+    }
+
+    /**
+     * Delete a module with its videos and documents (instructors only).
+     */
+    @Operation(summary = "Delete a module (Instructor only)")
+    @DeleteMapping("/{id}/modules/{moduleId}")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<?> deleteModule(@PathVariable Long id, @PathVariable Long moduleId, Principal principal) {
+        Long instructorId = utility.getUserIdFromPrincipal(principal);
+        courseContentService.deleteModule(id, moduleId, instructorId);
+        return ResponseEntity.ok("Module deleted successfully");
+    }
+
+    /**
+     * Add a video to a module (instructors only).
+     */
+    @Operation(summary = "Add a video to a module (Instructor only)")
+    @PostMapping("/{id}/modules/{moduleId}/videos")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<VideoDTO> addVideo(@PathVariable Long id, @PathVariable Long moduleId,
+                                             @Valid @RequestBody VideoRequestDTO videoDto, Principal principal) {
+        Long instructorId = utility.getUserIdFromPrincipal(principal);
+        return ResponseEntity.status(HttpStatus.CREATED).body(courseContentService.addVideo(id, moduleId, videoDto, instructorId));
     }
 
+    /**
+     * Reorder the videos of a module (instructors only).
+     */
+    @Operation(summary = "Reorder videos of a module (Instructor only)")
+    @PutMapping("/{id}/modules/{moduleId}/videos/order")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<List<VideoDTO>> reorderVideos(@PathVariable Long id, @PathVariable Long moduleId,
+                                                        @Valid @RequestBody ReorderRequest request, Principal principal) {
+        Long instructorId = utility.getUserIdFromPrincipal(principal);
+        return ResponseEntity.ok(courseContentService.reorderVideos(id, moduleId, request.getOrderedIds(), instructorId));
+    }
 
     /**
-     * Get students enrolled in a course (instructors only).
+     * Update a single video (instructors only).
      */
-    @Operation(summary = "Get students enrolled in a course (Instructor only)")
+    @Operation(summary = "Update a video (Instructor only)")
+    @PutMapping("/{id}/modules/{moduleId}/videos/{videoId}")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<VideoDTO> updateVideo(@PathVariable Long id, @PathVariable Long moduleId, @PathVariable Long videoId,
+                                                @Valid @RequestBody VideoRequestDTO videoDto, Principal principal) {
+        Long instructorId = utility.getUserIdFromPrincipal(principal);
+        return ResponseEntity.ok(courseContentService.updateVideo(id, moduleId, videoId, videoDto, instructorId));
+    }
+
+    /**
+     * Delete a single video (instructors only).
+     */
+    @Operation(summary = "Delete a video (Instructor only)")
+    @DeleteMapping("/{id}/modules/{moduleId}/videos/{videoId}")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<?> deleteVideo(@PathVariable Long id, @PathVariable Long moduleId, @PathVariable Long videoId, Principal principal) {
+        Long instructorId = utility.getUserIdFromPrincipal(principal);
+        courseContentService.deleteVideo(id, moduleId, videoId, instructorId);
+        return ResponseEntity.ok("Video deleted successfully");
+    }
+
+    /**
+     * Add a document to a module (instructors only).
+     */
+    @Operation(summary = "Add a document to a module (Instructor only)")
+    @PostMapping("/{id}/modules/{moduleId}/documents")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<DocumentDTO> addDocument(@PathVariable Long id, @PathVariable Long moduleId,
+                                                   @Valid @RequestBody DocumentRequestDTO documentDto, Principal principal) {
+        Long instructorId = utility.getUserIdFromPrincipal(principal);
+        return ResponseEntity.status(HttpStatus.CREATED).body(courseContentService.addDocument(id, moduleId, documentDto, instructorId));
+    }
+
+    /**
+     * Reorder the documents of a module (instructors only).
+     */
+    @Operation(summary = "Reorder documents of a module (Instructor only)")
+    @PutMapping("/{id}/modules/{moduleId}/documents/order")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<List<DocumentDTO>> reorderDocuments(@PathVariable Long id, @PathVariable Long moduleId,
+                                                              @Valid @RequestBody ReorderRequest request, Principal principal) {
+        Long instructorId = utility.getUserIdFromPrincipal(principal);
+        return ResponseEntity.ok(courseContentService.reorderDocuments(id, moduleId, request.getOrderedIds(), instructorId));
+    }
+
+    /**
+     * Update a single document (instructors only).
+     */
+    @Operation(summary = "Update a document (Instructor only)")
+    @PutMapping("/{id}/modules/{moduleId}/documents/{documentId}")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<DocumentDTO> updateDocument(@PathVariable Long id, @PathVariable Long moduleId, @PathVariable Long documentId,
+                                                      @Valid @RequestBody DocumentRequestDTO documentDto, Principal principal) {
+        Long instructorId = utility.getUserIdFromPrincipal(principal);
+        return ResponseEntity.ok(courseContentService.updateDocument(id, moduleId, documentId, documentDto, instructorId));
+    }
+
+    /**
+     * Delete a single document (instructors only).
+     */
+    @Operation(summary = "Delete a document (Instructor only)")
+    @DeleteMapping("/{id}/modules/{moduleId}/documents/{documentId}")
+    @PreAuthorize("hasRole('INSTRUCTOR')")
+    public ResponseEntity<?> deleteDocument(@PathVariable Long id, @PathVariable Long moduleId, @PathVariable Long documentId, Principal principal) {
+        Long instructorId = utility.getUserIdFromPrincipal(principal);
+        courseContentService.deleteDocument(id, moduleId, documentId, instructorId);
+        return ResponseEntity.ok("Document deleted successfully");
+    }
+
+    /**
+     * Get students enrolled in a course, one page at a time. When more students follow, the cursor
+     * for the next page is returned in X-Next-Cursor and passed back as {@code after}.
+     */
+    @Operation(summary = "Get students enrolled in a course (Instructor or Admin)")
     @GetMapping("/{id}/students")
     @PreAuthorize("hasAnyRole('INSTRUCTOR','ADMIN')")
-    public ResponseEntity<List<UserResponseDTO>> getEnrolledStudents(@PathVariable Long id, Principal principal) {
-        Long instructorId = utility.getUserIdFromPrincipal(principal);
-        log.info("Instructor {} fetching students for course ID {}", instructorId, id);
-        List<UserResponseDTO> students = courseService.getEnrolledStudents(id, instructorId);
-        return ResponseEntity.ok(students);
+    public ResponseEntity<List<EnrolledStudentDTO>> getEnrolledStudents(@PathVariable Long id,
+                                                                        @RequestParam(required = false) String name,
+                                                                        @RequestParam(required = false) Long after,
+                                                                        @RequestParam(defaultValue = "50") int size,
+                                                                        Principal principal) {
+        Long userId = utility.getUserIdFromPrincipal(principal);
+        log.info("User {} fetching students for course ID {}", userId, id);
+        int pageSize = Math.clamp(size, 1, 500);
+        List<EnrolledStudentDTO> students = courseService.getEnrolledStudents(id, userId, utility.isCurrentUserAdmin(),
+                name, after, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (students.size() == pageSize) {
+            response.header("X-Next-Cursor", String.valueOf(students.getLast().getEnrollmentId()));
+        }
+        return response.body(students);
     }
 
     /**
-     * Get enrolled students count in a course (instructors only).
+     * Export all students of a course as CSV, streamed while it is read (admins only).
      */
-    @Operation(summary = "Get enrolled students count in a course (Instructor only)")
+    @Operation(summary = "Export students enrolled in a course as CSV (Admin only)")
+    @GetMapping("/{id}/students/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportEnrolledStudents(@PathVariable Long id) {
+        courseService.getCourseEntityById(id);
+        log.info("Exporting students of course ID {}", id);
+        StreamingResponseBody body = out -> {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            courseService.exportEnrolledStudents(id, writer);
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"course-" + id + "-students.csv\"")
+                .body(body);
+    }
+
+    /**
+     * Get enrolled students count in a course (owner or admin).
+     */
+    @Operation(summary = "Get enrolled students count in a course (Instructor or Admin)")
     @GetMapping("/{id}/students-count")
-    public ResponseEntity<Integer> getEnrolledStudentsCount(@PathVariable Long id, Principal principal) {
-        Long instructorId = utility.getUserIdFromPrincipal(principal);
-        log.info("Fetching students Count for course ID {}", id);
-        List<UserResponseDTO> students = courseService.getEnrolledStudents(id, instructorId);
-        return ResponseEntity.ok(students.size());
+    @PreAuthorize("hasAnyRole('INSTRUCTOR','ADMIN')")
+    public ResponseEntity<Long> getEnrolledStudentsCount(@PathVariable Long id, Principal principal) {
+        Long userId = utility.getUserIdFromPrincipal(principal);
+        log.debug("Fetching students count for course ID {}", id);
+        return ResponseEntity.ok(courseService.countEnrolledStudents(id, userId, utility.isCurrentUserAdmin()));
     }
 
     /**
@@ -168,23 +414,100 @@ public class CourseController {
         return ResponseEntity.ok(courseService.getCourseContent(id,studentId));
     }
 
+    /**
+     * Search inside the documents of a course (enrolled students only).
+     */
+    @Operation(summary = "Search the documents of an enrolled course")
+    @GetMapping("/{id}/content-search")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<List<DocumentSearchHitDTO>> searchCourseDocuments(@PathVariable Long id,
+                                                                            @RequestParam String query,
+                                                                            @RequestParam(defaultValue = "10") int limit,
+                                                                            Principal principal) {
+        Long studentId = utility.getUserIdFromPrincipal(principal);
+        return ResponseEntity.ok(courseService.searchCourseDocuments(id, studentId, query, Math.clamp(limit, 1, 50)));
+    }
+
     /**
      * Get popular courses with pagination.
      */
     @GetMapping("/popular")
     public ResponseEntity<List<BasicCourseDetailsResponse>> getPopularCourses(@RequestParam(defaultValue = "5") int limit) {
         log.info("Fetching top {} popular courses", limit);
-        List<BasicCourseDetailsResponse> results = courseService.getPopularCourses(limit);
+        List<BasicCourseDetailsResponse> results = courseService.getPopularCourses(Math.clamp(limit, 1, PopularCourseService.MAX_LIMIT));
         return ResponseEntity.ok(results);
     }
 
     /**
-     * Search courses by keyword.
+     * Get courses that students of this course also enrolled in.
+     */
+    @Operation(summary = "Students also enrolled in (co-enrollment similarity)")
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<BasicCourseDetailsResponse>> getRelatedCourses(@PathVariable Long id,
+                                                                              @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(courseService.getRelatedCourses(id, Math.clamp(limit, 1, CourseRecommendationService.MAX_LIMIT)));
+    }
+
+    /**
+     * Get courses trending by recent enrollments and content views.
+     */
+    @Operation(summary = "Courses ranked by recent activity with time decay")
+    @GetMapping("/trending")
+    public ResponseEntity<List<BasicCourseDetailsResponse>> getTrendingCourses(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(courseService.getTrendingCourses(Math.clamp(limit, 1, TrendingCourseService.MAX_LIMIT)));
+    }
+
+    /**
+     * Browse the catalog with facet filters (multiple values of one facet are OR-ed) and facet counts.
+     */
+    @Operation(summary = "Browse courses by price band, rating band, instructor and creation date")
+    @GetMapping("/browse")
+    public ResponseEntity<CourseBrowseResponse> browseCourses(@RequestParam(required = false) Set<String> priceBand,
+                                                              @RequestParam(required = false) Set<String> ratingBand,
+                                                              @RequestParam(required = false) Set<String> instructorId,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdFrom,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdTo,
+                                                              @RequestParam(defaultValue = "0") int page,
+                                                              @RequestParam(defaultValue = "20") int size) {
+        Map<String, Set<String>> facets = new HashMap<>();
+        facets.put(CourseFacetService.PRICE, priceBand);
+        facets.put(CourseFacetService.RATING, ratingBand);
+        facets.put(CourseFacetService.INSTRUCTOR, instructorId);
+        return ResponseEntity.ok(courseService.browseCourses(facets, createdFrom, createdTo,
+                Math.clamp(page, 0, CourseService.MAX_PAGE), Math.clamp(size, 1, 100)));
+    }
+
+    /**
+     * Autocomplete course titles and instructor names while the user types.
+     */
+    @Operation(summary = "Autocomplete course titles and instructor names")
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<Completion>> autocomplete(@RequestParam String prefix,
+                                                         @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(courseAutocompleteService.complete(prefix, Math.clamp(limit, 1, 20)));
+    }
+
+    /**
+     * Search courses by keyword, best matches first. The total match count is returned in X-Total-Count.
+     * mode=fuzzy tolerates typos in titles (up to maxEdits per word).
      */
     @GetMapping("/search")
-    public ResponseEntity<List<BasicCourseDetailsResponse>> searchCourses(@RequestParam String query) {
-        log.info("Searching courses with keyword: {}", query);
-        List<BasicCourseDetailsResponse> results = courseService.searchCourses(query);
-        return ResponseEntity.ok(results);
+    public ResponseEntity<List<BasicCourseDetailsResponse>> searchCourses(@RequestParam String query,
+                                                                          @RequestParam(defaultValue = "text") String mode,
+                                                                          @RequestParam(required = false) Integer maxEdits,
+                                                                          @RequestParam(defaultValue = "0") int page,
+                                                                          @RequestParam(defaultValue = "20") int size) {
+        log.info("Searching courses with keyword: {} (mode {})", query, mode);
+        boolean fuzzy = switch (mode.toLowerCase()) {
+            case "text" -> false;
+            case "fuzzy" -> true;
+            default -> throw new RuntimeException("Unknown search mode: " + mode + " (expected text or fuzzy)");
+        };
+        int edits = Math.clamp(maxEdits != null ? maxEdits : fuzzyMaxEdits, 0, fuzzyMaxEditsLimit);
+        Page<BasicCourseDetailsResponse> results = courseService.searchCourses(query, fuzzy, edits,
+                Math.clamp(page, 0, CourseService.MAX_PAGE), Math.clamp(size, 1, 100));
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(results.getTotalElements()))
+                .body(results.getContent());
     }
 }
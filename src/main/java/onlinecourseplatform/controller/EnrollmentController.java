@@ -1,10 +1,13 @@
 package onlinecourseplatform.controller;
 
+import onlinecourseplatform.dto.requestDTOs.BulkEnrollmentRequest;
 import onlinecourseplatform.dto.responseDTOs.BasicCourseDetailsResponse;
+import onlinecourseplatform.dto.responseDTOs.BulkEnrollmentResponse;
 import onlinecourseplatform.dto.responseDTOs.EnrollmentResponseDTO;
 import onlinecourseplatform.service.EnrollmentService;
 import onlinecourseplatform.utility.Utility;
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -55,21 +58,18 @@ public class EnrollmentController {
     @Operation(summary = "Enroll in a course")
     public ResponseEntity<?> enroll(@PathVariable Long courseId, Principal principal) {
         Long studentId = utility.getUserIdFromPrincipal(principal);
-        EnrollmentResponseDTO dto = enrollmentService.enroll(studentId, courseId);
-        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
-                "message", "Enrolled successfully",
-                "enrollment", dto
+        EnrollmentService.EnrollResult result = enrollmentService.enroll(studentId, courseId);
+        return ResponseEntity.status(result.created() ? HttpStatus.CREATED : HttpStatus.OK).body(Map.of(
+                "message", result.created() ? "Enrolled successfully" : "Already enrolled in this course",
+                "enrollment", result.enrollment()
         ));
     }
 
-
-    @PutMapping("/completed/{courseId}")
-    @PreAuthorize("hasRole('STUDENT')")
-    @Operation(summary = "Mark course as completed")
-    public ResponseEntity<?> courseCompleted(@PathVariable Long courseId, Principal principal) {
-        Long studentId = utility.getUserIdFromPrincipal(principal);
-        enrollmentService.courseCompleted(studentId, courseId);
-        return ResponseEntity.ok(Map.of("message", "Course marked as completed"));
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Enroll a list of students in a list of courses (Admin only)")
+    public ResponseEntity<BulkEnrollmentResponse> bulkEnroll(@Valid @RequestBody BulkEnrollmentRequest request) {
+        return ResponseEntity.ok(enrollmentService.bulkEnroll(request.getStudentIds(), request.getCourseIds()));
     }
 
     @GetMapping("/{courseId}/is-enrolled")
@@ -0,0 +1,65 @@
+package onlinecourseplatform.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import onlinecourseplatform.dto.requestDTOs.VideoProgressRequest;
+import onlinecourseplatform.dto.responseDTOs.CourseCompletionDTO;
+import onlinecourseplatform.dto.responseDTOs.VideoProgressDTO;
+import onlinecourseplatform.service.CourseProgressService;
+import onlinecourseplatform.service.WatchProgressService;
+import onlinecourseplatform.utility.Utility;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Watch progress of the current student, reported by the video player and read back to resume lectures,
+ * and the course completion derived from it.
+ */
+@RestController
+@RequestMapping("/api/progress")
+@RequiredArgsConstructor
+@Slf4j
+public class ProgressController {
+
+    private final WatchProgressService watchProgressService;
+    private final CourseProgressService courseProgressService;
+    private final Utility utility;
+
+    /**
+     * Player heartbeat; buffered in memory and written in batches.
+     */
+    @PutMapping("/videos/{videoId}")
+    @PreAuthorize("hasRole('STUDENT')")
+    @Operation(summary = "Report the playback position of a video")
+    public ResponseEntity<Void> reportVideoProgress(@PathVariable Long videoId, @Valid @RequestBody VideoProgressRequest request) {
+        watchProgressService.heartbeat(utility.getCurrentUserId(), videoId, request.getPositionSeconds(), request.getDurationSeconds());
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/videos/{videoId}")
+    @PreAuthorize("hasRole('STUDENT')")
+    @Operation(summary = "Get the progress of a video (204 if not started)")
+    public ResponseEntity<VideoProgressDTO> getVideoProgress(@PathVariable Long videoId) {
+        VideoProgressDTO progress = watchProgressService.getVideoProgress(utility.getCurrentUserId(), videoId);
+        return progress == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(progress);
+    }
+
+    @GetMapping("/courses/{courseId}/completion")
+    @PreAuthorize("hasRole('STUDENT')")
+    @Operation(summary = "Get the share of a course's videos and documents completed")
+    public ResponseEntity<CourseCompletionDTO> getCourseCompletion(@PathVariable Long courseId) {
+        return ResponseEntity.ok(courseProgressService.getCompletion(utility.getCurrentUserId(), courseId));
+    }
+
+    @GetMapping("/courses/{courseId}")
+    @PreAuthorize("hasRole('STUDENT')")
+    @Operation(summary = "Get the progress of every started video of a course")
+    public ResponseEntity<List<VideoProgressDTO>> getCourseProgress(@PathVariable Long courseId) {
+        return ResponseEntity.ok(watchProgressService.getCourseProgress(utility.getCurrentUserId(), courseId));
+    }
+}
@@ -1,12 +1,15 @@
 package onlinecourseplatform.controller;
 
+import onlinecourseplatform.entity.AssetType;
 import onlinecourseplatform.entity.Course;
 import onlinecourseplatform.entity.Document;
 import onlinecourseplatform.entity.Video;
 import onlinecourseplatform.repository.DocumentRepository;
 import onlinecourseplatform.repository.VideoRepository;
+import onlinecourseplatform.service.CourseProgressService;
 import onlinecourseplatform.service.EnrollmentService;
 import onlinecourseplatform.service.SecureContentStreamingService;
+import onlinecourseplatform.service.TrendingCourseService;
 import onlinecourseplatform.utility.Utility;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +29,8 @@ public class SecureCourseContentController {
 
     private final EnrollmentService enrollmentService;
     private final SecureContentStreamingService streamingService;
+    private final TrendingCourseService trendingCourseService;
+    private final CourseProgressService courseProgressService;
     private final Utility utility;
     private final VideoRepository videoRepository;
     private final DocumentRepository documentRepository;
@@ -44,6 +49,9 @@ public class SecureCourseContentController {
 
         Course course = video.getModule().getCourse();
         Long courseId = course.getId();
+        if (course.isDeleted()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
 
         boolean isAuthorized = role.equals("ADMIN")
                 || (role.equals("INSTRUCTOR") && course.getInstructorId().equals(userId))
@@ -55,6 +63,9 @@ public class SecureCourseContentController {
         }
 
         log.info("User {} is accessing video {} from course {}", userId, videoId, courseId);
+        if (role.equals("STUDENT")) {
+            trendingCourseService.recordView(courseId);
+        }
         return streamingService.streamVideoContent(video.getURL(), video.getFilename());
     }
 
@@ -72,6 +83,9 @@ public class SecureCourseContentController {
 
         Course course = document.getModule().getCourse();
         Long courseId = course.getId();
+        if (course.isDeleted()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
 
         boolean isAuthorized = role.equals("ADMIN")
                 || (role.equals("INSTRUCTOR") && course.getInstructorId().equals(userId))
@@ -83,6 +97,10 @@ public class SecureCourseContentController {
         }
 
         log.info("User {} is accessing document {} from course {}", userId, documentId, courseId);
+        if (role.equals("STUDENT")) {
+            trendingCourseService.recordView(courseId);
+            courseProgressService.recordCompletion(userId, courseId, AssetType.DOCUMENT, documentId); // opening a document completes it
+        }
         return streamingService.streamDocumentContent(document.getURL(), document.getFilename());
     }
 }
@@ -0,0 +1,20 @@
+package onlinecourseplatform.dto.requestDTOs;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.*;
+
+import java.util.List;
+
+// Request DTO
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkEnrollmentRequest {
+
+    @NotEmpty(message = "Student ids are required")
+    private List<Long> studentIds;
+
+    @NotEmpty(message = "Course ids are required")
+    private List<Long> courseIds; // every student is enrolled in every course
+}
@@ -0,0 +1,17 @@
+package onlinecourseplatform.dto.requestDTOs;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+// Request DTO
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ModuleUpdateRequest {
+
+    @NotBlank(message = "Module name is required")
+    @Size(max = 100, message = "Module name must be less than 100 characters")
+    private String moduleName;
+}
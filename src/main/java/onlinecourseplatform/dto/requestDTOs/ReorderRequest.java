@@ -0,0 +1,17 @@
+package onlinecourseplatform.dto.requestDTOs;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.*;
+
+import java.util.List;
+
+// Request DTO
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReorderRequest {
+
+    @NotEmpty(message = "Ordered ids are required")
+    private List<Long> orderedIds; // every id of the collection, in the new display order
+}
@@ -0,0 +1,22 @@
+package onlinecourseplatform.dto.requestDTOs;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.*;
+
+// Request DTO
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VideoProgressRequest {
+
+    @NotNull(message = "Position is required")
+    @PositiveOrZero(message = "Position must not be negative")
+    private Integer positionSeconds;
+
+    @NotNull(message = "Duration is required")
+    @Positive(message = "Duration must be positive")
+    private Integer durationSeconds;
+}
@@ -0,0 +1,23 @@
+package onlinecourseplatform.dto.responseDTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnalyticsPointDTO {
+    private LocalDate period; // day, or first day of the month for compacted history; null for totals
+    private String granularity; // DAY or MONTH
+    private long enrollments;
+    private long completions;
+    private BigDecimal revenue;
+    private Double averageRating; // null when there were no reviews
+    private long ratingCount;
+}
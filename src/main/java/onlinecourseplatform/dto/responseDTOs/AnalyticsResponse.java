@@ -0,0 +1,20 @@
+package onlinecourseplatform.dto.responseDTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnalyticsResponse {
+    private LocalDate from;
+    private LocalDate to;
+    private AnalyticsPointDTO totals;
+    private List<AnalyticsPointDTO> series;
+}
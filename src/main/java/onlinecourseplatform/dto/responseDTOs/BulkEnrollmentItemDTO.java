@@ -0,0 +1,24 @@
+package onlinecourseplatform.dto.responseDTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkEnrollmentItemDTO {
+
+    public enum Result {
+        CREATED,
+        ALREADY_ENROLLED,
+        STUDENT_NOT_FOUND,
+        COURSE_NOT_FOUND
+    }
+
+    private Long studentId;
+    private Long courseId;
+    private Result result;
+}
@@ -0,0 +1,19 @@
+package onlinecourseplatform.dto.responseDTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkEnrollmentResponse {
+    private int created;
+    private int alreadyEnrolled;
+    private int rejected; // unknown student or course
+    private List<BulkEnrollmentItemDTO> items;
+}
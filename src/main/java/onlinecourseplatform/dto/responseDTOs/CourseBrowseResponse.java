@@ -0,0 +1,21 @@
+package onlinecourseplatform.dto.responseDTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourseBrowseResponse {
+    private long total;
+    private int page;
+    private int size;
+    private List<BasicCourseDetailsResponse> courses;
+    private Map<String, Map<String, Integer>> facets; // facet -> value -> matching courses
+}
@@ -0,0 +1,22 @@
+package onlinecourseplatform.dto.responseDTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import onlinecourseplatform.entity.Status;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourseCompletionDTO {
+    private Long courseId;
+    private int completedAssets;
+    private int totalAssets;
+    private int percent;
+    private Status status;
+    private LocalDateTime completedAt;
+}
@@ -15,6 +15,7 @@ import java.util.List;
 public class CourseContentResponseDTO {
     private Long courseId;
     private String title;
+    private Long contentVersion;
     private List<ModuleDTO> modules;
 }
 
@@ -0,0 +1,19 @@
+package onlinecourseplatform.dto.responseDTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DocumentSearchHitDTO {
+    private Long documentId;
+    private Long moduleId;
+    private String filename;
+    private int page;
+    private double score;
+    private String snippet;
+}
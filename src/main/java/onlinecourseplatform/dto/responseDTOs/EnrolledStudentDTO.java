@@ -0,0 +1,23 @@
+package onlinecourseplatform.dto.responseDTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import onlinecourseplatform.entity.Status;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EnrolledStudentDTO {
+    private Long enrollmentId; // keyset cursor for the next page
+    private Long studentId;
+    private String name;
+    private String email;
+    private LocalDateTime enrolledAt;
+    private LocalDateTime completedAt;
+    private Status status;
+}
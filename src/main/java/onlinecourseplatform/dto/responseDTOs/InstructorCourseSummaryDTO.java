@@ -0,0 +1,26 @@
+package onlinecourseplatform.dto.responseDTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InstructorCourseSummaryDTO {
+    private Long courseId;
+    private String title;
+    private BigDecimal price;
+    private LocalDateTime createdAt;
+    private long enrollmentCount;
+    private long completedCount;
+    private double completionRate; // completed / enrolled, 0 when nobody is enrolled
+    private Double averageRating; // null when the course has no reviews
+    private long reviewCount;
+    private double revenue; // sum of successful payments
+}
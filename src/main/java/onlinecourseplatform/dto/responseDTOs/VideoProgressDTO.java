@@ -0,0 +1,20 @@
+package onlinecourseplatform.dto.responseDTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VideoProgressDTO {
+    private Long videoId;
+    private int positionSeconds;
+    private int durationSeconds;
+    private int percent;
+    private LocalDateTime updatedAt;
+}
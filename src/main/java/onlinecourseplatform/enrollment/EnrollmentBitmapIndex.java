@@ -0,0 +1,187 @@
+package onlinecourseplatform.enrollment;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed bitmaps of enrollments: per course the ids of its enrolled and of its completed students,
+ * and per student the ids of their courses. Bitmaps hold ints, so only ids up to
+ * {@link Integer#MAX_VALUE} can be indexed (see {@link #indexable}).
+ * Thread-safe: many concurrent readers, one writer at a time.
+ */
+public class EnrollmentBitmapIndex {
+
+    public enum Membership {
+        NOT_ENROLLED,
+        ENROLLED,
+        COMPLETED
+    }
+
+    private final Map<Long, RoaringBitmap> studentsByCourse = new HashMap<>();
+    private final Map<Long, RoaringBitmap> completedByCourse = new HashMap<>();
+    private final Map<Long, RoaringBitmap> coursesByStudent = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long size;
+
+    public static boolean indexable(long studentId, long courseId) {
+        return studentId >= 0 && studentId <= Integer.MAX_VALUE && courseId >= 0 && courseId <= Integer.MAX_VALUE;
+    }
+
+    public Membership membership(long courseId, long studentId) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap students = studentsByCourse.get(courseId);
+            if (students == null || !students.contains((int) studentId)) {
+                return Membership.NOT_ENROLLED;
+            }
+            RoaringBitmap completed = completedByCourse.get(courseId);
+            return completed != null && completed.contains((int) studentId) ? Membership.COMPLETED : Membership.ENROLLED;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the student's courses, or an empty array if the index has none.
+     */
+    public long[] courseIdsOf(long studentId) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap courses = coursesByStudent.get(studentId);
+            return courses == null ? new long[0] : courses.stream().asLongStream().toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(long courseId, long studentId, boolean completed) {
+        lock.writeLock().lock();
+        try {
+            if (studentsByCourse.computeIfAbsent(courseId, id -> new RoaringBitmap()).checkedAdd((int) studentId)) {
+                size++;
+            }
+            coursesByStudent.computeIfAbsent(studentId, id -> new RoaringBitmap()).add((int) courseId);
+            if (completed) {
+                completedByCourse.computeIfAbsent(courseId, id -> new RoaringBitmap()).add((int) studentId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marks an enrolled student as having completed the course; unknown enrollments are ignored.
+     */
+    public void complete(long courseId, long studentId) {
+        lock.writeLock().lock();
+        try {
+            RoaringBitmap students = studentsByCourse.get(courseId);
+            if (students != null && students.contains((int) studentId)) {
+                completedByCourse.computeIfAbsent(courseId, id -> new RoaringBitmap()).add((int) studentId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long courseId, long studentId) {
+        lock.writeLock().lock();
+        try {
+            RoaringBitmap students = studentsByCourse.get(courseId);
+            if (students == null || !students.checkedRemove((int) studentId)) {
+                return;
+            }
+            size--;
+            if (students.isEmpty()) {
+                studentsByCourse.remove(courseId);
+            }
+            removeFrom(completedByCourse, courseId, studentId);
+            removeFrom(coursesByStudent, studentId, courseId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a course with all its enrollments.
+     */
+    public void removeCourse(long courseId) {
+        lock.writeLock().lock();
+        try {
+            completedByCourse.remove(courseId);
+            RoaringBitmap students = studentsByCourse.remove(courseId);
+            if (students != null) {
+                size -= students.getCardinality();
+                students.forEach((int studentId) -> removeFrom(coursesByStudent, studentId, courseId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compacts the bitmaps (run-length containers where they are smaller); worth doing after a bulk load.
+     */
+    public void optimize() {
+        lock.writeLock().lock();
+        try {
+            studentsByCourse.values().forEach(RoaringBitmap::runOptimize);
+            completedByCourse.values().forEach(RoaringBitmap::runOptimize);
+            coursesByStudent.values().forEach(RoaringBitmap::runOptimize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the enrollments and completions that are in only one of the two indexes.
+     */
+    public long differences(EnrollmentBitmapIndex other) {
+        lock.readLock().lock();
+        other.lock.readLock().lock();
+        try {
+            return differences(studentsByCourse, other.studentsByCourse)
+                    + differences(completedByCourse, other.completedByCourse);
+        } finally {
+            other.lock.readLock().unlock();
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long differences(Map<Long, RoaringBitmap> left, Map<Long, RoaringBitmap> right) {
+        Set<Long> keys = new HashSet<>(left.keySet());
+        keys.addAll(right.keySet());
+        long count = 0;
+        for (Long key : keys) {
+            RoaringBitmap a = left.getOrDefault(key, new RoaringBitmap());
+            RoaringBitmap b = right.getOrDefault(key, new RoaringBitmap());
+            count += RoaringBitmap.xorCardinality(a, b);
+        }
+        return count;
+    }
+
+    private static void removeFrom(Map<Long, RoaringBitmap> bitmaps, long key, long value) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove((int) value);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package onlinecourseplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Single-row marker of the analytics backfill, written in the backfill transaction. Source rows before
+ * {@code cutoff} are counted by the backfill; activity events from the cutoff on are applied live.
+ */
+@Entity
+@Table(name = "analytics_backfill")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnalyticsBackfill {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDateTime cutoff;
+
+    @Column(nullable = false)
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,47 @@
+package onlinecourseplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * A video or document a student has completed. The unique key makes recording a completion idempotent,
+ * so each asset adds to {@link Enrollment#getCompletedAssets()} only once.
+ */
+@Entity
+@Table(name = "asset_completions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_asset_completions_student_asset", columnNames = {"studentId", "assetType", "assetId"}),
+        indexes = @Index(name = "idx_asset_completions_course_student", columnList = "courseId, studentId"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AssetCompletion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long studentId;
+
+    @Column(nullable = false)
+    private Long courseId;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 16)
+    private AssetType assetType;
+
+    @Column(nullable = false)
+    private Long assetId;
+
+    @Column(nullable = false)
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,6 @@
+package onlinecourseplatform.entity;
+
+public enum AssetType {
+    VIDEO,
+    DOCUMENT
+}
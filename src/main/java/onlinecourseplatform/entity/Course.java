@@ -7,7 +7,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "courses")
+@Table(name = "courses", indexes = @Index(name = "idx_courses_enrollment_count", columnList = "enrollmentCount"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -36,7 +36,22 @@ public class Course {
     @Column(updatable = false)
     private LocalDateTime createdAt;
 
+    @Column(nullable = false)
+    private long contentVersion; // bumped whenever the content manifest is rebuilt
+
+    @Column(nullable = false, updatable = false)
+    private long enrollmentCount; // only changed by atomic UPDATEs on enroll/unenroll, reconciled periodically
+
+    @Column(nullable = false, updatable = false)
+    private int totalAssets; // videos + documents, recounted by CourseProgressService after content changes
+
+    @Column(nullable = false)
+    private boolean deleted; // soft-deleted courses are hidden until the purge job removes them
+
+    private LocalDateTime deletedAt;
+
     @OneToMany(mappedBy = "course", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("position ASC, id ASC")
     private List<Module> modules;
 
     @OneToMany(mappedBy = "course", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -0,0 +1,35 @@
+package onlinecourseplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pre-built, compressed course content (modules, videos, documents) served to enrolled students.
+ * Regenerated whenever an instructor changes the course.
+ */
+@Entity
+@Table(name = "course_content_manifests")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourseContentManifest {
+
+    @Id
+    private Long courseId;
+
+    @Column(nullable = false)
+    private long contentVersion;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "MEDIUMBLOB")
+    private byte[] payload; // gzip-compressed JSON of CourseContentResponseDTO
+
+    @Column(nullable = false)
+    private LocalDateTime builtAt;
+}
@@ -0,0 +1,50 @@
+package onlinecourseplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One day of activity of a course. Written by upserts from {@code AnalyticsService}; days older than the
+ * retention period are rolled up into {@link CourseMonthlyStats} and deleted.
+ * Rows are kept when a course is purged so instructor totals stay complete.
+ */
+@Entity
+@Table(name = "course_daily_stats",
+        uniqueConstraints = @UniqueConstraint(name = "uk_course_daily_stats_course_day", columnNames = {"courseId", "day"}),
+        indexes = @Index(name = "idx_course_daily_stats_instructor_day", columnList = "instructorId, day"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourseDailyStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long courseId;
+
+    @Column(nullable = false)
+    private Long instructorId;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    private long enrollments;
+
+    private long completions;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    private long ratingSum;
+
+    private long ratingCount;
+}
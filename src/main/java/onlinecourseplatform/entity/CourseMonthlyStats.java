@@ -0,0 +1,50 @@
+package onlinecourseplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One month of activity of a course, produced by compacting {@link CourseDailyStats}.
+ * {@code month} is the first day of the month.
+ * Rows are kept when a course is purged so instructor totals stay complete.
+ */
+@Entity
+@Table(name = "course_monthly_stats",
+        uniqueConstraints = @UniqueConstraint(name = "uk_course_monthly_stats_course_month", columnNames = {"courseId", "month"}),
+        indexes = @Index(name = "idx_course_monthly_stats_instructor_month", columnList = "instructorId, month"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourseMonthlyStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long courseId;
+
+    @Column(nullable = false)
+    private Long instructorId;
+
+    @Column(nullable = false)
+    private LocalDate month;
+
+    private long enrollments;
+
+    private long completions;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    private long ratingSum;
+
+    private long ratingCount;
+}
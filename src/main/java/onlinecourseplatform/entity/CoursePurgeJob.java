@@ -0,0 +1,51 @@
+package onlinecourseplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the background purge of a soft-deleted course. The current phase and row count are
+ * persisted after every batch so the purge resumes where it stopped after a restart.
+ */
+@Entity
+@Table(name = "course_purge_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CoursePurgeJob {
+
+    @Id
+    private Long courseId;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR) // plain varchar so new phases need no column change
+    @Column(nullable = false, length = 32)
+    private PurgePhase phase;
+
+    @Column(nullable = false)
+    private long rowsPurged;
+
+    @Column(nullable = false)
+    private Long instructorId;
+
+    private Long requestedBy;
+
+    private String lockedBy; // node currently working on the job
+
+    private LocalDateTime lockedUntil;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime completedAt;
+}
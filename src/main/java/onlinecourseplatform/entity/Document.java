@@ -14,7 +14,8 @@ import lombok.NoArgsConstructor;
 @Builder
 public class Document {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "document_seq")
+    @SequenceGenerator(name = "document_seq", sequenceName = "document_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "document_url")
@@ -27,6 +28,9 @@ public class Document {
     @Enumerated(EnumType.STRING)
     private CloudProvider cloudProvider;
 
+    @Column(name = "position")
+    private Integer position; // display order within the module
+
     @ManyToOne
     @JoinColumn(name = "module_id")
     private Module module;
@@ -0,0 +1,41 @@
+package onlinecourseplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Extracted text of one page of a course document.
+ */
+@Entity
+@Table(name = "document_pages", indexes = {
+        @Index(name = "idx_document_pages_document", columnList = "documentId"),
+        @Index(name = "idx_document_pages_course", columnList = "courseId")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DocumentPage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long documentId;
+
+    @Column(nullable = false)
+    private Long moduleId;
+
+    @Column(nullable = false)
+    private Long courseId;
+
+    @Column(nullable = false)
+    private int pageNumber;
+
+    @Column(columnDefinition = "MEDIUMTEXT")
+    private String text;
+}
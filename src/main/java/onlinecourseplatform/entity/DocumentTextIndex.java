@@ -0,0 +1,55 @@
+package onlinecourseplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Text extraction state of a document: the URL and ETag the stored pages were extracted from,
+ * when the source was last checked, and a lease so only one node processes a document at a time.
+ */
+@Entity
+@Table(name = "document_text_index", indexes = @Index(name = "idx_text_index_revision", columnList = "revision"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DocumentTextIndex {
+
+    @Id
+    private Long documentId;
+
+    @Column(nullable = false)
+    private Long courseId;
+
+    @Column(length = 1000)
+    private String sourceUrl;
+
+    private String etag; // server ETag, or a content hash when the server sends none
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 20)
+    private TextIndexStatus status;
+
+    private int pageCount;
+
+    @Column(length = 500)
+    private String error;
+
+    private LocalDateTime checkedAt;
+
+    private LocalDateTime indexedAt;
+
+    private Long revision; // from DocumentTextRevision, bumped whenever the stored pages change
+
+    private String lockedBy;
+
+    private LocalDateTime lockedUntil;
+}
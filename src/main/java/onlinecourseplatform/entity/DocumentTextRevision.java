@@ -0,0 +1,26 @@
+package onlinecourseplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single-row counter behind {@link DocumentTextIndex#getRevision()}. Bumping it row-locks the counter
+ * until the extraction commits, so revisions become visible in increasing order.
+ */
+@Entity
+@Table(name = "document_text_revision")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DocumentTextRevision {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private long revision;
+}
@@ -2,12 +2,13 @@ package onlinecourseplatform.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "enrollments")
+@Table(name = "enrollments", uniqueConstraints = @UniqueConstraint(name = "uk_enrollments_student_course", columnNames = {"studentId", "course_id"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -33,6 +34,10 @@ public class Enrollment {
 
     private LocalDateTime completedAt;
 
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private int completedAssets; // incremented by CourseProgressService as videos and documents are completed
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private Status status;
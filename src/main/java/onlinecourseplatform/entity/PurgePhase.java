@@ -0,0 +1,19 @@
+package onlinecourseplatform.entity;
+
+/**
+ * Steps of the background purge of a soft-deleted course, executed in declaration order.
+ */
+public enum PurgePhase {
+    FEEDBACK,
+    ENROLLMENTS,
+    PAYMENTS,
+    DOCUMENT_PAGES,
+    DOCUMENT_TEXT_INDEX,
+    DOCUMENTS,
+    VIDEO_PROGRESS,
+    ASSET_COMPLETIONS,
+    VIDEOS,
+    MODULES,
+    COURSE,
+    DONE
+}
@@ -0,0 +1,11 @@
+package onlinecourseplatform.entity;
+
+/**
+ * State of text extraction for a single document.
+ */
+public enum TextIndexStatus {
+    PENDING,
+    INDEXED,
+    UNSUPPORTED, // not a PDF
+    FAILED
+}
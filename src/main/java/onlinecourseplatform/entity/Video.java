@@ -14,7 +14,8 @@ import lombok.NoArgsConstructor;
 @Builder
 public class Video {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "video_seq")
+    @SequenceGenerator(name = "video_seq", sequenceName = "video_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "video_url")
@@ -30,6 +31,12 @@ public class Video {
     @Column(name = "description")
     private String description;
 
+    @Column(name = "position")
+    private Integer position; // display order within the module
+
+    @Column(name = "duration_seconds", insertable = false, updatable = false)
+    private Integer durationSeconds; // set once from the first playback heartbeat, see WatchProgressService
+
     @ManyToOne
     @JoinColumn(name = "module_id")
     private Module module;
@@ -0,0 +1,51 @@
+package onlinecourseplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Where a student is in a video and how much of it they have watched. Written in batches by
+ * {@code WatchProgressService} from coalesced player heartbeats.
+ */
+@Entity
+@Table(name = "video_progress",
+        uniqueConstraints = @UniqueConstraint(name = "uk_video_progress_student_video", columnNames = {"studentId", "videoId"}),
+        indexes = {
+                @Index(name = "idx_video_progress_student_course", columnList = "studentId, courseId"),
+                @Index(name = "idx_video_progress_course", columnList = "courseId")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VideoProgress {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long studentId;
+
+    @Column(nullable = false)
+    private Long videoId;
+
+    @Column(nullable = false)
+    private Long courseId;
+
+    private int positionSeconds; // latest reported position, for resuming
+
+    private int durationSeconds;
+
+    private int watchedSeconds; // playback time credited at most at real-time speed, capped by the position
+
+    private int percent; // highest share of the video watched, 0-100
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,28 @@
+package onlinecourseplatform.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when something countable happens in a course, for the analytics rollups.
+ * {@code value} is the number of enrollments or completions, the amount of a payment or the rating of a review.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CourseActivityEvent {
+
+    public enum Type {
+        ENROLLMENT,
+        COMPLETION,
+        PAYMENT,
+        RATING
+    }
+
+    private final Long courseId;
+    private final Long instructorId;
+    private final Type type;
+    private final double value;
+    private final LocalDateTime occurredAt;
+}
@@ -0,0 +1,29 @@
+package onlinecourseplatform.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published whenever a course (or something shown with it) changes.
+ * Remote events are re-published locally when another node broadcasts a change.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CourseChangedEvent {
+
+    public enum Change {
+        CREATED,
+        UPDATED,
+        CONTENT, // modules, videos or documents only; catalog details unchanged
+        DELETED,
+        FEEDBACK
+    }
+
+    private final Long courseId;
+    private final Change change;
+    private final boolean remote;
+
+    public CourseChangedEvent(Long courseId, Change change) {
+        this(courseId, change, false);
+    }
+}
@@ -0,0 +1,23 @@
+package onlinecourseplatform.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Published when enrollments of a course are added or removed; {@code delta} is the change in count
+ * and {@code studentIds} are the students who joined or left.
+ */
+@Getter
+@RequiredArgsConstructor
+public class EnrollmentChangedEvent {
+
+    private final Long courseId;
+    private final List<Long> studentIds;
+    private final int delta;
+
+    public EnrollmentChangedEvent(Long courseId, Long studentId, int delta) {
+        this(courseId, List.of(studentId), delta);
+    }
+}
@@ -0,0 +1,15 @@
+package onlinecourseplatform.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when a student completes a course for the first time.
+ */
+@Getter
+@RequiredArgsConstructor
+public class EnrollmentCompletedEvent {
+
+    private final Long courseId;
+    private final Long studentId;
+}
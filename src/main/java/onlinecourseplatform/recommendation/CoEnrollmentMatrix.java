@@ -0,0 +1,173 @@
+package onlinecourseplatform.recommendation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Sparse, symmetric course x course matrix of how many students are enrolled in both courses,
+ * plus the number of students per course. Each row is a {@link LongIntHashMap}, so counts are stored
+ * as primitives. Related courses are ranked by cosine similarity:
+ * {@code both(a, b) / sqrt(students(a) * students(b))}.
+ * Thread-safe: many concurrent readers, one writer at a time.
+ */
+public class CoEnrollmentMatrix {
+
+    private final Map<Long, LongIntHashMap> rows;
+    private final LongIntHashMap students;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public record Related(long courseId, double score, int sharedStudents) {
+    }
+
+    private CoEnrollmentMatrix(Map<Long, LongIntHashMap> rows, LongIntHashMap students) {
+        this.rows = rows;
+        this.students = students;
+    }
+
+    public static CoEnrollmentMatrix empty() {
+        return new CoEnrollmentMatrix(new HashMap<>(), new LongIntHashMap());
+    }
+
+    /**
+     * Records a new enrollment in {@code courseId} of a student already enrolled in {@code otherCourseIds}.
+     */
+    public void addEnrollment(long courseId, long[] otherCourseIds) {
+        lock.writeLock().lock();
+        try {
+            students.addTo(courseId, 1);
+            LongIntHashMap row = rows.computeIfAbsent(courseId, id -> new LongIntHashMap());
+            for (long other : otherCourseIds) {
+                if (other != courseId) {
+                    row.addTo(other, 1);
+                    rows.computeIfAbsent(other, id -> new LongIntHashMap()).addTo(courseId, 1);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a course together with its column.
+     */
+    public void removeCourse(long courseId) {
+        lock.writeLock().lock();
+        try {
+            students.remove(courseId);
+            LongIntHashMap row = rows.remove(courseId);
+            if (row != null) {
+                row.forEach((other, count) -> {
+                    LongIntHashMap otherRow = rows.get(other);
+                    if (otherRow != null) {
+                        otherRow.remove(courseId);
+                    }
+                });
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the {@code limit} courses most similar to the given one that share at least
+     * {@code minShared} students with it, most similar first.
+     */
+    public List<Related> related(long courseId, int limit, int minShared) {
+        Comparator<Related> ranking = Comparator.comparingDouble(Related::score)
+                .thenComparing(Related::courseId, Comparator.reverseOrder());
+        PriorityQueue<Related> top = new PriorityQueue<>(ranking);
+        lock.readLock().lock();
+        try {
+            LongIntHashMap row = rows.get(courseId);
+            if (row == null || limit <= 0) {
+                return List.of();
+            }
+            double own = students.get(courseId);
+            row.forEach((other, shared) -> {
+                if (shared < minShared) {
+                    return;
+                }
+                Related related = new Related(other, shared / Math.sqrt(own * Math.max(students.get(other), shared)), shared);
+                if (top.size() < limit) {
+                    top.add(related);
+                } else if (ranking.compare(related, top.peek()) > 0) {
+                    top.poll();
+                    top.add(related);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Related> ranked = new ArrayList<>(top);
+        ranked.sort(ranking.reversed());
+        return ranked;
+    }
+
+    public int courseCount() {
+        lock.readLock().lock();
+        try {
+            return students.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Builds a matrix from per-student enrollment lists, in parallel. Rows are split into partitions by
+     * course id and every partition only writes its own rows, so workers never share a map.
+     */
+    public static class Builder {
+
+        private final List<Map<Long, LongIntHashMap>> partitionRows = new ArrayList<>();
+        private final List<LongIntHashMap> partitionStudents = new ArrayList<>();
+
+        public Builder(int partitions) {
+            for (int i = 0; i < partitions; i++) {
+                partitionRows.add(new HashMap<>());
+                partitionStudents.add(new LongIntHashMap());
+            }
+        }
+
+        /**
+         * Adds a chunk of students; each element holds the distinct course ids of one student.
+         */
+        public void addStudents(List<long[]> courseIdsPerStudent) {
+            int partitions = partitionRows.size();
+            IntStream.range(0, partitions).parallel().forEach(partition -> {
+                Map<Long, LongIntHashMap> ownRows = partitionRows.get(partition);
+                LongIntHashMap ownStudents = partitionStudents.get(partition);
+                for (long[] courseIds : courseIdsPerStudent) {
+                    for (long course : courseIds) {
+                        if (Math.floorMod(course, partitions) != partition) {
+                            continue;
+                        }
+                        ownStudents.addTo(course, 1);
+                        if (courseIds.length > 1) {
+                            LongIntHashMap row = ownRows.computeIfAbsent(course, id -> new LongIntHashMap());
+                            for (long other : courseIds) {
+                                if (other != course) {
+                                    row.addTo(other, 1);
+                                }
+                            }
+                        }
+                    }
+                }
+            });
+        }
+
+        public CoEnrollmentMatrix build() {
+            Map<Long, LongIntHashMap> rows = new HashMap<>();
+            partitionRows.forEach(rows::putAll);
+            LongIntHashMap students = new LongIntHashMap();
+            partitionStudents.forEach(counts -> counts.forEach(students::addTo));
+            return new CoEnrollmentMatrix(rows, students);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package onlinecourseplatform.repository;
+
+import onlinecourseplatform.entity.AssetCompletion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AssetCompletionRepository extends JpaRepository<AssetCompletion, Long> {
+
+    @Modifying
+    @Query("DELETE FROM AssetCompletion a WHERE a.studentId = :studentId")
+    int deleteByStudentId(@Param("studentId") Long studentId);
+}
@@ -0,0 +1,18 @@
+package onlinecourseplatform.repository;
+
+import onlinecourseplatform.entity.CourseContentManifest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CourseContentManifestRepository extends JpaRepository<CourseContentManifest, Long> {
+
+    // Only a manifest built for the course's current content version, and only for a live course
+    @Query("SELECT m FROM CourseContentManifest m, Course c WHERE m.courseId = :courseId AND c.id = m.courseId "
+            + "AND c.deleted = false AND m.contentVersion = c.contentVersion")
+    Optional<CourseContentManifest> findCurrent(@Param("courseId") Long courseId);
+}
@@ -0,0 +1,13 @@
+package onlinecourseplatform.repository;
+
+import onlinecourseplatform.entity.CoursePurgeJob;
+import onlinecourseplatform.entity.PurgePhase;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CoursePurgeJobRepository extends JpaRepository<CoursePurgeJob, Long> {
+    List<CoursePurgeJob> findByPhaseNot(PurgePhase phase);
+}
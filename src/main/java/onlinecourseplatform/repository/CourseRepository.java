@@ -1,18 +1,80 @@
 package onlinecourseplatform.repository;
 
 import onlinecourseplatform.entity.Course;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CourseRepository extends JpaRepository<Course, Long> {
-    List<Course> findByInstructorId(Long instructorId);
-    @Query("SELECT c FROM Course c WHERE LOWER(c.title) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(c.description) LIKE LOWER(CONCAT('%', :query, '%'))")
+    Page<Course> findByInstructorIdAndDeletedFalse(Long instructorId, Pageable pageable);
+
+    // One row per course of the instructor; the correlated subqueries use the course_id foreign key indexes
+    @Query("SELECT c.id AS courseId, c.title AS title, c.price AS price, c.createdAt AS createdAt, c.enrollmentCount AS enrollmentCount, "
+            + "(SELECT COUNT(e) FROM Enrollment e WHERE e.course = c AND e.completedAt IS NOT NULL) AS completedCount, "
+            + "(SELECT AVG(f.rating) FROM Feedback f WHERE f.course = c) AS averageRating, "
+            + "(SELECT COUNT(f) FROM Feedback f WHERE f.course = c) AS reviewCount, "
+            + "(SELECT SUM(p.amount) FROM Payment p WHERE p.course = c AND p.status = onlinecourseplatform.entity.PaymentStatus.SUCCESS) AS revenue "
+            + "FROM Course c WHERE c.instructorId = :instructorId AND c.deleted = false ORDER BY c.createdAt DESC, c.id DESC")
+    List<InstructorCourseStats> findInstructorCourseStats(@Param("instructorId") Long instructorId);
+
+    Optional<Course> findByIdAndDeletedFalse(Long id);
+
+    List<Course> findAllByDeletedFalse();
+
+    @Query("SELECT c FROM Course c WHERE c.deleted = false AND (LOWER(c.title) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(c.description) LIKE LOWER(CONCAT('%', :query, '%')))")
     List<Course> searchCoursesByTitleOrDescription(@Param("query") String query);
 
-}
+    // Atomic in-place increment, safe under concurrent enrollments
+    @Modifying
+    @Query("UPDATE Course c SET c.enrollmentCount = c.enrollmentCount + :delta WHERE c.id = :courseId")
+    int adjustEnrollmentCount(@Param("courseId") Long courseId, @Param("delta") long delta);
+
+    @Query("SELECT c.id, c.enrollmentCount FROM Course c WHERE c.deleted = false AND c.enrollmentCount > 0")
+    List<Object[]> findEnrollmentCounts();
+
+    @Query("SELECT c.id FROM Course c WHERE c.deleted = false ORDER BY c.enrollmentCount DESC, c.id ASC")
+    List<Long> findIdsOrderByEnrollmentCount(Pageable pageable);
+
+    @Query("SELECT c.instructorId AS instructorId, c.enrollmentCount AS enrollmentCount FROM Course c WHERE c.id = :id AND c.deleted = false")
+    Optional<EnrollmentCountView> findEnrollmentCountById(@Param("id") Long id);
+
+    @Query("SELECT c.id FROM Course c WHERE c.deleted = false AND c.id IN :ids")
+    List<Long> findLiveIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    interface InstructorCourseStats {
+        Long getCourseId();
 
+        String getTitle();
+
+        BigDecimal getPrice();
+
+        LocalDateTime getCreatedAt();
+
+        long getEnrollmentCount();
+
+        Long getCompletedCount();
+
+        Double getAverageRating();
+
+        Long getReviewCount();
+
+        Double getRevenue();
+    }
+
+    interface EnrollmentCountView {
+        Long getInstructorId();
+
+        long getEnrollmentCount();
+    }
+}
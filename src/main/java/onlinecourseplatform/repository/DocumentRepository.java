@@ -2,7 +2,15 @@ package onlinecourseplatform.repository;
 
 import onlinecourseplatform.entity.Document;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 
 public interface DocumentRepository extends JpaRepository<Document, Long> {
-    void deleteByModuleId(Long id);
+    // Set-based deletes: a single DELETE statement instead of loading and removing each entity
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Document d WHERE d.module.id IN :moduleIds")
+    int deleteByModuleIdIn(@Param("moduleIds") Collection<Long> moduleIds);
 }
@@ -1,29 +1,61 @@
 package onlinecourseplatform.repository;
 
+import onlinecourseplatform.dto.responseDTOs.EnrolledStudentDTO;
 import onlinecourseplatform.entity.Course;
 import onlinecourseplatform.entity.Enrollment;
+import onlinecourseplatform.entity.Status;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
 
-    boolean existsByStudentIdAndCourseId(Long userId, Long courseId);
-
     Enrollment findByStudentIdAndCourseId(Long userId, Long courseId);
 
     List<Enrollment> findAllByStudentId(Long studentId);
 
-    @Query("SELECT e.course FROM Enrollment e WHERE e.studentId = :studentId")
-    List<Course> findCoursesByStudentId(Long studentId);
+    @Query("SELECT e.status FROM Enrollment e WHERE e.studentId = :studentId AND e.course.id = :courseId")
+    Optional<Status> findStatusByStudentIdAndCourseId(@Param("studentId") Long studentId, @Param("courseId") Long courseId);
 
-    @Query("SELECT e.course FROM Enrollment e GROUP BY e.course ORDER BY COUNT(e.id) DESC")
-    List<Course> findMostPopularCourses(Pageable pageable);
+    // Insert-or-nothing in one statement: the unique (student_id, course_id) key turns a second enrollment into a no-op.
+    // Returns 1 when a row was inserted, 0 when it already existed or the course does not exist. INSERT IGNORE rather than
+    // ON DUPLICATE KEY UPDATE: with Connector/J's default CLIENT_FOUND_ROWS a no-op update would also report 1.
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO enrollments (student_id, course_id, price, enrolled_at, status) "
+            + "SELECT :studentId, c.id, c.price, :enrolledAt, 'ACTIVE' FROM courses c WHERE c.id = :courseId AND c.deleted = false",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("studentId") Long studentId, @Param("courseId") Long courseId,
+                       @Param("enrolledAt") LocalDateTime enrolledAt);
 
+    @Query("SELECT e.course FROM Enrollment e WHERE e.studentId = :studentId AND e.course.deleted = false")
+    List<Course> findCoursesByStudentId(Long studentId);
 
+    @Query("SELECT e.course.id FROM Enrollment e WHERE e.studentId = :studentId")
+    List<Long> findCourseIdsByStudentId(@Param("studentId") Long studentId);
+
+    // (studentId, courseId) rows of all enrollments of the given students
+    @Query("SELECT e.studentId, e.course.id FROM Enrollment e WHERE e.studentId IN :studentIds")
+    List<Object[]> findStudentCoursePairs(@Param("studentIds") List<Long> studentIds);
+
+    @Modifying
+    @Query("DELETE FROM Enrollment e WHERE e.studentId = :studentId")
+    int deleteByStudentId(@Param("studentId") Long studentId);
+
+    // Keyset page of a course's students in enrollment order, one join instead of a user lookup per row
+    @Query("SELECT new onlinecourseplatform.dto.responseDTOs.EnrolledStudentDTO(e.id, u.id, u.name, u.email, e.enrolledAt, e.completedAt, e.status) "
+            + "FROM Enrollment e JOIN User u ON u.id = e.studentId "
+            + "WHERE e.course.id = :courseId AND e.id > :afterId "
+            + "AND (:name IS NULL OR LOWER(u.name) LIKE LOWER(CONCAT('%', :name, '%'))) "
+            + "ORDER BY e.id")
+    List<EnrolledStudentDTO> findEnrolledStudents(@Param("courseId") Long courseId, @Param("afterId") Long afterId,
+                                                  @Param("name") String name, Pageable pageable);
 }
 
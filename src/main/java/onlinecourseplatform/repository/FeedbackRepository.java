@@ -2,6 +2,9 @@ package onlinecourseplatform.repository;
 
 import onlinecourseplatform.entity.Feedback;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +13,17 @@ import java.util.List;
 public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
     boolean existsByCourseIdAndStudentId(Long courseId, Long studentId);
     List<Feedback> findByCourseId(Long courseId);
+
+    @Query("SELECT f.course.id, AVG(f.rating) FROM Feedback f GROUP BY f.course.id")
+    List<Object[]> averageRatingPerCourse();
+
+    @Query("SELECT AVG(f.rating) FROM Feedback f WHERE f.course.id = :courseId")
+    Double averageRating(@Param("courseId") Long courseId);
+
+    @Query("SELECT DISTINCT f.course.id FROM Feedback f WHERE f.studentId = :studentId")
+    List<Long> findCourseIdsByStudentId(@Param("studentId") Long studentId);
+
+    @Modifying
+    @Query("DELETE FROM Feedback f WHERE f.studentId = :studentId")
+    int deleteByStudentId(@Param("studentId") Long studentId);
 }
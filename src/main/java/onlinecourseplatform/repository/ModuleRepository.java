@@ -2,11 +2,20 @@ package onlinecourseplatform.repository;
 
 import onlinecourseplatform.entity.Module;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ModuleRepository extends JpaRepository<Module, Long> {
     List<Module> findByCourseId(Long courseId);
+
+    // Clears the persistence context: loaded courses still hold the deleted modules
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Module m WHERE m.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -2,6 +2,9 @@ package onlinecourseplatform.repository;
 
 import onlinecourseplatform.entity.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -12,4 +15,9 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Payment findByUserIdAndCourseId(Long userId, Long courseId);
 
     List<Payment> findByUserId(Long userId);
+
+    // Payments are kept as financial records when a user is deleted
+    @Modifying
+    @Query("UPDATE Payment p SET p.user = NULL WHERE p.user.id = :userId")
+    int detachUser(@Param("userId") Long userId);
 }
\ No newline at end of file
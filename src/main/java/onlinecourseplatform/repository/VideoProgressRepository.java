@@ -0,0 +1,16 @@
+package onlinecourseplatform.repository;
+
+import onlinecourseplatform.entity.VideoProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface VideoProgressRepository extends JpaRepository<VideoProgress, Long> {
+
+    @Modifying
+    @Query("DELETE FROM VideoProgress p WHERE p.studentId = :studentId")
+    int deleteByStudentId(@Param("studentId") Long studentId);
+}
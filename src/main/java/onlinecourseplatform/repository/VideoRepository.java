@@ -2,12 +2,20 @@ package onlinecourseplatform.repository;
 
 import onlinecourseplatform.entity.Video;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface VideoRepository extends JpaRepository<Video,Long> {
-    void deleteByModuleId(Long id);
+    // Set-based deletes: a single DELETE statement instead of loading and removing each entity
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Video v WHERE v.module.id IN :moduleIds")
+    int deleteByModuleIdIn(@Param("moduleIds") Collection<Long> moduleIds);
+
     List<Video> findByModuleId(Long moduleId); // optional
 }
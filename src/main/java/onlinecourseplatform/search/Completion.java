@@ -0,0 +1,12 @@
+package onlinecourseplatform.search;
+
+/**
+ * One autocomplete suggestion: a course title or an instructor name.
+ */
+public record Completion(Type type, long id, String text) {
+
+    public enum Type {
+        COURSE,
+        INSTRUCTOR
+    }
+}
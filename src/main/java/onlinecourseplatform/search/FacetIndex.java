@@ -0,0 +1,202 @@
+package onlinecourseplatform.search;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap index for faceted filtering: one compressed bitmap of document ids per facet value and
+ * one per creation day. A query intersects the selected values and, from the same bitmaps,
+ * counts every facet value against the filters of the other facets (multi-select faceting).
+ * Thread-safe: many concurrent queries, one writer at a time.
+ */
+public class FacetIndex {
+
+    private final Map<String, Map<String, RoaringBitmap>> facets = new HashMap<>();
+    private final NavigableMap<LocalDate, RoaringBitmap> createdOn = new TreeMap<>();
+    private final Map<Integer, Entry> documents = new HashMap<>();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private record Entry(Map<String, String> values, LocalDate created) {
+    }
+
+    /**
+     * Matching document ids (highest id first) for one page, the total, and per-facet value counts.
+     */
+    public record Result(long total, List<Integer> docIds, Map<String, Map<String, Integer>> counts) {
+    }
+
+    /**
+     * Adds or replaces a document. {@code values} maps facet name to the document's value; a null
+     * value leaves the document out of that facet.
+     */
+    public void put(int docId, Map<String, String> values, LocalDate created) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(docId);
+            values.forEach((facet, value) -> {
+                if (value != null) {
+                    facets.computeIfAbsent(facet, f -> new HashMap<>())
+                            .computeIfAbsent(value, v -> new RoaringBitmap())
+                            .add(docId);
+                }
+            });
+            if (created != null) {
+                createdOn.computeIfAbsent(created, d -> new RoaringBitmap()).add(docId);
+            }
+            all.add(docId);
+            documents.put(docId, new Entry(new HashMap<>(values), created));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Changes the value of a single facet for a document already in the index.
+     */
+    public void update(int docId, String facet, String value) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = documents.get(docId);
+            if (entry == null) {
+                return;
+            }
+            Map<String, String> values = new HashMap<>(entry.values());
+            values.put(facet, value);
+            put(docId, values, entry.created()); // the write lock is reentrant
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a document; unknown ids are ignored.
+     */
+    public void remove(int docId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(int docId) {
+        Entry entry = documents.remove(docId);
+        if (entry == null) {
+            return;
+        }
+        entry.values().forEach((facet, value) -> {
+            if (value != null) {
+                Map<String, RoaringBitmap> byValue = facets.get(facet);
+                RoaringBitmap bitmap = byValue.get(value);
+                bitmap.remove(docId);
+                if (bitmap.isEmpty()) {
+                    byValue.remove(value);
+                }
+            }
+        });
+        if (entry.created() != null) {
+            RoaringBitmap bitmap = createdOn.get(entry.created());
+            bitmap.remove(docId);
+            if (bitmap.isEmpty()) {
+                createdOn.remove(entry.created());
+            }
+        }
+        all.remove(docId);
+    }
+
+    /**
+     * Filters by the selected values (OR within a facet, AND across facets) and an optional inclusive
+     * creation-date range, returning one page of ids with facet counts.
+     */
+    public Result query(Map<String, Set<String>> selected, LocalDate createdFrom, LocalDate createdTo, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            Map<String, RoaringBitmap> filters = new HashMap<>();
+            selected.forEach((facet, values) -> {
+                if (values != null && !values.isEmpty()) {
+                    filters.put(facet, union(facet, values));
+                }
+            });
+            RoaringBitmap dateFilter = createdFrom == null && createdTo == null ? null : createdBetween(createdFrom, createdTo);
+
+            RoaringBitmap matches = intersect(filters, dateFilter, null);
+
+            // Each facet is counted against all filters except its own, so its other values stay selectable
+            Map<String, Map<String, Integer>> counts = new TreeMap<>();
+            facets.forEach((facet, byValue) -> {
+                RoaringBitmap base = filters.containsKey(facet) ? intersect(filters, dateFilter, facet) : matches;
+                Map<String, Integer> valueCounts = new TreeMap<>();
+                byValue.forEach((value, bitmap) -> valueCounts.put(value, RoaringBitmap.andCardinality(base, bitmap)));
+                counts.put(facet, valueCounts);
+            });
+
+            List<Integer> page = new ArrayList<>(Math.max(limit, 0));
+            IntIterator ids = matches.getReverseIntIterator();
+            for (int skipped = 0; skipped < offset && ids.hasNext(); skipped++) {
+                ids.next();
+            }
+            while (page.size() < limit && ids.hasNext()) {
+                page.add(ids.next());
+            }
+            return new Result(matches.getLongCardinality(), page, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap union(String facet, Set<String> values) {
+        Map<String, RoaringBitmap> byValue = facets.getOrDefault(facet, Map.of());
+        List<RoaringBitmap> bitmaps = new ArrayList<>();
+        for (String value : new TreeSet<>(values)) {
+            RoaringBitmap bitmap = byValue.get(value);
+            if (bitmap != null) {
+                bitmaps.add(bitmap);
+            }
+        }
+        return bitmaps.isEmpty() ? new RoaringBitmap() : FastAggregation.or(bitmaps.iterator());
+    }
+
+    private RoaringBitmap createdBetween(LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, RoaringBitmap> days = from == null
+                ? createdOn.headMap(to, true)
+                : to == null ? createdOn.tailMap(from, true) : createdOn.subMap(from, true, to, true);
+        return days.isEmpty() ? new RoaringBitmap() : FastAggregation.or(days.values().iterator());
+    }
+
+    private RoaringBitmap intersect(Map<String, RoaringBitmap> filters, RoaringBitmap dateFilter, String skipFacet) {
+        RoaringBitmap result = all.clone();
+        filters.forEach((facet, bitmap) -> {
+            if (!facet.equals(skipFacet)) {
+                result.and(bitmap);
+            }
+        });
+        if (dateFilter != null) {
+            result.and(dateFilter);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,155 @@
+package onlinecourseplatform.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index with BM25 ranking. Documents have a fixed number of text fields, each
+ * with its own boost; a term's frequency is the boost-weighted sum over fields (BM25F-style).
+ * Thread-safe: many concurrent searches, one writer at a time.
+ */
+public class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final float[] fieldBoosts;
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+    private final Map<Long, Doc> documents = new HashMap<>(); // forward index, needed to remove a document
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private double totalLength;
+
+    private record Doc(Map<String, Float> frequencies, float length) {
+    }
+
+    public InvertedIndex(float... fieldBoosts) {
+        this.fieldBoosts = fieldBoosts.clone();
+    }
+
+    /**
+     * Adds or replaces a document; field values must be given in the order of the boosts.
+     */
+    public void put(long docId, String... fieldValues) {
+        if (fieldValues.length != fieldBoosts.length) {
+            throw new IllegalArgumentException("Expected " + fieldBoosts.length + " fields, got " + fieldValues.length);
+        }
+        Map<String, Float> frequencies = new HashMap<>();
+        float length = 0;
+        for (int field = 0; field < fieldValues.length; field++) {
+            for (String term : TextAnalyzer.analyze(fieldValues[field])) {
+                frequencies.merge(term, fieldBoosts[field], Float::sum);
+                length += fieldBoosts[field];
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(docId);
+            documents.put(docId, new Doc(frequencies, length));
+            totalLength += length;
+            frequencies.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(docId, tf));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a document; unknown ids are ignored.
+     */
+    public void remove(long docId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(long docId) {
+        Doc doc = documents.remove(docId);
+        if (doc == null) {
+            return;
+        }
+        totalLength -= doc.length();
+        for (String term : doc.frequencies().keySet()) {
+            Map<Long, Float> docs = postings.get(term);
+            docs.remove(docId);
+            if (docs.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks every document containing at least one query term and returns the requested page.
+     * Only offset + limit hits are kept in a bounded heap, so paging deep is the only cost driver.
+     */
+    public SearchHits search(String query, int offset, int limit) {
+        return searchTerms(new LinkedHashSet<>(TextAnalyzer.analyze(query)), offset, limit);
+    }
+
+    /**
+     * Same as {@link #search} for terms that were already analyzed.
+     */
+    public SearchHits searchTerms(Collection<String> terms, int offset, int limit) {
+        if (terms.isEmpty() || limit <= 0) {
+            return SearchHits.empty();
+        }
+
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int docCount = documents.size();
+            double avgLength = docCount == 0 ? 0 : totalLength / docCount;
+            for (String term : terms) {
+                Map<Long, Float> docs = postings.get(term);
+                if (docs == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (docCount - docs.size() + 0.5) / (docs.size() + 0.5));
+                docs.forEach((docId, tf) -> {
+                    double norm = K1 * (1 - B + B * documents.get(docId).length() / avgLength);
+                    scores.merge(docId, idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Comparator<SearchHits.Hit> ranking = Comparator.comparingDouble(SearchHits.Hit::score)
+                .thenComparing(SearchHits.Hit::docId, Comparator.reverseOrder());
+        int keep = offset + limit;
+        PriorityQueue<SearchHits.Hit> top = new PriorityQueue<>(Math.min(keep, Math.max(scores.size(), 1)), ranking);
+        scores.forEach((docId, score) -> {
+            SearchHits.Hit hit = new SearchHits.Hit(docId, score);
+            if (top.size() < keep) {
+                top.add(hit);
+            } else if (ranking.compare(hit, top.peek()) > 0) {
+                top.poll();
+                top.add(hit);
+            }
+        });
+
+        List<SearchHits.Hit> ranked = new ArrayList<>(top);
+        ranked.sort(ranking.reversed());
+        List<SearchHits.Hit> page = offset >= ranked.size() ? List.of() : ranked.subList(offset, ranked.size());
+        return new SearchHits(scores.size(), page);
+    }
+}
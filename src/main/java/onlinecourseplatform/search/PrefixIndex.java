@@ -0,0 +1,169 @@
+package onlinecourseplatform.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Immutable prefix index for autocomplete. Keys are kept in one sorted array, so the entries for a
+ * prefix form a contiguous range found by two binary searches; a segment tree over the weights
+ * returns the heaviest entries of that range in O(k log n) without scanning it.
+ * Build a new instance with {@link Builder} and swap it in; instances are safe to share between threads.
+ */
+public final class PrefixIndex {
+
+    private static final PrefixIndex EMPTY = new Builder().build();
+
+    private final String[] keys;
+    private final Completion[] values;
+    private final int[] weights;
+    private final int[] tree; // iterative segment tree holding the index of the heaviest entry per node
+    private final int size;
+
+    private PrefixIndex(String[] keys, Completion[] values, int[] weights) {
+        this.keys = keys;
+        this.values = values;
+        this.weights = weights;
+        this.size = keys.length;
+        this.tree = new int[2 * Math.max(size, 1)];
+        for (int i = 0; i < size; i++) {
+            tree[size + i] = i;
+        }
+        for (int node = size - 1; node > 0; node--) {
+            tree[node] = heavier(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    public static PrefixIndex empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns up to {@code limit} distinct completions whose key starts with the normalized prefix,
+     * heaviest first.
+     */
+    public List<Completion> complete(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0 || size == 0) {
+            return List.of();
+        }
+        int from = lowerBound(normalized);
+        int to = lowerBound(normalized + Character.MAX_VALUE);
+        if (from >= to) {
+            return List.of();
+        }
+
+        // Best-first over sub-ranges: pop the heaviest entry, then split its range around it
+        PriorityQueue<int[]> ranges = new PriorityQueue<>(
+                Comparator.comparingInt((int[] range) -> weights[range[2]]).reversed().thenComparingInt(range -> range[2]));
+        ranges.add(new int[]{from, to, argMax(from, to)});
+        List<Completion> result = new ArrayList<>(limit);
+        Set<Completion> seen = new HashSet<>();
+        int budget = limit * 8; // one title contributes several keys; cap the duplicates we skip
+        while (!ranges.isEmpty() && result.size() < limit && budget-- > 0) {
+            int[] range = ranges.poll();
+            int best = range[2];
+            if (seen.add(values[best])) {
+                result.add(values[best]);
+            }
+            if (range[0] < best) {
+                ranges.add(new int[]{range[0], best, argMax(range[0], best)});
+            }
+            if (best + 1 < range[1]) {
+                ranges.add(new int[]{best + 1, range[1], argMax(best + 1, range[1])});
+            }
+        }
+        return result;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Index of the heaviest entry in [from, to).
+     */
+    private int argMax(int from, int to) {
+        int best = from;
+        for (int l = from + size, r = to + size; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                best = heavier(best, tree[l++]);
+            }
+            if ((r & 1) == 1) {
+                best = heavier(best, tree[--r]);
+            }
+        }
+        return best;
+    }
+
+    private int heavier(int a, int b) {
+        if (weights[a] != weights[b]) {
+            return weights[a] > weights[b] ? a : b;
+        }
+        return Math.min(a, b);
+    }
+
+    /**
+     * Lower-cases and collapses everything that is not part of a word into single spaces.
+     */
+    static String normalize(String text) {
+        return String.join(" ", TextAnalyzer.tokenize(text));
+    }
+
+    /**
+     * Collects entries; keys are normalized and sorted when the index is built.
+     */
+    public static final class Builder {
+
+        private record Entry(String key, Completion value, int weight) {
+        }
+
+        private final List<Entry> entries = new ArrayList<>();
+
+        /**
+         * Makes the text completable from the start of each of its words, so "data sci" finds
+         * "Python for Data Science". Words that are stop words do not start a key.
+         */
+        public Builder add(String text, Completion value, int weight) {
+            List<String> tokens = TextAnalyzer.tokenize(text);
+            for (int start = 0; start < tokens.size(); start++) {
+                if (start == 0 || !TextAnalyzer.isStopWord(tokens.get(start))) {
+                    entries.add(new Entry(String.join(" ", tokens.subList(start, tokens.size())), value, weight));
+                }
+            }
+            return this;
+        }
+
+        public PrefixIndex build() {
+            Entry[] sorted = entries.toArray(new Entry[0]);
+            Arrays.sort(sorted, Comparator.comparing(Entry::key));
+            String[] keys = new String[sorted.length];
+            Completion[] values = new Completion[sorted.length];
+            int[] weights = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                keys[i] = sorted[i].key();
+                values[i] = sorted[i].value();
+                weights[i] = sorted[i].weight();
+            }
+            return new PrefixIndex(keys, values, weights);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package onlinecourseplatform.search;
+
+import java.util.List;
+
+/**
+ * One page of ranked document ids together with the total number of matches.
+ */
+public record SearchHits(long total, List<Hit> hits) {
+
+    public record Hit(long docId, double score) {
+    }
+
+    public static SearchHits empty() {
+        return new SearchHits(0, List.of());
+    }
+}
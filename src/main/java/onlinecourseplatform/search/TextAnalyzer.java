@@ -0,0 +1,160 @@
+package onlinecourseplatform.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns free text into index terms: lower-cases, splits on non-word characters, drops stop words
+ * and reduces English inflections with the first step of the Porter stemmer.
+ */
+public final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "how", "in", "into",
+            "is", "it", "of", "on", "or", "the", "this", "to", "with", "you", "your");
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * Tokenizes, removes stop words and stems.
+     */
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String token : tokenize(text)) {
+            if (!isStopWord(token)) {
+                terms.add(stem(token));
+            }
+        }
+        return terms;
+    }
+
+    public static boolean isStopWord(String token) {
+        return STOP_WORDS.contains(token);
+    }
+
+    /**
+     * Lower-cased tokens; '+' and '#' are kept so that "c++" and "c#" survive.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean word = i < lower.length() && isWordChar(lower.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '+' || c == '#';
+    }
+
+    /**
+     * Porter step 1 (plurals, -ed/-ing, terminal y); non-alphabetic and short tokens are left alone.
+     */
+    public static String stem(String token) {
+        if (token.length() <= 2 || !token.chars().allMatch(c -> c >= 'a' && c <= 'z')) {
+            return token;
+        }
+        StringBuilder w = new StringBuilder(token);
+
+        // Step 1a: plurals
+        if (endsWith(w, "sses") || endsWith(w, "ies")) {
+            w.setLength(w.length() - 2);
+        } else if (!endsWith(w, "ss") && endsWith(w, "s")) {
+            w.setLength(w.length() - 1);
+        }
+
+        // Step 1b: -eed, -ed, -ing
+        if (endsWith(w, "eed")) {
+            if (measure(w, w.length() - 3) > 0) {
+                w.setLength(w.length() - 1);
+            }
+        } else {
+            int suffix = endsWith(w, "ed") ? 2 : endsWith(w, "ing") ? 3 : 0;
+            if (suffix > 0 && containsVowel(w, w.length() - suffix)) {
+                w.setLength(w.length() - suffix);
+                if (endsWith(w, "at") || endsWith(w, "bl") || endsWith(w, "iz")) {
+                    w.append('e');
+                } else if (endsWithDoubleConsonant(w)) {
+                    char last = w.charAt(w.length() - 1);
+                    if (last != 'l' && last != 's' && last != 'z') {
+                        w.setLength(w.length() - 1);
+                    }
+                } else if (measure(w, w.length()) == 1 && endsWithCvc(w)) {
+                    w.append('e');
+                }
+            }
+        }
+
+        // Step 1c: terminal y -> i when the stem has a vowel
+        if (endsWith(w, "y") && containsVowel(w, w.length() - 1)) {
+            w.setCharAt(w.length() - 1, 'i');
+        }
+        return w.toString();
+    }
+
+    private static boolean endsWith(StringBuilder w, String suffix) {
+        int offset = w.length() - suffix.length();
+        return offset >= 0 && w.indexOf(suffix, offset) == offset;
+    }
+
+    private static boolean isConsonant(CharSequence w, int i) {
+        return switch (w.charAt(i)) {
+            case 'a', 'e', 'i', 'o', 'u' -> false;
+            case 'y' -> i == 0 || !isConsonant(w, i - 1);
+            default -> true;
+        };
+    }
+
+    /**
+     * Number of vowel-consonant sequences in the first {@code end} characters.
+     */
+    private static int measure(CharSequence w, int end) {
+        int m = 0;
+        boolean previousVowel = false;
+        for (int i = 0; i < end; i++) {
+            boolean vowel = !isConsonant(w, i);
+            if (previousVowel && !vowel) {
+                m++;
+            }
+            previousVowel = vowel;
+        }
+        return m;
+    }
+
+    private static boolean containsVowel(CharSequence w, int end) {
+        for (int i = 0; i < end; i++) {
+            if (!isConsonant(w, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean endsWithDoubleConsonant(CharSequence w) {
+        int n = w.length();
+        return n >= 2 && w.charAt(n - 1) == w.charAt(n - 2) && isConsonant(w, n - 1);
+    }
+
+    private static boolean endsWithCvc(CharSequence w) {
+        int n = w.length();
+        if (n < 3 || !isConsonant(w, n - 3) || isConsonant(w, n - 2) || !isConsonant(w, n - 1)) {
+            return false;
+        }
+        char last = w.charAt(n - 1);
+        return last != 'w' && last != 'x' && last != 'y';
+    }
+}
@@ -0,0 +1,247 @@
+package onlinecourseplatform.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongToIntFunction;
+
+/**
+ * Typo-tolerant word matching over a single short field (course titles). Every distinct word is
+ * split into padded trigrams; a query word only verifies (with a bounded edit distance) the
+ * vocabulary words that share the most trigrams with it, so the work per query depends on the
+ * vocabulary reached through those trigrams and a fixed candidate cap, not on the number of documents.
+ * <p>
+ * One edit changes at most {@value #GRAMS_PER_EDIT} trigrams, so a word within {@code k} edits shares
+ * at least {@code |grams| - 4k} trigrams with the query word, counted from either side. Candidates are
+ * only collected from the rarest trigrams that such a word must contain, and words below that bound
+ * are dropped before any edit distance is computed.
+ */
+public class TrigramIndex {
+
+    private static final int GRAMS_PER_EDIT = 4; // a swap of adjacent letters touches four trigrams
+
+    private final int maxCandidates;
+    private final Map<String, Set<String>> gramWords = new HashMap<>();
+    private final Map<String, Set<Long>> wordDocs = new HashMap<>();
+    private final Map<Long, Set<String>> docWords = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private record Match(long docId, int matched, int distance, int popularity) {
+    }
+
+    /**
+     * @param maxCandidates upper bound on words verified per query word
+     */
+    public TrigramIndex(int maxCandidates) {
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Adds or replaces a document.
+     */
+    public void put(long docId, String text) {
+        Set<String> words = words(text);
+        lock.writeLock().lock();
+        try {
+            removeLocked(docId);
+            docWords.put(docId, words);
+            for (String word : words) {
+                Set<Long> docs = wordDocs.computeIfAbsent(word, w -> new HashSet<>());
+                if (docs.isEmpty()) {
+                    for (String gram : trigrams(word)) {
+                        gramWords.computeIfAbsent(gram, g -> new HashSet<>()).add(word);
+                    }
+                }
+                docs.add(docId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a document; unknown ids are ignored.
+     */
+    public void remove(long docId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(long docId) {
+        Set<String> words = docWords.remove(docId);
+        if (words == null) {
+            return;
+        }
+        for (String word : words) {
+            Set<Long> docs = wordDocs.get(word);
+            docs.remove(docId);
+            if (docs.isEmpty()) {
+                wordDocs.remove(word);
+                for (String gram : trigrams(word)) {
+                    Set<String> gramSet = gramWords.get(gram);
+                    gramSet.remove(word);
+                    if (gramSet.isEmpty()) {
+                        gramWords.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds documents whose words are within {@code maxEdits} of the query words. Documents matching
+     * more query words rank first, then smaller total edit distance, then higher popularity.
+     */
+    public SearchHits search(String query, int maxEdits, int offset, int limit, LongToIntFunction popularity) {
+        Set<String> queryWords = words(query);
+        if (queryWords.isEmpty() || limit <= 0) {
+            return SearchHits.empty();
+        }
+
+        Map<Long, int[]> perDoc = new HashMap<>(); // docId -> {matched words, total distance}
+        lock.readLock().lock();
+        try {
+            for (String queryWord : queryWords) {
+                Map<Long, Integer> best = new HashMap<>();
+                for (String candidate : candidates(queryWord, maxEdits)) {
+                    int distance = distance(queryWord, candidate, maxEdits);
+                    if (distance <= maxEdits) {
+                        for (Long docId : wordDocs.get(candidate)) {
+                            best.merge(docId, distance, Math::min);
+                        }
+                    }
+                }
+                best.forEach((docId, distance) -> {
+                    int[] score = perDoc.computeIfAbsent(docId, id -> new int[2]);
+                    score[0]++;
+                    score[1] += distance;
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Match> matches = new ArrayList<>(perDoc.size());
+        perDoc.forEach((docId, score) -> matches.add(new Match(docId, score[0], score[1], popularity.applyAsInt(docId))));
+        matches.sort(Comparator.comparingInt(Match::matched).reversed()
+                .thenComparingInt(Match::distance)
+                .thenComparing(Comparator.comparingInt(Match::popularity).reversed())
+                .thenComparingLong(Match::docId));
+
+        List<SearchHits.Hit> page = new ArrayList<>();
+        for (int i = offset; i < Math.min(matches.size(), offset + limit); i++) {
+            Match match = matches.get(i);
+            page.add(new SearchHits.Hit(match.docId(), match.matched() * (maxEdits + 1) - match.distance()));
+        }
+        return new SearchHits(matches.size(), page);
+    }
+
+    /**
+     * Vocabulary words of similar length sharing the most trigrams with the query word, capped. Words
+     * sharing fewer trigrams than {@code maxEdits} edits could leave are never returned.
+     */
+    private List<String> candidates(String word, int maxEdits) {
+        Set<String> grams = trigrams(word);
+        int lost = GRAMS_PER_EDIT * maxEdits;
+        // A match misses at most `lost` of the query's trigrams, so it contains one of any lost + 1 of them
+        List<String> rarestFirst = grams.stream()
+                .sorted(Comparator.comparingInt(gram -> gramWords.getOrDefault(gram, Set.of()).size()))
+                .toList();
+        List<String> probed = rarestFirst.subList(0, Math.min(rarestFirst.size(), lost + 1));
+        if (grams.size() <= lost) {
+            probed = rarestFirst; // a short word can lose all its trigrams: every sharing word is a candidate
+        }
+
+        Map<String, Integer> shared = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (String gram : probed) {
+            for (String candidate : gramWords.getOrDefault(gram, Set.of())) {
+                if (!seen.add(candidate) || Math.abs(candidate.length() - word.length()) > maxEdits) {
+                    continue;
+                }
+                Set<String> candidateGrams = trigrams(candidate);
+                int common = 0;
+                for (String candidateGram : candidateGrams) {
+                    if (grams.contains(candidateGram)) {
+                        common++;
+                    }
+                }
+                if (common >= Math.max(grams.size(), candidateGrams.size()) - lost) {
+                    shared.put(candidate, common);
+                }
+            }
+        }
+        return shared.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(maxCandidates)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static Set<String> words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        for (String token : TextAnalyzer.tokenize(text)) {
+            if (!TextAnalyzer.isStopWord(token)) {
+                words.add(token);
+            }
+        }
+        return words;
+    }
+
+    private static Set<String> trigrams(String word) {
+        String padded = "  " + word + " ";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * Optimal string alignment distance (a swap of adjacent letters costs one edit).
+     * Gives up as soon as every cell in a row exceeds {@code max} and returns {@code max + 1}.
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+}
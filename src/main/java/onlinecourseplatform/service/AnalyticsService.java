@@ -0,0 +1,322 @@
+package onlinecourseplatform.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import onlinecourseplatform.dto.responseDTOs.AnalyticsPointDTO;
+import onlinecourseplatform.dto.responseDTOs.AnalyticsResponse;
+import onlinecourseplatform.event.CourseActivityEvent;
+import onlinecourseplatform.repository.CourseRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Enrollment, completion, revenue and rating figures per course and day, kept in the
+ * {@code course_daily_stats} rollup so reports never scan enrollments, payments or feedbacks.
+ * Activity events are applied asynchronously after commit with one upsert each. A nightly job moves
+ * days older than the retention period into {@code course_monthly_stats}; reports combine both, so
+ * compacted history is reported per month.
+ * <p>
+ * The one-off backfill counts source rows strictly before a cutoff and records that cutoff in
+ * {@code analytics_backfill} in the same transaction; events are applied only from the cutoff on, so no
+ * activity is counted twice or skipped. Until a node finds the marker, it holds events back and keeps
+ * retrying, so a failed backfill is never mistaken for a finished one.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnalyticsService {
+
+    private static final String LOCK_KEY = "ANALYTICS:LOCK";
+    private static final String BACKFILL_CLAIM_KEY = "ANALYTICS:BACKFILL";
+    private static final LocalDateTime LEGACY_CUTOFF = LocalDateTime.of(1970, 1, 1, 0, 0); // nothing before it to skip
+    private static final String COLUMNS = "enrollments, completions, revenue, rating_sum, rating_count";
+    private static final String ADD_ON_DUPLICATE = " ON DUPLICATE KEY UPDATE enrollments = enrollments + VALUES(enrollments), "
+            + "completions = completions + VALUES(completions), revenue = revenue + VALUES(revenue), "
+            + "rating_sum = rating_sum + VALUES(rating_sum), rating_count = rating_count + VALUES(rating_count)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CourseRepository courseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RedisTemplate<String, String> redisTemplate;
+
+    @Value("${analytics.daily-retention-days:90}")
+    private int dailyRetentionDays;
+
+    @Value("${analytics.lock-seconds:1800}")
+    private long lockSeconds;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final List<CourseActivityEvent> heldBack = new ArrayList<>();
+    private LocalDateTime appliesFrom; // guarded by heldBack; null until the backfill has succeeded
+
+    /**
+     * Adds a committed activity to its course's row for the day, off the request thread. Activity
+     * before the backfill cutoff is already counted by the backfill.
+     */
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivity(CourseActivityEvent event) {
+        LocalDateTime from;
+        synchronized (heldBack) {
+            from = appliesFrom;
+            if (from == null) {
+                heldBack.add(event);
+                return;
+            }
+        }
+        if (!event.getOccurredAt().isBefore(from)) {
+            add(event);
+        }
+    }
+
+    private void add(CourseActivityEvent event) {
+        long enrollments = event.getType() == CourseActivityEvent.Type.ENROLLMENT ? Math.round(event.getValue()) : 0;
+        long completions = event.getType() == CourseActivityEvent.Type.COMPLETION ? Math.round(event.getValue()) : 0;
+        BigDecimal revenue = event.getType() == CourseActivityEvent.Type.PAYMENT
+                ? BigDecimal.valueOf(event.getValue()).setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+        long ratingSum = event.getType() == CourseActivityEvent.Type.RATING ? Math.round(event.getValue()) : 0;
+        long ratingCount = event.getType() == CourseActivityEvent.Type.RATING ? 1 : 0;
+        try {
+            jdbcTemplate.update("INSERT INTO course_daily_stats (course_id, instructor_id, day, " + COLUMNS + ") "
+                            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)" + ADD_ON_DUPLICATE,
+                    event.getCourseId(), event.getInstructorId(), Date.valueOf(event.getOccurredAt().toLocalDate()),
+                    enrollments, completions, revenue, ratingSum, ratingCount);
+        } catch (DataAccessException e) {
+            log.error("Could not record {} of course {} in analytics: {}", event.getType(), event.getCourseId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Figures of one course between two dates (inclusive), per period and in total.
+     */
+    public AnalyticsResponse courseReport(Long courseId, Long userId, boolean isAdmin, LocalDate from, LocalDate to) {
+        CourseRepository.EnrollmentCountView course = courseRepository.findEnrollmentCountById(courseId)
+                .orElseThrow(() -> new RuntimeException("Course not found"));
+        if (!isAdmin && !course.getInstructorId().equals(userId)) {
+            throw new AccessDeniedException("You are not the owner of this course");
+        }
+        return report("course_id", courseId, from, to);
+    }
+
+    /**
+     * Figures of all courses of an instructor between two dates (inclusive), per period and in total.
+     */
+    public AnalyticsResponse instructorReport(Long instructorId, Long userId, boolean isAdmin, LocalDate from, LocalDate to) {
+        if (!isAdmin && !instructorId.equals(userId)) {
+            throw new AccessDeniedException("You can only view your own analytics");
+        }
+        return report("instructor_id", instructorId, from, to);
+    }
+
+    private record Sums(LocalDate period, String granularity, long enrollments, long completions,
+                        BigDecimal revenue, long ratingSum, long ratingCount) {
+    }
+
+    private AnalyticsResponse report(String keyColumn, Long key, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new RuntimeException("'from' must not be after 'to'");
+        }
+        String sums = "SUM(enrollments), SUM(completions), SUM(revenue), SUM(rating_sum), SUM(rating_count)";
+        List<Sums> rows = jdbcTemplate.query(
+                "SELECT 'DAY', day, " + sums + " FROM course_daily_stats WHERE " + keyColumn + " = ? AND day BETWEEN ? AND ? GROUP BY day "
+                        + "UNION ALL "
+                        + "SELECT 'MONTH', month, " + sums + " FROM course_monthly_stats WHERE " + keyColumn + " = ? AND month BETWEEN ? AND ? GROUP BY month "
+                        + "ORDER BY 2",
+                (rs, i) -> new Sums(rs.getDate(2).toLocalDate(), rs.getString(1), rs.getLong(3), rs.getLong(4),
+                        rs.getBigDecimal(5), rs.getLong(6), rs.getLong(7)),
+                key, Date.valueOf(from), Date.valueOf(to), key, Date.valueOf(from.withDayOfMonth(1)), Date.valueOf(to));
+
+        long enrollments = 0, completions = 0, ratingSum = 0, ratingCount = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+        for (Sums row : rows) {
+            enrollments += row.enrollments();
+            completions += row.completions();
+            revenue = row.revenue() == null ? revenue : revenue.add(row.revenue());
+            ratingSum += row.ratingSum();
+            ratingCount += row.ratingCount();
+        }
+        return AnalyticsResponse.builder()
+                .from(from)
+                .to(to)
+                .totals(toPoint(new Sums(null, null, enrollments, completions, revenue, ratingSum, ratingCount)))
+                .series(rows.stream().map(AnalyticsService::toPoint).toList())
+                .build();
+    }
+
+    private static AnalyticsPointDTO toPoint(Sums sums) {
+        return AnalyticsPointDTO.builder()
+                .period(sums.period())
+                .granularity(sums.granularity())
+                .enrollments(sums.enrollments())
+                .completions(sums.completions())
+                .revenue(sums.revenue() == null ? BigDecimal.ZERO : sums.revenue())
+                .averageRating(sums.ratingCount() == 0 ? null : (double) sums.ratingSum() / sums.ratingCount())
+                .ratingCount(sums.ratingCount())
+                .build();
+    }
+
+    /**
+     * Rolls whole months of daily rows older than the retention period into monthly rows, in one
+     * transaction per run. A Redis lock keeps two nodes from compacting (and double counting) at once.
+     */
+    @Scheduled(cron = "${analytics.compaction-cron:0 15 2 * * *}")
+    public void compact() {
+        if (!lock()) {
+            return;
+        }
+        try {
+            Date cutoff = Date.valueOf(LocalDate.now().minusDays(dailyRetentionDays).withDayOfMonth(1));
+            Integer moved = transactionTemplate.execute(tx -> {
+                jdbcTemplate.update("INSERT INTO course_monthly_stats (course_id, instructor_id, month, " + COLUMNS + ") "
+                        + "SELECT course_id, MAX(instructor_id), DATE_FORMAT(day, '%Y-%m-01'), "
+                        + "SUM(enrollments), SUM(completions), SUM(revenue), SUM(rating_sum), SUM(rating_count) "
+                        + "FROM course_daily_stats WHERE day < ? GROUP BY course_id, DATE_FORMAT(day, '%Y-%m-01')"
+                        + ADD_ON_DUPLICATE, cutoff);
+                return jdbcTemplate.update("DELETE FROM course_daily_stats WHERE day < ?", cutoff);
+            });
+            if (moved != null && moved > 0) {
+                log.info("Compacted {} daily analytics rows before {} into months", moved, cutoff);
+            }
+        } catch (DataAccessException e) {
+            log.error("Analytics compaction failed: {}", e.getMessage());
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Fills the rollups from the source tables once. The node that claims the backfill in Redis runs it;
+     * every node then applies the events it held back that are not covered by it. Rollups filled before
+     * the marker existed are adopted as they are.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            LocalDateTime from = backfillCutoff();
+            if (from == null) {
+                Boolean existing = jdbcTemplate.queryForObject(
+                        "SELECT EXISTS (SELECT 1 FROM course_daily_stats) OR EXISTS (SELECT 1 FROM course_monthly_stats)", Boolean.class);
+                if (Boolean.TRUE.equals(existing)) {
+                    from = LEGACY_CUTOFF;
+                    markBackfilled(from);
+                } else if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(BACKFILL_CLAIM_KEY, nodeId,
+                        Duration.ofSeconds(lockSeconds)))) {
+                    from = LocalDateTime.now();
+                    backfill(from);
+                } else {
+                    log.info("Analytics backfill is running on another node, holding activity events back");
+                    return;
+                }
+            }
+            release(from);
+        } catch (DataAccessException e) {
+            log.error("Analytics backfill failed, holding activity events back until it succeeds: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Retries the backfill, or picks up the one another node finished, while events are held back.
+     */
+    @Scheduled(fixedDelayString = "${analytics.backfill-retry-ms:60000}")
+    public void retryBackfill() {
+        synchronized (heldBack) {
+            if (appliesFrom != null) {
+                return;
+            }
+        }
+        backfillIfEmpty();
+    }
+
+    private LocalDateTime backfillCutoff() {
+        List<Timestamp> cutoff = jdbcTemplate.queryForList("SELECT cutoff FROM analytics_backfill WHERE id = 1", Timestamp.class);
+        return cutoff.isEmpty() ? null : cutoff.get(0).toLocalDateTime();
+    }
+
+    /**
+     * Fails on the primary key if another node recorded a backfill first, rolling this one back.
+     */
+    private void markBackfilled(LocalDateTime cutoff) {
+        jdbcTemplate.update("INSERT INTO analytics_backfill (id, cutoff, completed_at) VALUES (1, ?, ?)",
+                Timestamp.valueOf(cutoff), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private void release(LocalDateTime from) {
+        List<CourseActivityEvent> held;
+        synchronized (heldBack) {
+            if (appliesFrom != null) {
+                return;
+            }
+            appliesFrom = from;
+            held = new ArrayList<>(heldBack);
+            heldBack.clear();
+        }
+        held.stream().filter(event -> !event.getOccurredAt().isBefore(from)).forEach(this::add);
+    }
+
+    private void backfill(LocalDateTime cutoff) {
+        Timestamp before = Timestamp.valueOf(cutoff);
+        String insert = "INSERT INTO course_daily_stats (course_id, instructor_id, day, " + COLUMNS + ") ";
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                jdbcTemplate.update(insert + "SELECT e.course_id, c.instructor_id, DATE(e.enrolled_at), COUNT(*), 0, 0, 0, 0 "
+                        + "FROM enrollments e JOIN courses c ON c.id = e.course_id WHERE e.enrolled_at < ? "
+                        + "GROUP BY e.course_id, c.instructor_id, DATE(e.enrolled_at)" + ADD_ON_DUPLICATE, before);
+                jdbcTemplate.update(insert + "SELECT e.course_id, c.instructor_id, DATE(e.completed_at), 0, COUNT(*), 0, 0, 0 "
+                        + "FROM enrollments e JOIN courses c ON c.id = e.course_id WHERE e.completed_at < ? "
+                        + "GROUP BY e.course_id, c.instructor_id, DATE(e.completed_at)" + ADD_ON_DUPLICATE, before);
+                jdbcTemplate.update(insert + "SELECT p.course_id, c.instructor_id, DATE(p.payment_date), 0, 0, SUM(p.amount), 0, 0 "
+                        + "FROM payment p JOIN courses c ON c.id = p.course_id WHERE p.status = 'SUCCESS' AND p.payment_date < ? "
+                        + "GROUP BY p.course_id, c.instructor_id, DATE(p.payment_date)" + ADD_ON_DUPLICATE, before);
+                jdbcTemplate.update(insert + "SELECT f.course_id, c.instructor_id, DATE(f.created_at), 0, 0, 0, SUM(f.rating), COUNT(*) "
+                        + "FROM feedbacks f JOIN courses c ON c.id = f.course_id WHERE f.created_at < ? "
+                        + "GROUP BY f.course_id, c.instructor_id, DATE(f.created_at)" + ADD_ON_DUPLICATE, before);
+                markBackfilled(cutoff);
+            });
+        } finally {
+            redisTemplate.delete(BACKFILL_CLAIM_KEY); // on failure, lets the next retry claim it again
+        }
+        log.info("Backfilled analytics rollups before {} from enrollments, payments and feedbacks", cutoff);
+        compact();
+    }
+
+    private boolean lock() {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, nodeId, Duration.ofSeconds(lockSeconds)));
+        } catch (DataAccessException e) {
+            log.warn("Analytics lock unavailable: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void unlock() {
+        try {
+            if (nodeId.equals(redisTemplate.opsForValue().get(LOCK_KEY))) {
+                redisTemplate.delete(LOCK_KEY);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not release the analytics lock: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package onlinecourseplatform.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import onlinecourseplatform.event.CourseChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier cache for catalog data: an in-process L1 (Caffeine, bounded by weight, per-entry TTL)
+ * in front of Redis (L2). Course writes are broadcast over Redis pub/sub so every node evicts its
+ * L1 copy; a global version counter is polled as a fallback for missed messages.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogCacheService implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "CATALOG:INVALIDATE";
+    private static final String VERSION_KEY = "CATALOG:VERSION";
+    private static final String COURSE_VERSION_PREFIX = "CATALOG:VERSION:";
+    private static final String ENTRY_PREFIX = "CATALOG:ENTRY:";
+    private static final String CATALOG_SCOPE = "catalog:";
+    private static final String COURSE_SCOPE = "course:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${catalog.cache.l1.max-weight-bytes:33554432}")
+    private long l1MaxWeightBytes;
+
+    @Value("${catalog.cache.l2.ttl-minutes:10}")
+    private long l2TtlMinutes;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong lastSeenVersion = new AtomicLong(-1);
+    private Cache<String, L1Entry> l1;
+
+    private record L1Entry(Object value, int weight, long ttlNanos) {
+    }
+
+    @PostConstruct
+    void init() {
+        l1 = Caffeine.newBuilder()
+                .maximumWeight(l1MaxWeightBytes)
+                .weigher((String key, L1Entry entry) -> entry.weight())
+                .expireAfter(new Expiry<String, L1Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, L1Entry entry, long currentTime) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, L1Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, L1Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Jackson type for a list of the given element class.
+     */
+    public JavaType listOf(Class<?> elementType) {
+        return objectMapper.getTypeFactory().constructCollectionType(List.class, elementType);
+    }
+
+    /**
+     * Jackson type for the given class.
+     */
+    public JavaType typeOf(Class<?> type) {
+        return objectMapper.constructType(type);
+    }
+
+    /**
+     * Returns a catalog-wide entry (e.g. the full course list), loading it on a miss in both tiers.
+     */
+    public <T> T getCatalog(String name, JavaType type, Duration ttl, Supplier<T> loader) {
+        return lookup(CATALOG_SCOPE + name, null, name, type, ttl, loader);
+    }
+
+    /**
+     * Returns an entry scoped to a single course, loading it on a miss in both tiers. A loader may
+     * return null (e.g. for a deleted course); null is returned and not cached.
+     */
+    public <T> T getCourse(Long courseId, String name, JavaType type, Duration ttl, Supplier<T> loader) {
+        return lookup(COURSE_SCOPE + courseId + ":" + name, courseId, name, type, ttl, loader);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T lookup(String l1Key, Long courseId, String name, JavaType type, Duration ttl, Supplier<T> loader) {
+        L1Entry cached = l1.getIfPresent(l1Key);
+        if (cached != null) {
+            return (T) cached.value();
+        }
+
+        String l2Key = null;
+        try {
+            l2Key = l2Key(courseId, name);
+            String json = redisTemplate.opsForValue().get(l2Key);
+            if (json != null) {
+                T value = objectMapper.readValue(json, type);
+                l1.put(l1Key, new L1Entry(value, json.length(), ttl.toNanos()));
+                return value;
+            }
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.warn("Catalog L2 read failed for {}: {}", l1Key, e.getMessage());
+        }
+
+        T value = loader.get();
+        if (value == null) {
+            return null;
+        }
+        try {
+            String json = objectMapper.writeValueAsString(value);
+            if (l2Key != null) {
+                redisTemplate.opsForValue().set(l2Key, json, l2TtlMinutes, TimeUnit.MINUTES);
+            }
+            l1.put(l1Key, new L1Entry(value, json.length(), ttl.toNanos()));
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.warn("Catalog cache write failed for {}: {}", l1Key, e.getMessage());
+        }
+        return value;
+    }
+
+    /**
+     * Builds the versioned Redis key; bumping a version makes older L2 entries unreachable.
+     */
+    private String l2Key(Long courseId, String name) {
+        String versionKey = courseId == null ? VERSION_KEY : COURSE_VERSION_PREFIX + courseId;
+        String version = redisTemplate.opsForValue().get(versionKey);
+        String scope = courseId == null ? "" : "COURSE:" + courseId + ":";
+        return ENTRY_PREFIX + scope + "v" + (version == null ? "0" : version) + ":" + name;
+    }
+
+    /**
+     * Evicts local copies after a course write commits and broadcasts the change to other nodes.
+     * Content changes leave the catalog entries alone but are still broadcast, for the listeners of
+     * other nodes.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        if (event.getChange() == CourseChangedEvent.Change.CONTENT) {
+            broadcastContentChange(event.getCourseId());
+            return;
+        }
+        evictLocal(event.getCourseId());
+        try {
+            redisTemplate.opsForValue().increment(COURSE_VERSION_PREFIX + event.getCourseId());
+            Long version = redisTemplate.opsForValue().increment(VERSION_KEY);
+            if (version != null) {
+                observeVersion(version);
+                redisTemplate.convertAndSend(INVALIDATION_CHANNEL,
+                        nodeId + "|" + event.getCourseId() + "|" + event.getChange() + "|" + version);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Failed to broadcast catalog invalidation for course {}: {}", event.getCourseId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Content lives in the manifest table: the catalog version is not bumped, the message carries the
+     * version this node has already seen.
+     */
+    private void broadcastContentChange(Long courseId) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL,
+                    nodeId + "|" + courseId + "|" + CourseChangedEvent.Change.CONTENT + "|" + lastSeenVersion.get());
+        } catch (DataAccessException e) {
+            log.warn("Failed to broadcast content change of course {}: {}", courseId, e.getMessage());
+        }
+    }
+
+    /**
+     * Handles invalidations broadcast by other nodes.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|");
+        if (parts.length != 4 || nodeId.equals(parts[0])) {
+            return;
+        }
+        Long courseId = Long.valueOf(parts[1]);
+        CourseChangedEvent.Change change = CourseChangedEvent.Change.valueOf(parts[2]);
+        if (change != CourseChangedEvent.Change.CONTENT) {
+            evictLocal(courseId);
+            observeVersion(Long.parseLong(parts[3]));
+            log.debug("Evicted course {} from L1 after remote {} on node {}", courseId, change, parts[0]);
+        }
+        eventPublisher.publishEvent(new CourseChangedEvent(courseId, change, true));
+    }
+
+    /**
+     * Fallback for missed pub/sub messages: if the global version moved past what this node has seen,
+     * the whole L1 is dropped.
+     */
+    @Scheduled(fixedDelayString = "${catalog.cache.version-poll-ms:5000}")
+    public void pollVersion() {
+        try {
+            String current = redisTemplate.opsForValue().get(VERSION_KEY);
+            long version = current == null ? 0 : Long.parseLong(current);
+            long seen = lastSeenVersion.get();
+            if (seen >= 0 && version > seen) {
+                log.warn("Catalog version advanced {} -> {} without a broadcast, flushing L1", seen, version);
+                l1.invalidateAll();
+            }
+            lastSeenVersion.accumulateAndGet(version, Math::max);
+        } catch (DataAccessException e) {
+            log.debug("Catalog version poll failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Tracks the highest version seen; a gap means a message was lost, so L1 is flushed.
+     */
+    private void observeVersion(long version) {
+        long previous = lastSeenVersion.getAndAccumulate(version, Math::max);
+        if (previous >= 0 && version > previous + 1) {
+            l1.invalidateAll();
+        }
+    }
+
+    /**
+     * Drops the course's own entries and every catalog-wide entry from L1.
+     */
+    private void evictLocal(Long courseId) {
+        String coursePrefix = COURSE_SCOPE + courseId + ":";
+        l1.asMap().keySet().removeIf(key -> key.startsWith(CATALOG_SCOPE) || key.startsWith(coursePrefix));
+    }
+}
@@ -0,0 +1,52 @@
+package onlinecourseplatform.service;
+
+import onlinecourseplatform.entity.Course;
+import onlinecourseplatform.entity.Document;
+import onlinecourseplatform.entity.Module;
+import onlinecourseplatform.entity.Video;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Display order of course content for collections changed in memory: by position, then by id,
+ * the same order the {@code @OrderBy} of the entity collections gives when they are loaded. MySQL sorts
+ * nulls first, so nulls sort first here too; existing rows are numbered by
+ * {@link onlinecourseplatform.config.ContentPositionInitializer} and new ones always get a position.
+ */
+final class ContentOrder {
+
+    private ContentOrder() {
+    }
+
+    /**
+     * Sorts the modules of a course and the videos and documents of each module. Call it after the
+     * flush, so new entries have their ids.
+     */
+    static void sort(Course course) {
+        course.getModules().sort(byPositionThenId(Module::getPosition, Module::getId));
+        for (Module module : course.getModules()) {
+            module.getVideos().sort(byPositionThenId(Video::getPosition, Video::getId));
+            module.getDocuments().sort(byPositionThenId(Document::getPosition, Document::getId));
+        }
+    }
+
+    /**
+     * Position for an entry appended to the end; positions may have gaps after deletes.
+     */
+    static <T> int nextPosition(List<T> items, Function<T, Integer> positionOf) {
+        return items.stream()
+                .map(positionOf)
+                .filter(Objects::nonNull)
+                .mapToInt(Integer::intValue)
+                .max()
+                .orElse(-1) + 1;
+    }
+
+    private static <T> Comparator<T> byPositionThenId(Function<T, Integer> positionOf, Function<T, Long> idOf) {
+        return Comparator.comparing(positionOf, Comparator.nullsFirst(Comparator.<Integer>naturalOrder()))
+                .thenComparing(idOf, Comparator.nullsFirst(Comparator.<Long>naturalOrder()));
+    }
+}
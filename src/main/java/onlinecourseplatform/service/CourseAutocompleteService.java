@@ -0,0 +1,108 @@
+package onlinecourseplatform.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import onlinecourseplatform.entity.Course;
+import onlinecourseplatform.entity.User;
+import onlinecourseplatform.event.CourseChangedEvent;
+import onlinecourseplatform.repository.CourseRepository;
+import onlinecourseplatform.repository.UserRepository;
+import onlinecourseplatform.search.Completion;
+import onlinecourseplatform.search.PrefixIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Search-as-you-type over course titles and instructor names, ranked by enrollments.
+ * Queries read an immutable {@link PrefixIndex}; course changes only mark it stale and a scheduled
+ * task rebuilds it on the scheduler thread and swaps the reference, so requests never wait for a build
+ * and never touch the database.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CourseAutocompleteService {
+
+    private final CourseRepository courseRepository;
+    private final UserRepository userRepository;
+
+    @Value("${search.autocomplete.max-age-ms:300000}")
+    private long maxAgeMs;
+
+    private final AtomicReference<PrefixIndex> index = new AtomicReference<>(PrefixIndex.empty());
+    private final AtomicBoolean stale = new AtomicBoolean(true);
+    private volatile long builtAt;
+
+    /**
+     * Returns up to {@code limit} completions for the typed prefix.
+     */
+    public List<Completion> complete(String prefix, int limit) {
+        return index.get().complete(prefix, limit);
+    }
+
+    /**
+     * Marks the index stale after a course write commits (here or on another node).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        switch (event.getChange()) {
+            case CREATED, UPDATED, DELETED -> stale.set(true);
+            default -> {
+                // content and feedback do not affect titles or instructor names
+            }
+        }
+    }
+
+    /**
+     * Rebuilds when a course changed, and periodically so enrollment-based ranking stays fresh.
+     */
+    @Scheduled(fixedDelayString = "${search.autocomplete.rebuild-check-ms:2000}")
+    public void rebuildIfStale() {
+        boolean expired = System.currentTimeMillis() - builtAt > maxAgeMs;
+        if (!stale.getAndSet(false) && !expired) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            stale.set(true);
+            log.warn("Autocomplete rebuild failed, keeping the previous index: {}", e.getMessage());
+        }
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        List<Course> courses = courseRepository.findAllByDeletedFalse();
+        Map<Long, Integer> instructorWeights = new HashMap<>();
+        PrefixIndex.Builder builder = new PrefixIndex.Builder();
+        for (Course course : courses) {
+            int weight = (int) Math.min(course.getEnrollmentCount(), Integer.MAX_VALUE);
+            builder.add(course.getTitle(), new Completion(Completion.Type.COURSE, course.getId(), course.getTitle()), weight);
+            instructorWeights.merge(course.getInstructorId(), weight, Integer::sum);
+        }
+
+        Map<Long, User> instructors = userRepository.findAllById(instructorWeights.keySet()).stream()
+                .collect(Collectors.toMap(User::getId, user -> user));
+        instructorWeights.forEach((instructorId, weight) -> {
+            User instructor = instructors.get(instructorId);
+            if (instructor != null) {
+                builder.add(instructor.getName(), new Completion(Completion.Type.INSTRUCTOR, instructorId, instructor.getName()), weight);
+            }
+        });
+
+        PrefixIndex built = builder.build();
+        index.set(built);
+        builtAt = System.currentTimeMillis();
+        log.debug("Rebuilt autocomplete index with {} keys in {} ms", built.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,335 @@
+package onlinecourseplatform.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import onlinecourseplatform.dto.entityDTOs.DocumentDTO;
+import onlinecourseplatform.dto.entityDTOs.ModuleDTO;
+import onlinecourseplatform.dto.entityDTOs.VideoDTO;
+import onlinecourseplatform.dto.requestDTOs.DocumentRequestDTO;
+import onlinecourseplatform.dto.requestDTOs.ModuleRequestDTO;
+import onlinecourseplatform.dto.requestDTOs.ModuleUpdateRequest;
+import onlinecourseplatform.dto.requestDTOs.VideoRequestDTO;
+import onlinecourseplatform.entity.Course;
+import onlinecourseplatform.entity.Document;
+import onlinecourseplatform.entity.Module;
+import onlinecourseplatform.entity.Video;
+import onlinecourseplatform.event.CourseChangedEvent;
+import onlinecourseplatform.repository.CourseRepository;
+import onlinecourseplatform.repository.DocumentRepository;
+import onlinecourseplatform.repository.ModuleRepository;
+import onlinecourseplatform.repository.VideoRepository;
+import onlinecourseplatform.utility.Conversion;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fine-grained edits of a single module, video or document. Each operation writes only the
+ * affected rows and refreshes only the course content manifest (catalog entries are untouched).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CourseContentService {
+
+    private final CourseRepository courseRepository;
+    private final ModuleRepository moduleRepository;
+    private final VideoRepository videoRepository;
+    private final DocumentRepository documentRepository;
+    private final CourseManifestService courseManifestService;
+    private final CloudUrlProcessorService cloudUrlProcessorService;
+    private final Conversion conversion;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Appends a new module (with its videos and documents) to the end of the course.
+     */
+    @Transactional
+    public ModuleDTO addModule(Long courseId, ModuleRequestDTO request, Long instructorId) {
+        Course course = findOwnedCourse(courseId, instructorId);
+
+        Module module = new Module();
+        module.setModuleName(request.getModuleName());
+        module.setPosition(ContentOrder.nextPosition(course.getModules(), Module::getPosition));
+        module.setCourse(course);
+        module.setVideos(new ArrayList<>());
+        module.setDocuments(new ArrayList<>());
+        course.getModules().add(module);
+
+        for (VideoRequestDTO videoDTO : request.getVideos()) {
+            module.getVideos().add(newVideo(module, videoDTO));
+        }
+        for (DocumentRequestDTO documentDTO : request.getDocuments()) {
+            module.getDocuments().add(newDocument(module, documentDTO));
+        }
+
+        contentChanged(course);
+        log.info("Instructor {} added module {} to course {}", instructorId, module.getId(), courseId);
+        return conversion.toModuleDto(module);
+    }
+
+    /**
+     * Renames a module.
+     */
+    @Transactional
+    public ModuleDTO updateModule(Long courseId, Long moduleId, ModuleUpdateRequest request, Long instructorId) {
+        Course course = findOwnedCourse(courseId, instructorId);
+        Module module = findModule(course, moduleId);
+
+        if (!Objects.equals(module.getModuleName(), request.getModuleName())) {
+            module.setModuleName(request.getModuleName());
+            contentChanged(course);
+        }
+        return conversion.toModuleDto(module);
+    }
+
+    /**
+     * Deletes a module together with its videos and documents.
+     */
+    @Transactional
+    public void deleteModule(Long courseId, Long moduleId, Long instructorId) {
+        findModule(findOwnedCourse(courseId, instructorId), moduleId);
+
+        deleteModules(List.of(moduleId));
+        contentChanged(findOwnedCourse(courseId, instructorId));
+        log.info("Instructor {} deleted module {} of course {}", instructorId, moduleId, courseId);
+    }
+
+    /**
+     * Deletes modules with one DELETE for their videos, one for their documents and one for the module rows,
+     * where orphan removal would delete every asset row on its own. The persistence context is cleared
+     * afterwards, so callers must load the course again.
+     */
+    @Transactional
+    public void deleteModules(Collection<Long> moduleIds) {
+        int videos = videoRepository.deleteByModuleIdIn(moduleIds);
+        int documents = documentRepository.deleteByModuleIdIn(moduleIds);
+        moduleRepository.deleteByIdIn(moduleIds);
+        log.debug("Deleted modules {} with {} videos and {} documents", moduleIds, videos, documents);
+    }
+
+    /**
+     * Reorders the modules of a course.
+     */
+    @Transactional
+    public List<ModuleDTO> reorderModules(Long courseId, List<Long> orderedIds, Long instructorId) {
+        Course course = findOwnedCourse(courseId, instructorId);
+        if (reorder(course.getModules(), orderedIds, Module::getId, Module::getPosition, Module::setPosition)) {
+            contentChanged(course);
+        }
+        return course.getModules().stream().map(conversion::toModuleDto).collect(Collectors.toList());
+    }
+
+    /**
+     * Appends a video to a module.
+     */
+    @Transactional
+    public VideoDTO addVideo(Long courseId, Long moduleId, VideoRequestDTO request, Long instructorId) {
+        Course course = findOwnedCourse(courseId, instructorId);
+        Module module = findModule(course, moduleId);
+
+        Video video = newVideo(module, request);
+        module.getVideos().add(video);
+        contentChanged(course);
+        return conversion.toVideoDto(video);
+    }
+
+    /**
+     * Replaces the details of a single video.
+     */
+    @Transactional
+    public VideoDTO updateVideo(Long courseId, Long moduleId, Long videoId, VideoRequestDTO request, Long instructorId) {
+        Course course = findOwnedCourse(courseId, instructorId);
+        Video video = findVideo(findModule(course, moduleId), videoId);
+
+        boolean changed = !Objects.equals(video.getFilename(), request.getFilename())
+                || !Objects.equals(video.getURL(), request.getURL())
+                || !Objects.equals(video.getDescription(), request.getDescription());
+        if (changed) {
+            video.setFilename(request.getFilename());
+            video.setURL(request.getURL());
+            video.setCloudProvider(cloudUrlProcessorService.detectCloudProvider(request.getURL()));
+            video.setDescription(request.getDescription());
+            contentChanged(course);
+        }
+        return conversion.toVideoDto(video);
+    }
+
+    /**
+     * Deletes a single video.
+     */
+    @Transactional
+    public void deleteVideo(Long courseId, Long moduleId, Long videoId, Long instructorId) {
+        Course course = findOwnedCourse(courseId, instructorId);
+        Module module = findModule(course, moduleId);
+
+        module.getVideos().remove(findVideo(module, videoId));
+        contentChanged(course);
+    }
+
+    /**
+     * Reorders the videos of a module.
+     */
+    @Transactional
+    public List<VideoDTO> reorderVideos(Long courseId, Long moduleId, List<Long> orderedIds, Long instructorId) {
+        Course course = findOwnedCourse(courseId, instructorId);
+        Module module = findModule(course, moduleId);
+        if (reorder(module.getVideos(), orderedIds, Video::getId, Video::getPosition, Video::setPosition)) {
+            contentChanged(course);
+        }
+        return module.getVideos().stream().map(conversion::toVideoDto).collect(Collectors.toList());
+    }
+
+    /**
+     * Appends a document to a module.
+     */
+    @Transactional
+    public DocumentDTO addDocument(Long courseId, Long moduleId, DocumentRequestDTO request, Long instructorId) {
+        Course course = findOwnedCourse(courseId, instructorId);
+        Module module = findModule(course, moduleId);
+
+        Document document = newDocument(module, request);
+        module.getDocuments().add(document);
+        contentChanged(course);
+        return conversion.toDocumentDto(document);
+    }
+
+    /**
+     * Replaces the details of a single document.
+     */
+    @Transactional
+    public DocumentDTO updateDocument(Long courseId, Long moduleId, Long documentId, DocumentRequestDTO request, Long instructorId) {
+        Course course = findOwnedCourse(courseId, instructorId);
+        Document document = findDocument(findModule(course, moduleId), documentId);
+
+        boolean changed = !Objects.equals(document.getFilename(), request.getFilename())
+                || !Objects.equals(document.getURL(), request.getURL());
+        if (changed) {
+            document.setFilename(request.getFilename());
+            document.setURL(request.getURL());
+            document.setCloudProvider(cloudUrlProcessorService.detectCloudProvider(request.getURL()));
+            contentChanged(course);
+        }
+        return conversion.toDocumentDto(document);
+    }
+
+    /**
+     * Deletes a single document.
+     */
+    @Transactional
+    public void deleteDocument(Long courseId, Long moduleId, Long documentId, Long instructorId) {
+        Course course = findOwnedCourse(courseId, instructorId);
+        Module module = findModule(course, moduleId);
+
+        module.getDocuments().remove(findDocument(module, documentId));
+        contentChanged(course);
+    }
+
+    /**
+     * Reorders the documents of a module.
+     */
+    @Transactional
+    public List<DocumentDTO> reorderDocuments(Long courseId, Long moduleId, List<Long> orderedIds, Long instructorId) {
+        Course course = findOwnedCourse(courseId, instructorId);
+        Module module = findModule(course, moduleId);
+        if (reorder(module.getDocuments(), orderedIds, Document::getId, Document::getPosition, Document::setPosition)) {
+            contentChanged(course);
+        }
+        return module.getDocuments().stream().map(conversion::toDocumentDto).collect(Collectors.toList());
+    }
+
+    private Course findOwnedCourse(Long courseId, Long instructorId) {
+        Course course = courseRepository.findByIdAndDeletedFalse(courseId)
+                .orElseThrow(() -> new RuntimeException("Course not found with ID: " + courseId));
+        if (!course.getInstructorId().equals(instructorId)) {
+            throw new AccessDeniedException("You do not own this course");
+        }
+        return course;
+    }
+
+    private Module findModule(Course course, Long moduleId) {
+        return course.getModules().stream()
+                .filter(module -> module.getId().equals(moduleId))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Module " + moduleId + " not found in course " + course.getId()));
+    }
+
+    private Video findVideo(Module module, Long videoId) {
+        return module.getVideos().stream()
+                .filter(video -> video.getId().equals(videoId))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Video " + videoId + " not found in module " + module.getId()));
+    }
+
+    private Document findDocument(Module module, Long documentId) {
+        return module.getDocuments().stream()
+                .filter(document -> document.getId().equals(documentId))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Document " + documentId + " not found in module " + module.getId()));
+    }
+
+    private Video newVideo(Module module, VideoRequestDTO request) {
+        Video video = new Video();
+        video.setFilename(request.getFilename());
+        video.setURL(request.getURL());
+        video.setCloudProvider(cloudUrlProcessorService.detectCloudProvider(request.getURL()));
+        video.setDescription(request.getDescription());
+        video.setPosition(ContentOrder.nextPosition(module.getVideos(), Video::getPosition));
+        video.setModule(module);
+        return video;
+    }
+
+    private Document newDocument(Module module, DocumentRequestDTO request) {
+        Document document = new Document();
+        document.setFilename(request.getFilename());
+        document.setURL(request.getURL());
+        document.setCloudProvider(cloudUrlProcessorService.detectCloudProvider(request.getURL()));
+        document.setPosition(ContentOrder.nextPosition(module.getDocuments(), Document::getPosition));
+        document.setModule(module);
+        return document;
+    }
+
+    /**
+     * Applies a new display order; only entries whose position actually moves are updated.
+     * The ids must be exactly the ids currently in the collection.
+     */
+    private static <T> boolean reorder(List<T> items, List<Long> orderedIds, Function<T, Long> idOf,
+                                       Function<T, Integer> positionOf, BiConsumer<T, Integer> setPosition) {
+        Map<Long, T> byId = items.stream().collect(Collectors.toMap(idOf, Function.identity()));
+        if (orderedIds.size() != items.size() || !byId.keySet().equals(new HashSet<>(orderedIds))) {
+            throw new RuntimeException("Ordered ids must contain every existing id exactly once");
+        }
+
+        boolean changed = false;
+        for (int position = 0; position < orderedIds.size(); position++) {
+            T item = byId.get(orderedIds.get(position));
+            if (!Objects.equals(positionOf.apply(item), position)) {
+                setPosition.accept(item, position);
+                changed = true;
+            }
+        }
+        items.sort((a, b) -> Integer.compare(positionOf.apply(a), positionOf.apply(b)));
+        return changed;
+    }
+
+    /**
+     * Flushes the row-level change, refreshes the content manifest and announces a content-only change.
+     */
+    private void contentChanged(Course course) {
+        courseRepository.flush(); // assigns ids to newly added entries
+        ContentOrder.sort(course);
+        courseManifestService.rebuild(course);
+        eventPublisher.publishEvent(new CourseChangedEvent(course.getId(), CourseChangedEvent.Change.CONTENT));
+    }
+}
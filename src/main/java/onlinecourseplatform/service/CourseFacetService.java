@@ -0,0 +1,132 @@
+package onlinecourseplatform.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import onlinecourseplatform.entity.Course;
+import onlinecourseplatform.event.CourseChangedEvent;
+import onlinecourseplatform.repository.CourseRepository;
+import onlinecourseplatform.repository.FeedbackRepository;
+import onlinecourseplatform.search.FacetIndex;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the faceted catalog index (price band, rating band, instructor, creation date) in memory.
+ * Built once the application is ready, then updated per course from course and feedback events.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CourseFacetService {
+
+    public static final String PRICE = "price";
+    public static final String RATING = "rating";
+    public static final String INSTRUCTOR = "instructor";
+
+    private static final BigDecimal LOW_PRICE = BigDecimal.valueOf(500);
+    private static final BigDecimal HIGH_PRICE = BigDecimal.valueOf(2000);
+
+    private final CourseRepository courseRepository;
+    private final FeedbackRepository feedbackRepository;
+
+    private volatile FacetIndex index; // null until the first build completes
+
+    /**
+     * Builds the index from every live course and its average rating.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        Map<Long, Double> ratings = new HashMap<>();
+        for (Object[] row : feedbackRepository.averageRatingPerCourse()) {
+            ratings.put((Long) row[0], (Double) row[1]);
+        }
+        FacetIndex fresh = new FacetIndex();
+        List<Course> courses = courseRepository.findAllByDeletedFalse();
+        for (Course course : courses) {
+            put(fresh, course, ratings.get(course.getId()));
+        }
+        index = fresh;
+        log.info("Built facet index for {} courses in {} ms", courses.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Applies a course or feedback change after it commits.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        FacetIndex current = index;
+        if (current == null) {
+            return; // the initial build will pick the change up
+        }
+        Long courseId = event.getCourseId();
+        switch (event.getChange()) {
+            case CREATED, UPDATED -> courseRepository.findByIdAndDeletedFalse(courseId).ifPresentOrElse(
+                    course -> put(current, course, feedbackRepository.averageRating(courseId)),
+                    () -> current.remove(docId(courseId)));
+            case DELETED -> current.remove(docId(courseId));
+            case FEEDBACK -> current.update(docId(courseId), RATING, ratingBand(feedbackRepository.averageRating(courseId)));
+            default -> {
+                // module, video and document changes do not affect facets
+            }
+        }
+    }
+
+    /**
+     * Filters the catalog and counts facet values for one page of results.
+     */
+    public FacetIndex.Result browse(Map<String, Set<String>> selected, LocalDate createdFrom, LocalDate createdTo, int page, int size) {
+        FacetIndex current = index;
+        if (current == null) {
+            throw new RuntimeException("Catalog index is still loading, please retry shortly");
+        }
+        if (createdFrom != null && createdTo != null && createdFrom.isAfter(createdTo)) {
+            throw new RuntimeException("createdFrom must not be after createdTo");
+        }
+        return current.query(selected, createdFrom, createdTo, page * size, size);
+    }
+
+    private void put(FacetIndex target, Course course, Double averageRating) {
+        Map<String, String> values = new HashMap<>();
+        values.put(PRICE, priceBand(course.getPrice()));
+        values.put(RATING, ratingBand(averageRating));
+        values.put(INSTRUCTOR, String.valueOf(course.getInstructorId()));
+        target.put(docId(course.getId()), values, course.getCreatedAt() == null ? null : course.getCreatedAt().toLocalDate());
+    }
+
+    static String priceBand(BigDecimal price) {
+        if (price.signum() == 0) {
+            return "free";
+        }
+        if (price.compareTo(LOW_PRICE) < 0) {
+            return "under-500";
+        }
+        return price.compareTo(HIGH_PRICE) < 0 ? "500-1999" : "2000-plus";
+    }
+
+    static String ratingBand(Double averageRating) {
+        if (averageRating == null) {
+            return "unrated";
+        }
+        if (averageRating >= 4) {
+            return "4-5";
+        }
+        return averageRating >= 3 ? "3-4" : "below-3";
+    }
+
+    /**
+     * Bitmaps hold 32-bit ids; course ids are IDENTITY values well inside that range.
+     */
+    private static int docId(Long courseId) {
+        return Math.toIntExact(courseId);
+    }
+}
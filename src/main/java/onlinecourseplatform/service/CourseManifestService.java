@@ -0,0 +1,137 @@
+package onlinecourseplatform.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import onlinecourseplatform.dto.responseDTOs.CourseContentResponseDTO;
+import onlinecourseplatform.entity.Course;
+import onlinecourseplatform.entity.CourseContentManifest;
+import onlinecourseplatform.repository.CourseContentManifestRepository;
+import onlinecourseplatform.repository.CourseRepository;
+import onlinecourseplatform.utility.Conversion;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Materializes course content at write time so students read it with a single primary-key lookup.
+ * Manifests are only written by content changes and by the startup backfill; a read never writes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CourseManifestService {
+
+    private final CourseContentManifestRepository manifestRepository;
+    private final CourseRepository courseRepository;
+    private final Conversion conversion;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Bumps the course content version and stores a freshly serialized manifest.
+     * Must be called inside the transaction that changed the course content.
+     */
+    @Transactional
+    public void rebuild(Course course) {
+        course.setContentVersion(course.getContentVersion() + 1);
+        CourseContentResponseDTO content = conversion.toCourseContentResponseDTO(course);
+
+        CourseContentManifest manifest = CourseContentManifest.builder()
+                .courseId(course.getId())
+                .contentVersion(course.getContentVersion())
+                .payload(serialize(content))
+                .builtAt(LocalDateTime.now())
+                .build();
+        manifestRepository.save(manifest);
+        log.debug("Rebuilt content manifest for course {} at version {}", course.getId(), course.getContentVersion());
+    }
+
+    /**
+     * Reads the manifest for a course, provided it was built for the course's current content version.
+     * A missing or stale manifest (until the backfill has run) is answered from the content tables.
+     */
+    @Transactional(readOnly = true)
+    public CourseContentResponseDTO read(Long courseId) {
+        return manifestRepository.findCurrent(courseId)
+                .map(manifest -> deserialize(manifest.getPayload()))
+                .orElseGet(() -> {
+                    Course course = courseRepository.findByIdAndDeletedFalse(courseId)
+                            .orElseThrow(() -> new RuntimeException("Course not found with ID: " + courseId));
+                    log.warn("No current content manifest for course {} (version {}), reading the content tables",
+                            courseId, course.getContentVersion());
+                    return conversion.toCourseContentResponseDTO(course);
+                });
+    }
+
+    /**
+     * Builds the manifests of live courses that have none, or one older than their content version:
+     * courses created before manifests existed, or whose rebuild failed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        List<Long> courseIds;
+        try {
+            courseIds = jdbcTemplate.queryForList("SELECT c.id FROM courses c "
+                    + "LEFT JOIN course_content_manifests m ON m.course_id = c.id "
+                    + "WHERE c.deleted = false AND (m.course_id IS NULL OR m.content_version <> c.content_version)", Long.class);
+        } catch (DataAccessException e) {
+            log.error("Could not look up courses without a content manifest: {}", e.getMessage());
+            return;
+        }
+        int built = 0;
+        for (Long courseId : courseIds) {
+            try {
+                transactionTemplate.executeWithoutResult(tx -> courseRepository.findByIdAndDeletedFalse(courseId)
+                        .ifPresent(this::rebuild));
+                built++;
+            } catch (DataAccessException e) {
+                log.warn("Could not build the content manifest of course {}: {}", courseId, e.getMessage());
+            }
+        }
+        if (!courseIds.isEmpty()) {
+            log.info("Built {} of {} missing or stale content manifests", built, courseIds.size());
+        }
+    }
+
+    /**
+     * Removes the manifest of a deleted course.
+     */
+    @Transactional
+    public void delete(Long courseId) {
+        manifestRepository.findById(courseId).ifPresent(manifestRepository::delete);
+    }
+
+    private byte[] serialize(CourseContentResponseDTO content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, content);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to serialize content manifest", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private CourseContentResponseDTO deserialize(byte[] payload) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return objectMapper.readValue(in, CourseContentResponseDTO.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read content manifest", e);
+        }
+    }
+}
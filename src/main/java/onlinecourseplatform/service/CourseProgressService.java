@@ -0,0 +1,200 @@
+package onlinecourseplatform.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import onlinecourseplatform.dto.responseDTOs.CourseCompletionDTO;
+import onlinecourseplatform.entity.AssetType;
+import onlinecourseplatform.entity.Status;
+import onlinecourseplatform.event.CourseActivityEvent;
+import onlinecourseplatform.event.CourseChangedEvent;
+import onlinecourseplatform.event.EnrollmentCompletedEvent;
+import onlinecourseplatform.repository.CourseRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Derives course completion from completed videos and documents.
+ * <p>
+ * Each enrollment keeps a counter of completed assets and each course its number of assets, so the
+ * completion percentage is one row read. When an asset crosses its completion threshold, an
+ * {@code asset_completions} row is inserted with INSERT IGNORE; only a new row bumps the counter, and
+ * the enrollment is marked completed once the counter reaches the course total. After content changes
+ * the course total is recounted and completions of deleted assets are dropped.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CourseProgressService {
+
+    private static final String COUNT_ASSETS = "(SELECT COUNT(*) FROM video v JOIN module m ON m.id = v.module_id WHERE m.course_id = c.id) "
+            + "+ (SELECT COUNT(*) FROM document d JOIN module m ON m.id = d.module_id WHERE m.course_id = c.id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final CourseRepository courseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${progress.recorded-cache-size:100000}")
+    private long recordedCacheSize;
+
+    private record AssetKey(long studentId, AssetType type, long assetId) {
+    }
+
+    private Cache<AssetKey, Boolean> recorded; // completions known to be stored, to skip repeated inserts
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        recorded = Caffeine.newBuilder().maximumSize(recordedCacheSize).build();
+        // Own transaction: the content listener runs after the triggering transaction has committed
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Records that an enrolled student completed a video or document of the course; repeated calls
+     * for the same asset change nothing. Returns false if the completion could not be stored, so the
+     * caller can retry it.
+     */
+    public boolean recordCompletion(Long studentId, Long courseId, AssetType type, Long assetId) {
+        AssetKey key = new AssetKey(studentId, type, assetId);
+        if (recorded.getIfPresent(key) != null) {
+            return true;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                LocalDateTime now = LocalDateTime.now();
+                int inserted = jdbcTemplate.update("INSERT IGNORE INTO asset_completions (student_id, course_id, asset_type, asset_id, completed_at) "
+                        + "VALUES (?, ?, ?, ?, ?)", studentId, courseId, type.name(), assetId, Timestamp.valueOf(now));
+                if (inserted == 1) {
+                    jdbcTemplate.update("UPDATE enrollments SET completed_assets = completed_assets + 1 WHERE student_id = ? AND course_id = ?",
+                            studentId, courseId);
+                    completeIfDone(studentId, courseId, now);
+                }
+            });
+            recorded.put(key, Boolean.TRUE);
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("Could not record completion of {} {} by student {}: {}", type, assetId, studentId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Completion of a student's enrollment, from the two maintained counters.
+     */
+    public CourseCompletionDTO getCompletion(Long studentId, Long courseId) {
+        List<CourseCompletionDTO> rows = jdbcTemplate.query(
+                "SELECT e.completed_assets, c.total_assets, e.status, e.completed_at FROM enrollments e "
+                        + "JOIN courses c ON c.id = e.course_id WHERE e.student_id = ? AND e.course_id = ?",
+                (rs, i) -> {
+                    int completed = rs.getInt(1);
+                    int total = rs.getInt(2);
+                    Timestamp completedAt = rs.getTimestamp(4);
+                    return CourseCompletionDTO.builder()
+                            .courseId(courseId)
+                            .completedAssets(completed)
+                            .totalAssets(total)
+                            .percent(total == 0 ? 0 : Math.min(100, completed * 100 / total))
+                            .status(Status.valueOf(rs.getString(3)))
+                            .completedAt(completedAt == null ? null : completedAt.toLocalDateTime())
+                            .build();
+                }, studentId, courseId);
+        if (rows.isEmpty()) {
+            throw new AccessDeniedException("You are not enrolled in this course");
+        }
+        return rows.get(0);
+    }
+
+    /**
+     * Marks the enrollment completed if all assets are done and it was not completed before.
+     */
+    private void completeIfDone(Long studentId, Long courseId, LocalDateTime now) {
+        int completed = jdbcTemplate.update("UPDATE enrollments e JOIN courses c ON c.id = e.course_id "
+                        + "SET e.status = 'COMPLETED', e.completed_at = ? "
+                        + "WHERE e.student_id = ? AND e.course_id = ? AND e.completed_at IS NULL "
+                        + "AND c.total_assets > 0 AND e.completed_assets >= c.total_assets",
+                Timestamp.valueOf(now), studentId, courseId);
+        if (completed == 1) {
+            Long instructorId = courseRepository.findEnrollmentCountById(courseId)
+                    .map(CourseRepository.EnrollmentCountView::getInstructorId)
+                    .orElse(null);
+            eventPublisher.publishEvent(new EnrollmentCompletedEvent(courseId, studentId));
+            eventPublisher.publishEvent(new CourseActivityEvent(courseId, instructorId, CourseActivityEvent.Type.COMPLETION, 1, now));
+            log.info("Student {} completed course {} by finishing all its content", studentId, courseId);
+        }
+    }
+
+    /**
+     * Brings totals written before asset tracking existed (or missed while a node was down) up to date.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recountAll() {
+        try {
+            int courses = jdbcTemplate.update("UPDATE courses c SET c.total_assets = " + COUNT_ASSETS + " WHERE c.deleted = false");
+            log.info("Recounted content assets of {} courses", courses);
+        } catch (DataAccessException e) {
+            log.error("Could not recount course assets: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * After a content change on this node: recounts the course total, drops completions of deleted assets
+     * from the affected enrollments, and completes enrollments that now cover every remaining asset.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        if (event.isRemote() || event.getChange() == CourseChangedEvent.Change.DELETED
+                || event.getChange() == CourseChangedEvent.Change.FEEDBACK) {
+            return;
+        }
+        Long courseId = event.getCourseId();
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                jdbcTemplate.update("UPDATE courses c SET c.total_assets = " + COUNT_ASSETS + " WHERE c.id = ?", courseId);
+                List<Long> affected = jdbcTemplate.queryForList("SELECT DISTINCT a.student_id FROM asset_completions a "
+                        + "LEFT JOIN video v ON a.asset_type = 'VIDEO' AND v.id = a.asset_id "
+                        + "LEFT JOIN document d ON a.asset_type = 'DOCUMENT' AND d.id = a.asset_id "
+                        + "WHERE a.course_id = ? AND v.id IS NULL AND d.id IS NULL", Long.class, courseId);
+                if (!affected.isEmpty()) {
+                    String students = String.join(",", Collections.nCopies(affected.size(), "?"));
+                    Object[] args = Stream.concat(Stream.of(courseId), affected.stream()).toArray();
+                    jdbcTemplate.update("DELETE a FROM asset_completions a "
+                            + "LEFT JOIN video v ON a.asset_type = 'VIDEO' AND v.id = a.asset_id "
+                            + "LEFT JOIN document d ON a.asset_type = 'DOCUMENT' AND d.id = a.asset_id "
+                            + "WHERE a.course_id = ? AND v.id IS NULL AND d.id IS NULL", courseId);
+                    jdbcTemplate.update("UPDATE enrollments e SET e.completed_assets = (SELECT COUNT(*) FROM asset_completions a "
+                            + "WHERE a.student_id = e.student_id AND a.course_id = e.course_id) "
+                            + "WHERE e.course_id = ? AND e.student_id IN (" + students + ")", args);
+                    recorded.invalidateAll();
+                }
+                LocalDateTime now = LocalDateTime.now();
+                jdbcTemplate.queryForList("SELECT e.student_id FROM enrollments e JOIN courses c ON c.id = e.course_id "
+                                + "WHERE e.course_id = ? AND e.completed_at IS NULL AND c.total_assets > 0 AND e.completed_assets >= c.total_assets",
+                        Long.class, courseId)
+                        .forEach(studentId -> completeIfDone(studentId, courseId, now));
+            });
+        } catch (DataAccessException e) {
+            log.error("Could not update asset totals of course {}: {}", courseId, e.getMessage());
+        }
+    }
+}
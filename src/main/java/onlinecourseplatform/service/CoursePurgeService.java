@@ -0,0 +1,166 @@
+package onlinecourseplatform.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import onlinecourseplatform.entity.Course;
+import onlinecourseplatform.entity.CoursePurgeJob;
+import onlinecourseplatform.entity.PurgePhase;
+import onlinecourseplatform.repository.CoursePurgeJobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Removes the children of soft-deleted courses in the background. Each phase deletes rows in
+ * bounded JDBC batches (every statement commits on its own), progress is persisted after each
+ * batch, and a lease on the job row keeps two nodes from purging the same course at once.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CoursePurgeService {
+
+    private static final Map<PurgePhase, String> STATEMENTS = new EnumMap<>(PurgePhase.class);
+
+    static {
+        STATEMENTS.put(PurgePhase.FEEDBACK, "DELETE FROM feedbacks WHERE course_id = ? LIMIT ?");
+        STATEMENTS.put(PurgePhase.ENROLLMENTS, "DELETE FROM enrollments WHERE course_id = ? LIMIT ?");
+        // Payments are financial records: keep them, only detach them from the course
+        STATEMENTS.put(PurgePhase.PAYMENTS, "UPDATE payment SET course_id = NULL WHERE course_id = ? LIMIT ?");
+        STATEMENTS.put(PurgePhase.DOCUMENT_PAGES, "DELETE FROM document_pages WHERE course_id = ? LIMIT ?");
+        STATEMENTS.put(PurgePhase.DOCUMENT_TEXT_INDEX, "DELETE FROM document_text_index WHERE course_id = ? LIMIT ?");
+        STATEMENTS.put(PurgePhase.DOCUMENTS, "DELETE FROM document WHERE module_id IN (SELECT id FROM module WHERE course_id = ?) LIMIT ?");
+        STATEMENTS.put(PurgePhase.VIDEO_PROGRESS, "DELETE FROM video_progress WHERE course_id = ? LIMIT ?");
+        STATEMENTS.put(PurgePhase.ASSET_COMPLETIONS, "DELETE FROM asset_completions WHERE course_id = ? LIMIT ?");
+        STATEMENTS.put(PurgePhase.VIDEOS, "DELETE FROM video WHERE module_id IN (SELECT id FROM module WHERE course_id = ?) LIMIT ?");
+        STATEMENTS.put(PurgePhase.MODULES, "DELETE FROM module WHERE course_id = ? LIMIT ?");
+        // COURSE is not a batch statement, see deleteCourse
+    }
+
+    private final CoursePurgeJobRepository purgeJobRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${course.purge.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${course.purge.lease-seconds:300}")
+    private long leaseSeconds;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * Registers a purge job for a course that was just soft-deleted.
+     * Runs inside the caller's transaction so the job exists iff the soft delete committed.
+     */
+    public void schedule(Course course, Long requestedBy) {
+        CoursePurgeJob job = CoursePurgeJob.builder()
+                .courseId(course.getId())
+                .instructorId(course.getInstructorId())
+                .requestedBy(requestedBy)
+                .phase(PurgePhase.FEEDBACK)
+                .rowsPurged(0)
+                .createdAt(LocalDateTime.now())
+                .build();
+        purgeJobRepository.save(job);
+    }
+
+    /**
+     * Returns the purge job of a course, if one exists.
+     */
+    public CoursePurgeJob getJob(Long courseId) {
+        return purgeJobRepository.findById(courseId)
+                .orElseThrow(() -> new RuntimeException("No deletion in progress for course ID: " + courseId));
+    }
+
+    /**
+     * Picks up unfinished purge jobs (including ones interrupted by a restart) and works them off.
+     */
+    @Scheduled(fixedDelayString = "${course.purge.interval-ms:10000}")
+    public void purgePending() {
+        for (CoursePurgeJob job : purgeJobRepository.findByPhaseNot(PurgePhase.DONE)) {
+            if (!claim(job.getCourseId())) {
+                continue;
+            }
+            try {
+                purge(job);
+            } catch (DataAccessException | IllegalStateException e) {
+                log.error("Purge of course {} stopped in phase {}: {}", job.getCourseId(), job.getPhase(), e.getMessage());
+                release(job.getCourseId());
+            }
+        }
+    }
+
+    private void purge(CoursePurgeJob job) {
+        Long courseId = job.getCourseId();
+        PurgePhase phase = job.getPhase();
+        long purged = job.getRowsPurged();
+        log.info("Purging course {} starting at phase {}", courseId, phase);
+
+        while (phase != PurgePhase.DONE) {
+            int rows;
+            do {
+                rows = phase == PurgePhase.COURSE ? deleteCourse(courseId) : jdbcTemplate.update(STATEMENTS.get(phase), courseId, batchSize);
+                purged += rows;
+                saveProgress(courseId, phase, purged);
+            } while (rows >= batchSize);
+            phase = PurgePhase.values()[phase.ordinal() + 1];
+            job.setPhase(phase);
+            saveProgress(courseId, phase, purged);
+        }
+
+        jdbcTemplate.update("UPDATE course_purge_jobs SET completed_at = ?, locked_by = NULL, locked_until = NULL WHERE course_id = ?",
+                Timestamp.valueOf(LocalDateTime.now()), courseId);
+        log.info("Purged course {} ({} rows)", courseId, purged);
+    }
+
+    /**
+     * Deletes the course row. Payments can still be recorded for the soft-deleted course after the PAYMENTS
+     * phase, so they are detached again in the same transaction; the course row is locked first, which
+     * makes a concurrent payment insert wait for the delete instead of slipping in between.
+     */
+    private int deleteCourse(Long courseId) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForList("SELECT id FROM courses WHERE id = ? FOR UPDATE", Long.class, courseId);
+            jdbcTemplate.update("UPDATE payment SET course_id = NULL WHERE course_id = ?", courseId);
+            return jdbcTemplate.update("DELETE FROM courses WHERE id = ? AND deleted = true", courseId);
+        });
+    }
+
+    /**
+     * Takes the job lease; fails if another node holds an unexpired lease.
+     */
+    private boolean claim(Long courseId) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.update("UPDATE course_purge_jobs SET locked_by = ?, locked_until = ? "
+                        + "WHERE course_id = ? AND phase <> 'DONE' AND (locked_until IS NULL OR locked_until < ?)",
+                nodeId, Timestamp.valueOf(now.plusSeconds(leaseSeconds)), courseId, Timestamp.valueOf(now)) == 1;
+    }
+
+    private void release(Long courseId) {
+        jdbcTemplate.update("UPDATE course_purge_jobs SET locked_by = NULL, locked_until = NULL WHERE course_id = ? AND locked_by = ?",
+                courseId, nodeId);
+    }
+
+    /**
+     * Persists progress and extends the lease; aborts if the lease was lost to another node.
+     */
+    private void saveProgress(Long courseId, PurgePhase phase, long purged) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = jdbcTemplate.update("UPDATE course_purge_jobs SET phase = ?, rows_purged = ?, updated_at = ?, locked_until = ? "
+                        + "WHERE course_id = ? AND locked_by = ?",
+                phase.name(), purged, Timestamp.valueOf(now), Timestamp.valueOf(now.plusSeconds(leaseSeconds)), courseId, nodeId);
+        if (updated != 1) {
+            throw new IllegalStateException("Lost purge lease for course " + courseId);
+        }
+    }
+}
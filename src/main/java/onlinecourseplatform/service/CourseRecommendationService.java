@@ -0,0 +1,236 @@
+package onlinecourseplatform.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import onlinecourseplatform.event.CourseChangedEvent;
+import onlinecourseplatform.event.EnrollmentChangedEvent;
+import onlinecourseplatform.recommendation.CoEnrollmentMatrix;
+import onlinecourseplatform.repository.EnrollmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * "Students also enrolled in" recommendations from a {@link CoEnrollmentMatrix}.
+ * The matrix is built once the application is ready by streaming all enrollments ordered by student
+ * and counting each student's course pairs in parallel, then kept current from enrollment events.
+ * Unenrollments are not applied incrementally; the scheduled rebuild picks them up.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CourseRecommendationService {
+
+    private static final int CHUNK_ROWS = 50_000;
+    public static final int MAX_LIMIT = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EnrollmentRepository enrollmentRepository;
+    private final EnrollmentIndexService enrollmentIndexService;
+
+    @Value("${recommendations.min-shared-students:2}")
+    private int minSharedStudents;
+
+    private volatile CoEnrollmentMatrix matrix = CoEnrollmentMatrix.empty();
+    private final AtomicBoolean building = new AtomicBoolean();
+    private final Queue<NewEnrollment> enrolledDuringBuild = new ArrayDeque<>();
+
+    private record NewEnrollment(long courseId, long[] otherCourseIds) {
+    }
+
+    /**
+     * Returns up to {@code limit} courses most often taken together with the given course.
+     */
+    public List<CoEnrollmentMatrix.Related> related(Long courseId, int limit) {
+        return matrix.related(courseId, limit, minSharedStudents);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the matrix from the enrollments table and swaps it in; enrollments committed meanwhile
+     * are replayed onto the new matrix.
+     */
+    @Scheduled(cron = "${recommendations.rebuild-cron:0 0 4 * * *}")
+    public void rebuild() {
+        if (!building.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            CoEnrollmentMatrix.Builder builder = new CoEnrollmentMatrix.Builder(Runtime.getRuntime().availableProcessors());
+            long rows = scan(builder);
+            CoEnrollmentMatrix fresh = builder.build();
+            // An enrollment committed just as the scan read it may be counted twice until the next rebuild
+            synchronized (enrolledDuringBuild) {
+                NewEnrollment pending;
+                while ((pending = enrolledDuringBuild.poll()) != null) {
+                    fresh.addEnrollment(pending.courseId(), pending.otherCourseIds());
+                }
+                matrix = fresh;
+                building.set(false);
+            }
+            log.info("Built co-enrollment matrix for {} courses from {} enrollments in {} ms",
+                    fresh.courseCount(), rows, (System.nanoTime() - start) / 1_000_000);
+        } catch (DataAccessException e) {
+            log.error("Co-enrollment matrix build failed: {}", e.getMessage());
+        } finally {
+            synchronized (enrolledDuringBuild) {
+                enrolledDuringBuild.clear();
+                building.set(false);
+            }
+        }
+    }
+
+    /**
+     * Streams (student, course) pairs row by row (MySQL streaming result set) and hands them to the
+     * builder in chunks of whole students, so memory stays bounded by the chunk size.
+     */
+    private long scan(CoEnrollmentMatrix.Builder builder) {
+        StudentChunker chunker = new StudentChunker(builder);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT e.student_id, e.course_id FROM enrollments e JOIN courses c ON c.id = e.course_id AND c.deleted = false "
+                            + "ORDER BY e.student_id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE);
+            return statement;
+        }, chunker);
+        chunker.finish();
+        return chunker.rows;
+    }
+
+    /**
+     * Groups consecutive rows of the same student into one course id array.
+     */
+    private static class StudentChunker implements RowCallbackHandler {
+
+        private final CoEnrollmentMatrix.Builder builder;
+        private final List<long[]> chunk = new ArrayList<>();
+        private final List<Long> courses = new ArrayList<>();
+        private long currentStudent = -1;
+        private int chunkRows;
+        private long rows;
+
+        StudentChunker(CoEnrollmentMatrix.Builder builder) {
+            this.builder = builder;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long student = rs.getLong(1);
+            if (student != currentStudent) {
+                endStudent();
+                currentStudent = student;
+                if (chunkRows >= CHUNK_ROWS) {
+                    builder.addStudents(chunk);
+                    chunk.clear();
+                    chunkRows = 0;
+                }
+            }
+            courses.add(rs.getLong(2));
+            chunkRows++;
+            rows++;
+        }
+
+        void finish() {
+            endStudent();
+            builder.addStudents(chunk);
+            chunk.clear();
+        }
+
+        private void endStudent() {
+            if (!courses.isEmpty()) {
+                chunk.add(courses.stream().mapToLong(Long::longValue).distinct().toArray());
+                courses.clear();
+            }
+        }
+    }
+
+    /**
+     * Adds committed enrollments to the matrix; during a rebuild they are also queued for the new matrix.
+     * The students' other courses are resolved before taking the lock, which only guards the in-memory update.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        if (event.getDelta() <= 0) {
+            return;
+        }
+        List<NewEnrollment> enrollments;
+        try {
+            enrollments = resolve(event.getStudentIds(), event.getCourseId());
+        } catch (DataAccessException e) {
+            log.warn("Could not update co-enrollments for course {}: {}", event.getCourseId(), e.getMessage());
+            return;
+        }
+        synchronized (enrolledDuringBuild) {
+            CoEnrollmentMatrix target = matrix;
+            enrollments.forEach(enrollment -> target.addEnrollment(enrollment.courseId(), enrollment.otherCourseIds()));
+            if (building.get()) {
+                enrolledDuringBuild.addAll(enrollments);
+            }
+        }
+    }
+
+    /**
+     * The enrollment of each student in the course with the student's other courses. Those come from the
+     * enrollment index; students it cannot answer for are read in one query.
+     */
+    private List<NewEnrollment> resolve(List<Long> studentIds, long courseId) {
+        Map<Long, long[]> coursesByStudent = new HashMap<>();
+        List<Long> unknown = new ArrayList<>();
+        for (Long studentId : studentIds) {
+            long[] courseIds = enrollmentIndexService.courseIdsOf(studentId);
+            if (courseIds == null) {
+                unknown.add(studentId);
+            } else {
+                coursesByStudent.put(studentId, courseIds);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            Map<Long, List<Long>> fromDatabase = new HashMap<>();
+            for (Object[] row : enrollmentRepository.findStudentCoursePairs(unknown)) {
+                fromDatabase.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((Long) row[1]);
+            }
+            unknown.forEach(studentId -> coursesByStudent.put(studentId,
+                    fromDatabase.getOrDefault(studentId, List.of()).stream().mapToLong(Long::longValue).toArray()));
+        }
+        List<NewEnrollment> enrollments = new ArrayList<>(studentIds.size());
+        for (Long studentId : studentIds) {
+            long[] others = Arrays.stream(coursesByStudent.get(studentId))
+                    .filter(id -> id != courseId)
+                    .distinct()
+                    .toArray();
+            enrollments.add(new NewEnrollment(courseId, others));
+        }
+        return enrollments;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        if (event.getChange() == CourseChangedEvent.Change.DELETED) {
+            matrix.removeCourse(event.getCourseId());
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package onlinecourseplatform.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import onlinecourseplatform.entity.Course;
+import onlinecourseplatform.event.CourseChangedEvent;
+import onlinecourseplatform.repository.CourseRepository;
+import onlinecourseplatform.search.InvertedIndex;
+import onlinecourseplatform.search.SearchHits;
+import onlinecourseplatform.search.TextAnalyzer;
+import onlinecourseplatform.search.TrigramIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Full-text course search served from an in-memory BM25 index over titles and descriptions,
+ * plus a trigram index over titles for typo-tolerant matching. Both are built once the application
+ * is ready and kept current from course change events, including changes broadcast by other nodes.
+ * Result pages are cached under normalized keys and dropped whenever the indexes change.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CourseSearchService {
+
+    private final CourseRepository courseRepository;
+
+    @Value("${search.title-boost:3.0}")
+    private float titleBoost;
+
+    @Value("${search.fuzzy.max-candidates:200}")
+    private int fuzzyMaxCandidates;
+
+    private volatile InvertedIndex index; // null until the first build completes
+    private volatile TrigramIndex fuzzyIndex;
+    private volatile Map<Long, Integer> popularity = Map.of(); // enrollments per course, fuzzy tie-breaker
+
+    @Value("${search.result-cache.max-entries:10000}")
+    private long resultCacheMaxEntries;
+
+    @Value("${search.result-cache.ttl-seconds:60}")
+    private long resultCacheTtlSeconds;
+
+    @Value("${search.result-cache.refresh-seconds:15}")
+    private long resultCacheRefreshSeconds;
+
+    private LoadingCache<ResultKey, SearchHits> results;
+
+    /**
+     * Normalized result-cache key: "Java  Programs" and "programming java" share an entry
+     * because both analyze to the same set of terms.
+     */
+    private record ResultKey(String terms, boolean fuzzy, int maxEdits, int page, int size) {
+    }
+
+    @PostConstruct
+    void init() {
+        results = Caffeine.newBuilder()
+                .maximumSize(resultCacheMaxEntries)
+                .expireAfterWrite(Duration.ofSeconds(resultCacheTtlSeconds))
+                .refreshAfterWrite(Duration.ofSeconds(resultCacheRefreshSeconds)) // hot queries reload in the background
+                .build(this::load);
+    }
+
+    /**
+     * Builds both indexes from every live course.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        InvertedIndex fresh = new InvertedIndex(titleBoost, 1.0f);
+        TrigramIndex freshFuzzy = new TrigramIndex(fuzzyMaxCandidates);
+        List<Course> courses = courseRepository.findAllByDeletedFalse();
+        for (Course course : courses) {
+            fresh.put(course.getId(), course.getTitle(), course.getDescription());
+            freshFuzzy.put(course.getId(), course.getTitle());
+        }
+        refreshPopularity();
+        fuzzyIndex = freshFuzzy;
+        index = fresh;
+        results.invalidateAll();
+        log.info("Indexed {} courses for search in {} ms", courses.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Re-indexes a course after its write commits.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        InvertedIndex current = index;
+        TrigramIndex currentFuzzy = fuzzyIndex;
+        if (current == null) {
+            return; // the initial build will pick the change up
+        }
+        Long courseId = event.getCourseId();
+        switch (event.getChange()) {
+            case CREATED, UPDATED -> courseRepository.findByIdAndDeletedFalse(courseId).ifPresentOrElse(
+                    course -> {
+                        current.put(courseId, course.getTitle(), course.getDescription());
+                        currentFuzzy.put(courseId, course.getTitle());
+                    },
+                    () -> {
+                        current.remove(courseId);
+                        currentFuzzy.remove(courseId);
+                    });
+            case DELETED -> {
+                current.remove(courseId);
+                currentFuzzy.remove(courseId);
+            }
+            default -> {
+                return; // content and feedback are not indexed
+            }
+        }
+        results.invalidateAll(); // after the index update, so a concurrent miss cannot cache the old result
+    }
+
+    /**
+     * Whether the index has been built and can serve queries.
+     */
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * Returns one page of course ids ranked by relevance.
+     */
+    public SearchHits search(String query, int page, int size) {
+        return results.get(new ResultKey(normalize(TextAnalyzer.analyze(query)), false, 0, page, size));
+    }
+
+    /**
+     * Returns one page of course ids whose titles are within {@code maxEdits} typos of the query,
+     * closest first and more popular first among equally close matches.
+     */
+    public SearchHits searchFuzzy(String query, int maxEdits, int page, int size) {
+        List<String> words = TextAnalyzer.tokenize(query).stream().filter(word -> !TextAnalyzer.isStopWord(word)).toList();
+        return results.get(new ResultKey(normalize(words), true, maxEdits, page, size));
+    }
+
+    private SearchHits load(ResultKey key) {
+        if (key.fuzzy()) {
+            TrigramIndex current = fuzzyIndex;
+            if (current == null) {
+                throw new IllegalStateException("Search index is not built yet");
+            }
+            Map<Long, Integer> counts = popularity;
+            return current.search(key.terms(), key.maxEdits(), key.page() * key.size(), key.size(),
+                    courseId -> counts.getOrDefault(courseId, 0));
+        }
+        InvertedIndex current = index;
+        if (current == null) {
+            throw new IllegalStateException("Search index is not built yet");
+        }
+        List<String> terms = key.terms().isEmpty() ? List.of() : List.of(key.terms().split(" "));
+        return current.searchTerms(terms, key.page() * key.size(), key.size()); // terms are already stemmed
+    }
+
+    /**
+     * Sorted, de-duplicated terms: word order and repetition do not change the ranking.
+     */
+    private static String normalize(List<String> terms) {
+        return String.join(" ", new TreeSet<>(terms));
+    }
+
+    /**
+     * Reloads enrollment counts used to rank fuzzy matches.
+     */
+    @Scheduled(fixedDelayString = "${search.popularity-refresh-ms:300000}", initialDelayString = "${search.popularity-refresh-ms:300000}")
+    public void refreshPopularity() {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Object[] row : courseRepository.findEnrollmentCounts()) {
+            counts.put((Long) row[0], ((Long) row[1]).intValue());
+        }
+        popularity = counts;
+    }
+}
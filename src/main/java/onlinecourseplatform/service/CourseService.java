@@ -5,24 +5,46 @@ import onlinecourseplatform.dto.entityDTOs.DocumentDTO;
 import onlinecourseplatform.dto.entityDTOs.VideoDTO;
 import onlinecourseplatform.dto.requestDTOs.*;
 import onlinecourseplatform.dto.responseDTOs.BasicCourseDetailsResponse;
+import onlinecourseplatform.dto.responseDTOs.CourseBrowseResponse;
 import onlinecourseplatform.dto.responseDTOs.CourseContentResponseDTO;
 import onlinecourseplatform.dto.responseDTOs.CourseResponseDTO;
-import onlinecourseplatform.dto.responseDTOs.UserResponseDTO;
+import onlinecourseplatform.dto.responseDTOs.DocumentSearchHitDTO;
+import onlinecourseplatform.dto.responseDTOs.EnrolledStudentDTO;
+import onlinecourseplatform.dto.responseDTOs.InstructorCourseSummaryDTO;
 import onlinecourseplatform.entity.*;
 import onlinecourseplatform.entity.Module;
 import onlinecourseplatform.repository.*;
 import onlinecourseplatform.utility.Conversion;
 import onlinecourseplatform.utility.Utility;
+import onlinecourseplatform.event.CourseChangedEvent;
 import lombok.RequiredArgsConstructor;
+import onlinecourseplatform.recommendation.CoEnrollmentMatrix;
+import onlinecourseplatform.search.FacetIndex;
+import onlinecourseplatform.search.SearchHits;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 /**
  * Service class for managing courses and instructor-related actions.
@@ -40,36 +62,111 @@ public class CourseService {
     private final Conversion conversion;
     private final Utility utility;
     private final CloudUrlProcessorService cloudUrlProcessorService;
+    private final CatalogCacheService catalogCacheService;
+    private final CourseManifestService courseManifestService;
+    private final CourseContentService courseContentService;
+    private final CoursePurgeService coursePurgeService;
+    private final CourseSearchService courseSearchService;
+    private final CourseFacetService courseFacetService;
+    private final DocumentSearchService documentSearchService;
+    private final PopularCourseService popularCourseService;
+    private final TrendingCourseService trendingCourseService;
+    private final CourseRecommendationService courseRecommendationService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final Duration CATALOG_L1_TTL = Duration.ofSeconds(30);
+    private static final int EXPORT_PAGE_SIZE = 1000;
+    public static final int MAX_PAGE = 1000; // deepest page of search and browse results
 
     /**
      * Retrieves all courses available on the platform.
      */
     public List<BasicCourseDetailsResponse> getAllCourses() {
-        return courseRepository.findAll().stream().map(conversion::toBasicCourseDto).collect(Collectors.toList());
+        return catalogCacheService.getCatalog("all-courses", catalogCacheService.listOf(BasicCourseDetailsResponse.class),
+                CATALOG_L1_TTL,
+                () -> courseRepository.findAllByDeletedFalse().stream().map(conversion::toBasicCourseDto).collect(Collectors.toList()));
+    }
+
+    /**
+     * Filters the catalog by price band, rating band, instructor and creation date, with facet counts.
+     */
+    public CourseBrowseResponse browseCourses(Map<String, Set<String>> facets, LocalDate createdFrom, LocalDate createdTo,
+                                              int page, int size) {
+        FacetIndex.Result result = courseFacetService.browse(facets, createdFrom, createdTo, page, size);
+        List<BasicCourseDetailsResponse> courses = coursesForStudent(result.docIds().stream().map(Integer::longValue).toList());
+        return CourseBrowseResponse.builder()
+                .total(result.total())
+                .page(page)
+                .size(size)
+                .courses(courses)
+                .facets(result.counts())
+                .build();
     }
 
     /**
      * Retrieves course details by its ID for students
      */
     public BasicCourseDetailsResponse getCourseForStudent(Long id) {
-        Course course =  courseRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Course not found with ID: " + id));
-        return conversion.toBasicCourseDto(course);
+        return findCourseForStudent(id).orElseThrow(() -> new RuntimeException("Course not found with ID: " + id));
+    }
+
+    private Optional<BasicCourseDetailsResponse> findCourseForStudent(Long id) {
+        return Optional.ofNullable(catalogCacheService.getCourse(id, "basic",
+                catalogCacheService.typeOf(BasicCourseDetailsResponse.class), CATALOG_L1_TTL,
+                () -> courseRepository.findByIdAndDeletedFalse(id).map(conversion::toBasicCourseDto).orElse(null)));
+    }
+
+    /**
+     * Details of ranked course ids, in order and served from the catalog cache. Indexes and rankings
+     * can still hold a course deleted a moment ago; such ids are skipped.
+     */
+    private List<BasicCourseDetailsResponse> coursesForStudent(List<Long> courseIds) {
+        List<BasicCourseDetailsResponse> courses = new ArrayList<>(courseIds.size());
+        for (Long courseId : courseIds) {
+            findCourseForStudent(courseId).ifPresent(courses::add);
+        }
+        return courses;
     }
 
     /**
      * Retrieves course details by its ID for instructor or Admin
      */
     public CourseResponseDTO getFullCourseForInstructor(Long id) {
-        Course course = courseRepository.findById(id)
+        Course course = courseRepository.findByIdAndDeletedFalse(id)
                 .orElseThrow(() -> new RuntimeException("Course not found with ID: " + id));
         return conversion.toResponseDto(course); // full course details with content, feedback, etc.
     }
     /**
      * Retrieves all courses created by a specific instructor.
      */
-    public List<CourseResponseDTO> getCoursesByInstructor(Long instructorId) {
-        return courseRepository.findByInstructorId(instructorId).stream().map(conversion::toResponseDto).collect(Collectors.toList());
+    public Page<CourseResponseDTO> getCoursesByInstructor(Long instructorId, int page, int size) {
+        return courseRepository.findByInstructorIdAndDeletedFalse(instructorId,
+                        PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt", "id")))
+                .map(conversion::toResponseDto);
+    }
+
+    /**
+     * Per-course dashboard figures for an instructor, computed by one aggregate query
+     * instead of serializing every module, feedback and enrollment.
+     */
+    public List<InstructorCourseSummaryDTO> getInstructorSummary(Long instructorId) {
+        return courseRepository.findInstructorCourseStats(instructorId).stream()
+                .map(stats -> {
+                    long completed = stats.getCompletedCount() == null ? 0 : stats.getCompletedCount();
+                    return InstructorCourseSummaryDTO.builder()
+                            .courseId(stats.getCourseId())
+                            .title(stats.getTitle())
+                            .price(stats.getPrice())
+                            .createdAt(stats.getCreatedAt())
+                            .enrollmentCount(stats.getEnrollmentCount())
+                            .completedCount(completed)
+                            .completionRate(stats.getEnrollmentCount() == 0 ? 0 : (double) completed / stats.getEnrollmentCount())
+                            .averageRating(stats.getAverageRating())
+                            .reviewCount(stats.getReviewCount() == null ? 0 : stats.getReviewCount())
+                            .revenue(stats.getRevenue() == null ? 0 : stats.getRevenue())
+                            .build();
+                })
+                .toList();
     }
 
     @Transactional
@@ -77,15 +174,16 @@ public class CourseService {
         Course newCourse = conversion.toEntityFromRequest(courseDto);// includes title, description, price,created At, feedbackList, enrollmentList
         newCourse.setInstructorId(instructorId);
 
-        // Save course first to generate ID
-        newCourse = courseRepository.save(newCourse);
-
-        // Save modules directly to the course
+        // Build the whole module tree in memory; a single cascading save lets Hibernate
+        // assign pooled sequence ids and flush modules, videos and documents in JDBC batches
         for (ModuleRequestDTO moduleDTO : courseDto.getModules()) {
             Module module = new Module();
             module.setModuleName(moduleDTO.getModuleName());
+            module.setPosition(newCourse.getModules().size());
             module.setCourse(newCourse);
-            module = moduleRepository.save(module);
+            module.setVideos(new ArrayList<>());
+            module.setDocuments(new ArrayList<>());
+            newCourse.getModules().add(module);
 
             for (VideoRequestDTO videoDTO : moduleDTO.getVideos()) {
                 Video video = new Video();
@@ -94,7 +192,8 @@ public class CourseService {
                 video.setCloudProvider(cloudUrlProcessorService.detectCloudProvider(videoDTO.getURL()));
                 video.setModule(module);
                 video.setDescription(videoDTO.getDescription());
-                videoRepository.save(video);
+                video.setPosition(module.getVideos().size());
+                module.getVideos().add(video);
             }
 
             for (DocumentRequestDTO documentDTO : moduleDTO.getDocuments()) {
@@ -103,11 +202,18 @@ public class CourseService {
                 document.setURL(documentDTO.getURL());
                 document.setCloudProvider(cloudUrlProcessorService.detectCloudProvider(documentDTO.getURL()));
                 document.setModule(module);
-                documentRepository.save(document);
+                document.setPosition(module.getDocuments().size());
+                module.getDocuments().add(document);
             }
         }
 
+        newCourse = courseRepository.save(newCourse);
+
+        // Materialize the student-facing content manifest
+        courseManifestService.rebuild(newCourse);
+
         log.info("Course created by instructor {}: {}", newCourse.getInstructorId(), newCourse.getTitle());
+        eventPublisher.publishEvent(new CourseChangedEvent(newCourse.getId(), CourseChangedEvent.Change.CREATED));
         return conversion.toResponseDto(newCourse);
     }
 
@@ -116,63 +222,240 @@ public class CourseService {
      */
     @Transactional
     public CourseResponseDTO updateCourse(Long courseId, CourseUpdateRequest courseDto, Long instructorId) {
-        Course course = courseRepository.findById(courseId)
+        Course course = courseRepository.findByIdAndDeletedFalse(courseId)
                 .orElseThrow(() -> new RuntimeException("Course not found"));
 
         if (!course.getInstructorId().equals(instructorId)) {
             throw new AccessDeniedException("You do not own this course");
         }
 
+        // Removed modules go first: their bulk delete clears the persistence context
+        ContentDiff diff = new ContentDiff();
+        if (courseDto.getModules() != null) {
+            course = deleteMissingModules(course, courseDto.getModules(), diff);
+        }
+
         if (courseDto.getTitle() != null) course.setTitle(courseDto.getTitle());
         if (courseDto.getDescription() != null) course.setDescription(courseDto.getDescription());
         if (courseDto.getPrice() != null) course.setPrice(courseDto.getPrice());
 
-        // If modules need to be updated
+        // If modules need to be updated, apply only the structural differences
         if (courseDto.getModules() != null) {
-            // Delete existing modules
-            List<Module> existingModules = moduleRepository.findByCourseId(courseId);
-            for (Module module : existingModules) {
-                moduleRepository.delete(module); // cascades to videos and documents
+            applyModuleDiff(course, courseDto.getModules(), diff);
+            log.info("Course {} content diff: {} inserted, {} updated, {} deleted",
+                    courseId, diff.inserted, diff.updated, diff.deleted);
+        }
+
+        // Title and modules are both part of the student-facing manifest
+        if (courseDto.getTitle() != null || diff.changed()) {
+            courseRepository.flush(); // assigns ids to new modules/videos/documents
+            ContentOrder.sort(course);
+            courseManifestService.rebuild(course);
+        }
+
+        course = courseRepository.save(course);
+        log.info("Instructor {} updated course {}", instructorId, courseId);
+        eventPublisher.publishEvent(new CourseChangedEvent(courseId, CourseChangedEvent.Change.UPDATED));
+        return conversion.toResponseDto(course);
+    }
+
+    /**
+     * Tracks how many rows a structural diff touched.
+     */
+    private static class ContentDiff {
+        int inserted;
+        int updated;
+        int deleted;
+
+        boolean changed() {
+            return inserted + updated + deleted > 0;
+        }
+    }
+
+    /**
+     * Reconciles the stored modules of a course with the incoming tree using the ids in the DTOs:
+     * entries without an id are inserted, known ids are updated only when a field changed, and
+     * stored videos and documents missing from the request are removed (orphan removal issues batched
+     * deletes). Missing modules are already gone, see {@link #deleteMissingModules}.
+     */
+    private void applyModuleDiff(Course course, List<ModuleDTO> incoming, ContentDiff diff) {
+        Set<Long> incomingIds = incoming.stream().map(ModuleDTO::getId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, Module> existing = new HashMap<>();
+        for (Module module : course.getModules()) {
+            existing.put(module.getId(), module);
+        }
+        for (Long id : incomingIds) {
+            if (!existing.containsKey(id)) {
+                throw new RuntimeException("Module " + id + " does not belong to course " + course.getId());
             }
+        }
 
-            // Save new modules
-            for (ModuleDTO moduleDTO : courseDto.getModules()) {
-                Module module = new Module();
+        for (int position = 0; position < incoming.size(); position++) {
+            ModuleDTO moduleDTO = incoming.get(position);
+            Module module;
+            if (moduleDTO.getId() == null) {
+                module = new Module();
                 module.setModuleName(moduleDTO.getModuleName());
+                module.setPosition(position);
                 module.setCourse(course);
-                module = moduleRepository.save(module);
-
-                for (VideoDTO videoDTO : moduleDTO.getVideos()) {
-                    Video video = new Video();
-                    video.setFilename(videoDTO.getFilename());
-                    video.setURL(videoDTO.getURL());
-                    video.setCloudProvider(cloudUrlProcessorService.detectCloudProvider(videoDTO.getURL()));
-                    video.setModule(module);
-                    videoRepository.save(video);
+                module.setVideos(new ArrayList<>());
+                module.setDocuments(new ArrayList<>());
+                course.getModules().add(module);
+                diff.inserted++;
+            } else {
+                module = existing.get(moduleDTO.getId());
+                if (!Objects.equals(module.getModuleName(), moduleDTO.getModuleName())
+                        || !Objects.equals(module.getPosition(), position)) {
+                    module.setModuleName(moduleDTO.getModuleName());
+                    module.setPosition(position);
+                    diff.updated++;
                 }
+            }
 
-                for (DocumentDTO documentDTO : moduleDTO.getDocuments()) {
-                    Document document = new Document();
-                    document.setFilename(documentDTO.getFilename());
-                    document.setURL(documentDTO.getURL());
-                    document.setCloudProvider(cloudUrlProcessorService.detectCloudProvider(documentDTO.getURL()));
-                    document.setModule(module);
-                    documentRepository.save(document);
-                }
+            if (moduleDTO.getVideos() != null) {
+                applyVideoDiff(module, moduleDTO.getVideos(), diff);
+            }
+            if (moduleDTO.getDocuments() != null) {
+                applyDocumentDiff(module, moduleDTO.getDocuments(), diff);
             }
         }
+    }
 
-        course = courseRepository.save(course);
-        log.info("Instructor {} updated course {}", instructorId, courseId);
-        return conversion.toResponseDto(course);
+    /**
+     * Deletes the stored modules missing from the incoming tree with bulk statements
+     * ({@link CourseContentService#deleteModules}) and returns the course loaded again.
+     */
+    private Course deleteMissingModules(Course course, List<ModuleDTO> incoming, ContentDiff diff) {
+        Set<Long> keepIds = incoming.stream().map(ModuleDTO::getId).filter(Objects::nonNull).collect(Collectors.toSet());
+        List<Long> missing = course.getModules().stream().map(Module::getId).filter(id -> !keepIds.contains(id)).toList();
+        if (missing.isEmpty()) {
+            return course;
+        }
+        courseContentService.deleteModules(missing);
+        diff.deleted += missing.size();
+        return courseRepository.findByIdAndDeletedFalse(course.getId())
+                .orElseThrow(() -> new RuntimeException("Course not found"));
+    }
+
+    private void applyVideoDiff(Module module, List<VideoDTO> incoming, ContentDiff diff) {
+        Set<Long> incomingIds = incoming.stream().map(VideoDTO::getId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, Video> existing = new HashMap<>();
+        for (Video video : module.getVideos()) {
+            existing.put(video.getId(), video);
+        }
+        for (Long id : incomingIds) {
+            if (!existing.containsKey(id)) {
+                throw new RuntimeException("Video " + id + " does not belong to module " + module.getId());
+            }
+        }
+
+        diff.deleted += removeMissing(module.getVideos(), Video::getId, incomingIds);
+
+        for (int position = 0; position < incoming.size(); position++) {
+            VideoDTO videoDTO = incoming.get(position);
+            if (videoDTO.getId() == null) {
+                Video video = new Video();
+                video.setFilename(videoDTO.getFilename());
+                video.setURL(videoDTO.getURL());
+                video.setCloudProvider(cloudUrlProcessorService.detectCloudProvider(videoDTO.getURL()));
+                video.setDescription(videoDTO.getDescription());
+                video.setPosition(position);
+                video.setModule(module);
+                module.getVideos().add(video);
+                diff.inserted++;
+                continue;
+            }
+
+            Video video = existing.get(videoDTO.getId());
+            boolean changed = false;
+            if (!Objects.equals(video.getFilename(), videoDTO.getFilename())) {
+                video.setFilename(videoDTO.getFilename());
+                changed = true;
+            }
+            if (!Objects.equals(video.getURL(), videoDTO.getURL())) {
+                video.setURL(videoDTO.getURL());
+                video.setCloudProvider(cloudUrlProcessorService.detectCloudProvider(videoDTO.getURL()));
+                changed = true;
+            }
+            if (!Objects.equals(video.getDescription(), videoDTO.getDescription())) {
+                video.setDescription(videoDTO.getDescription());
+                changed = true;
+            }
+            if (!Objects.equals(video.getPosition(), position)) {
+                video.setPosition(position);
+                changed = true;
+            }
+            if (changed) {
+                diff.updated++;
+            }
+        }
+    }
+
+    private void applyDocumentDiff(Module module, List<DocumentDTO> incoming, ContentDiff diff) {
+        Set<Long> incomingIds = incoming.stream().map(DocumentDTO::getId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, Document> existing = new HashMap<>();
+        for (Document document : module.getDocuments()) {
+            existing.put(document.getId(), document);
+        }
+        for (Long id : incomingIds) {
+            if (!existing.containsKey(id)) {
+                throw new RuntimeException("Document " + id + " does not belong to module " + module.getId());
+            }
+        }
+
+        diff.deleted += removeMissing(module.getDocuments(), Document::getId, incomingIds);
+
+        for (int position = 0; position < incoming.size(); position++) {
+            DocumentDTO documentDTO = incoming.get(position);
+            if (documentDTO.getId() == null) {
+                Document document = new Document();
+                document.setFilename(documentDTO.getFilename());
+                document.setURL(documentDTO.getURL());
+                document.setCloudProvider(cloudUrlProcessorService.detectCloudProvider(documentDTO.getURL()));
+                document.setPosition(position);
+                document.setModule(module);
+                module.getDocuments().add(document);
+                diff.inserted++;
+                continue;
+            }
+
+            Document document = existing.get(documentDTO.getId());
+            boolean changed = false;
+            if (!Objects.equals(document.getFilename(), documentDTO.getFilename())) {
+                document.setFilename(documentDTO.getFilename());
+                changed = true;
+            }
+            if (!Objects.equals(document.getURL(), documentDTO.getURL())) {
+                document.setURL(documentDTO.getURL());
+                document.setCloudProvider(cloudUrlProcessorService.detectCloudProvider(documentDTO.getURL()));
+                changed = true;
+            }
+            if (!Objects.equals(document.getPosition(), position)) {
+                document.setPosition(position);
+                changed = true;
+            }
+            if (changed) {
+                diff.updated++;
+            }
+        }
     }
 
     /**
-     * Deletes a course by its ID if it exists.
+     * Removes stored entries whose ids are not in the request and returns how many were removed.
+     */
+    private static <T> int removeMissing(List<T> stored, Function<T, Long> idOf, Set<Long> keepIds) {
+        int before = stored.size();
+        stored.removeIf(entry -> !keepIds.contains(idOf.apply(entry)));
+        return before - stored.size();
+    }
+
+    /**
+     * Soft-deletes a course: it disappears from every read path immediately and its
+     * feedback, enrollments and content are purged in the background by {@link CoursePurgeService}.
      */
     @Transactional
     public void deleteCourse(Long courseId, Long userId, boolean isAdmin) {
-        Course course = courseRepository.findById(courseId)
+        Course course = courseRepository.findByIdAndDeletedFalse(courseId)
                 .orElseThrow(() -> new RuntimeException("Course not found"));
 
         // Admins can delete any course; instructors can delete only their own
@@ -181,33 +464,85 @@ public class CourseService {
         }
 
         log.info("{} is deleting course {}", isAdmin ? "Admin" : "Instructor", courseId);
-        courseRepository.deleteById(courseId);
+        course.setDeleted(true);
+        course.setDeletedAt(LocalDateTime.now());
+        coursePurgeService.schedule(course, userId);
+        courseManifestService.delete(courseId);
+        eventPublisher.publishEvent(new CourseChangedEvent(courseId, CourseChangedEvent.Change.DELETED));
     }
 
     /**
-     * Retrieves a list of students enrolled in a specific course.
+     * Returns the progress of a course deletion.
      */
-    public List<UserResponseDTO> getEnrolledStudents(Long courseId, Long instructorId) {
-        // 1. Check if course exists
-        Course course = courseRepository.findById(courseId)
+    public CoursePurgeJob getDeletionStatus(Long courseId, Long userId, boolean isAdmin) {
+        CoursePurgeJob job = coursePurgeService.getJob(courseId);
+        if (!isAdmin && !job.getInstructorId().equals(userId)) {
+            throw new AccessDeniedException("You are not the owner of this course");
+        }
+        return job;
+    }
+
+    /**
+     * Retrieves one page of the students enrolled in a course, optionally filtered by name.
+     * Pages are keyed by the last enrollment id of the previous page ({@code afterId}).
+     */
+    public List<EnrolledStudentDTO> getEnrolledStudents(Long courseId, Long userId, boolean isAdmin,
+                                                        String name, Long afterId, int size) {
+        Course course = courseRepository.findByIdAndDeletedFalse(courseId)
                 .orElseThrow(() -> new RuntimeException("Course not found"));
 
-        // 2. Check if the instructor is the course owner
-        if (!course.getInstructorId().equals(instructorId)) {
+        if (!isAdmin && !course.getInstructorId().equals(userId)) {
             throw new AccessDeniedException("You are not the owner of this course");
         }
 
-        // 3. Get enrollments for the course
-        List<Enrollment> enrollments = course.getEnrollmentList();
+        String nameFilter = name == null || name.isBlank() ? null : name.trim();
+        return enrollmentRepository.findEnrolledStudents(courseId, afterId == null ? 0L : afterId, nameFilter,
+                PageRequest.of(0, size));
+    }
 
-        // 4. Map each enrollment to a UserDto
-        List<UserResponseDTO> enrolledStudents = new ArrayList<>();
-        for (Enrollment enrollment : enrollments) {
-            User student = utility.getUserById(enrollment.getStudentId());
-            enrolledStudents.add(conversion.toResponseDto(student));
+    /**
+     * Returns the number of students enrolled in a course, read from the counter that enrollment
+     * writes maintain, so no enrollment or user rows are loaded.
+     */
+    public long countEnrolledStudents(Long courseId, Long userId, boolean isAdmin) {
+        CourseRepository.EnrollmentCountView course = courseRepository.findEnrollmentCountById(courseId)
+                .orElseThrow(() -> new RuntimeException("Course not found"));
+        if (!isAdmin && !course.getInstructorId().equals(userId)) {
+            throw new AccessDeniedException("You are not the owner of this course");
         }
+        return course.getEnrollmentCount();
+    }
 
-        return enrolledStudents;
+    /**
+     * Writes all students of a course as CSV, reading them in keyset pages so memory stays flat.
+     */
+    public void exportEnrolledStudents(Long courseId, Writer out) throws IOException {
+        out.write("student_id,name,email,enrolled_at,completed_at,status\n");
+        long afterId = 0;
+        List<EnrolledStudentDTO> page;
+        do {
+            page = enrollmentRepository.findEnrolledStudents(courseId, afterId, null, PageRequest.of(0, EXPORT_PAGE_SIZE));
+            for (EnrolledStudentDTO student : page) {
+                out.write(student.getStudentId() + "," + csv(student.getName()) + "," + csv(student.getEmail()) + ","
+                        + student.getEnrolledAt() + "," + (student.getCompletedAt() == null ? "" : student.getCompletedAt()) + ","
+                        + student.getStatus() + "\n");
+                afterId = student.getEnrollmentId();
+            }
+            out.flush();
+        } while (page.size() == EXPORT_PAGE_SIZE);
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value; // keep spreadsheets from evaluating the cell as a formula
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
     }
 
     /**
@@ -215,42 +550,77 @@ public class CourseService {
      */
     public CourseContentResponseDTO getCourseContent(Long courseId, Long studentId) {
         // 1. Validate enrollment
-        utility.validateEnrollment(studentId, courseId);
-
-        // 2. Fetch the course
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new RuntimeException("Course not found with ID: " + courseId));
+        utility.checkEnrollment(studentId, courseId);
 
-        // 3. Log access
+        // 2. Log access
         log.info("Returning course content for course ID {} to student ID {}", courseId, studentId);
 
-        // 4. Convert course + modules to CourseContentResponseDTO
-        return conversion.toCourseContentResponseDTO(course); // new method you’ll define
+        // 3. Serve the pre-built manifest (single primary-key read)
+        return courseManifestService.read(courseId);
     }
     /**
-     * Searches for courses by title or description.
+     * Searches the text of a course's documents for enrolled students, returning page-level hits.
      */
-    public List<BasicCourseDetailsResponse> searchCourses(String query) {
-        List<Course> courses = courseRepository.searchCoursesByTitleOrDescription(query);
-        log.info("Found {} courses matching search query '{}'", courses.size(), query);
-        return courses.stream().map(conversion::toBasicCourseDto).toList();
+    public List<DocumentSearchHitDTO> searchCourseDocuments(Long courseId, Long studentId, String query, int limit) {
+        utility.checkEnrollment(studentId, courseId);
+        return documentSearchService.search(courseId, query, limit);
+    }
+
+    /**
+     * Searches for courses by title or description, ranked by relevance.
+     * In fuzzy mode titles are matched with up to {@code maxEdits} typos per word.
+     */
+    public Page<BasicCourseDetailsResponse> searchCourses(String query, boolean fuzzy, int maxEdits, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        if (!courseSearchService.isReady()) {
+            // Index still building right after startup: fall back to the database scan
+            List<Course> courses = courseRepository.searchCoursesByTitleOrDescription(query);
+            List<BasicCourseDetailsResponse> content = courses.stream()
+                    .skip(pageable.getOffset()).limit(size)
+                    .map(conversion::toBasicCourseDto).toList();
+            return new PageImpl<>(content, pageable, courses.size());
+        }
+
+        SearchHits hits = fuzzy
+                ? courseSearchService.searchFuzzy(query, maxEdits, page, size)
+                : courseSearchService.search(query, page, size);
+        List<BasicCourseDetailsResponse> content = coursesForStudent(hits.hits().stream().map(SearchHits.Hit::docId).toList());
+        log.info("Found {} courses matching search query '{}'", hits.total(), query);
+        return new PageImpl<>(content, pageable, hits.total());
     }
 
     /**
      * Retrieves the most popular courses based on enrollment count.
      */
     public List<BasicCourseDetailsResponse> getPopularCourses(int limit) {
-        Pageable pageable = PageRequest.of(0, limit);
-        List<Course> popularCourses = enrollmentRepository.findMostPopularCourses(pageable);
-        log.info("Fetched top {} popular courses", popularCourses.size());
-        return popularCourses.stream().map(conversion::toBasicCourseDto).toList();
+        List<Long> courseIds = popularCourseService.topCourseIds(limit);
+        log.info("Fetched top {} popular courses", courseIds.size());
+        return coursesForStudent(courseIds);
+    }
+
+    /**
+     * Retrieves courses that students of the given course also enrolled in, most similar first.
+     */
+    public List<BasicCourseDetailsResponse> getRelatedCourses(Long courseId, int limit) {
+        getCourseForStudent(courseId); // 404-style error for unknown or deleted courses
+        return coursesForStudent(courseRecommendationService.related(courseId, limit).stream()
+                .map(CoEnrollmentMatrix.Related::courseId).toList());
+    }
+
+    /**
+     * Retrieves the courses with the most recent activity, newest activity weighing most.
+     */
+    public List<BasicCourseDetailsResponse> getTrendingCourses(int limit) {
+        List<Long> courseIds = trendingCourseService.topCourseIds(limit);
+        log.info("Fetched top {} trending courses", courseIds.size());
+        return coursesForStudent(courseIds);
     }
 
     /**
      * Retrieves a course entity by its ID. Used as helper method in other services.
      */
     public Course getCourseEntityById(Long id) {
-        return courseRepository.findById(id)
+        return courseRepository.findByIdAndDeletedFalse(id)
                 .orElseThrow(() -> new RuntimeException("Course not found with ID: " + id));
     }
 
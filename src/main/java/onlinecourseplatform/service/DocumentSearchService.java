@@ -0,0 +1,182 @@
+package onlinecourseplatform.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import onlinecourseplatform.dto.responseDTOs.DocumentSearchHitDTO;
+import onlinecourseplatform.search.InvertedIndex;
+import onlinecourseplatform.search.SearchHits;
+import onlinecourseplatform.search.TextAnalyzer;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-course search over extracted document text. Keeps one BM25 index of pages per course in memory
+ * and follows the {@code document_text_index} table written by {@link DocumentTextIndexer}, so every
+ * node picks up pages extracted anywhere in the cluster. Page text itself stays in the database and is
+ * only read back to build snippets for the returned hits.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DocumentSearchService {
+
+    private static final int SNIPPET_RADIUS = 80;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, InvertedIndex> courseIndexes = new ConcurrentHashMap<>();
+    private final Map<Long, PageRef> pages = new ConcurrentHashMap<>();
+    private final Map<Long, IndexedDocument> documents = new ConcurrentHashMap<>();
+    private volatile long lastRevision = -1; // highest document_text_index.revision loaded, -1 before the first run
+
+    private record PageRef(long documentId, long moduleId, int pageNumber) {
+    }
+
+    private record IndexedDocument(long courseId, List<Long> pageIds) {
+    }
+
+    private record StoredPage(long id, long moduleId, int pageNumber, String text) {
+    }
+
+    /**
+     * Loads documents (re)indexed since the last run and drops documents that no longer have text.
+     * The first run after startup loads everything.
+     */
+    @Scheduled(fixedDelayString = "${documents.text-index.refresh-ms:10000}")
+    public void refresh() {
+        try {
+            // Revisions commit in increasing order (see DocumentTextIndexer), so nothing below the last one seen can appear later
+            List<long[]> changed = lastRevision < 0
+                    ? jdbcTemplate.query("SELECT document_id, course_id, COALESCE(revision, 0) FROM document_text_index WHERE page_count > 0",
+                    (rs, i) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)})
+                    : jdbcTemplate.query("SELECT document_id, course_id, revision FROM document_text_index WHERE revision > ? ORDER BY revision",
+                    (rs, i) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)}, lastRevision);
+            long seen = Math.max(lastRevision, 0);
+            for (long[] row : changed) {
+                load(row[0], row[1]);
+                seen = Math.max(seen, row[2]);
+            }
+            lastRevision = seen;
+
+            Set<Long> live = new HashSet<>(jdbcTemplate.queryForList(
+                    "SELECT document_id FROM document_text_index WHERE page_count > 0", Long.class));
+            for (Long documentId : documents.keySet()) {
+                if (!live.contains(documentId)) {
+                    unload(documentId);
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Document text index refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private void load(Long documentId, Long courseId) {
+        List<StoredPage> stored = jdbcTemplate.query(
+                "SELECT id, module_id, page_number, text FROM document_pages WHERE document_id = ?",
+                (rs, i) -> new StoredPage(rs.getLong(1), rs.getLong(2), rs.getInt(3), rs.getString(4)), documentId);
+        unload(documentId);
+        if (stored.isEmpty()) {
+            return;
+        }
+        InvertedIndex index = courseIndexes.computeIfAbsent(courseId, id -> new InvertedIndex(1.0f));
+        List<Long> pageIds = new ArrayList<>(stored.size());
+        for (StoredPage page : stored) {
+            index.put(page.id(), page.text());
+            pages.put(page.id(), new PageRef(documentId, page.moduleId(), page.pageNumber()));
+            pageIds.add(page.id());
+        }
+        documents.put(documentId, new IndexedDocument(courseId, pageIds));
+    }
+
+    private void unload(Long documentId) {
+        IndexedDocument document = documents.remove(documentId);
+        if (document == null) {
+            return;
+        }
+        InvertedIndex index = courseIndexes.get(document.courseId());
+        for (Long pageId : document.pageIds()) {
+            pages.remove(pageId);
+            if (index != null) {
+                index.remove(pageId);
+            }
+        }
+        if (index != null && index.size() == 0) {
+            courseIndexes.remove(document.courseId());
+        }
+    }
+
+    /**
+     * Returns the best matching pages of a course's documents, with a text snippet around the match.
+     */
+    public List<DocumentSearchHitDTO> search(Long courseId, String query, int limit) {
+        InvertedIndex index = courseIndexes.get(courseId);
+        if (index == null) {
+            return List.of();
+        }
+        SearchHits hits = index.search(query, 0, limit);
+        if (hits.hits().isEmpty()) {
+            return List.of();
+        }
+
+        // Snippets and file names come from the database; the join also skips documents deleted meanwhile
+        List<Long> pageIds = hits.hits().stream().map(SearchHits.Hit::docId).toList();
+        String placeholders = String.join(",", Collections.nCopies(pageIds.size(), "?"));
+        Map<Long, String[]> details = new HashMap<>();
+        jdbcTemplate.query("SELECT p.id, p.text, d.document_filename FROM document_pages p JOIN document d ON d.id = p.document_id "
+                        + "WHERE p.id IN (" + placeholders + ")",
+                rs -> {
+                    details.put(rs.getLong(1), new String[]{rs.getString(2), rs.getString(3)});
+                }, pageIds.toArray());
+
+        List<String> terms = TextAnalyzer.analyze(query);
+        List<DocumentSearchHitDTO> results = new ArrayList<>();
+        for (SearchHits.Hit hit : hits.hits()) {
+            PageRef page = pages.get(hit.docId());
+            String[] detail = details.get(hit.docId());
+            if (page == null || detail == null) {
+                continue;
+            }
+            results.add(DocumentSearchHitDTO.builder()
+                    .documentId(page.documentId())
+                    .moduleId(page.moduleId())
+                    .filename(detail[1])
+                    .page(page.pageNumber())
+                    .score(hit.score())
+                    .snippet(snippet(detail[0], terms))
+                    .build());
+        }
+        return results;
+    }
+
+    /**
+     * Cuts a window of text around the first occurrence of a query term (matched on its stem).
+     */
+    private static String snippet(String text, List<String> terms) {
+        if (text == null) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int at = -1;
+        for (String term : terms) {
+            int found = lower.indexOf(term);
+            if (found >= 0 && (at < 0 || found < at)) {
+                at = found;
+            }
+        }
+        int start = Math.max(0, (at < 0 ? 0 : at) - SNIPPET_RADIUS);
+        int end = Math.min(text.length(), (at < 0 ? 0 : at) + SNIPPET_RADIUS);
+        return (start > 0 ? "..." : "") + text.substring(start, end).replaceAll("\\s+", " ").trim() + (end < text.length() ? "..." : "");
+    }
+}
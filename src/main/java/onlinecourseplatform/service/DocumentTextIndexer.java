@@ -0,0 +1,295 @@
+package onlinecourseplatform.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import onlinecourseplatform.entity.TextIndexStatus;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background pipeline that extracts page text from course PDFs. A scheduled scan finds documents
+ * that are new, whose URL changed or whose last check is older than the recheck interval, and hands
+ * them to a bounded worker pool. Workers download through the cloud URL resolution with a conditional
+ * request, so unchanged content (same ETag) is never extracted again. A lease on the status row keeps
+ * two nodes from processing the same document.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DocumentTextIndexer {
+
+    private static final byte[] PDF_MAGIC = "%PDF".getBytes(StandardCharsets.US_ASCII);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RestTemplate restTemplate;
+    private final CloudUrlProcessorService cloudUrlProcessorService;
+
+    @Value("${documents.text-index.workers:2}")
+    private int workers;
+
+    @Value("${documents.text-index.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${documents.text-index.recheck-hours:24}")
+    private long recheckHours;
+
+    @Value("${documents.text-index.lease-seconds:600}")
+    private long leaseSeconds;
+
+    @Value("${documents.text-index.max-bytes:52428800}")
+    private int maxBytes;
+
+    @Value("${documents.text-index.max-pages:500}")
+    private int maxPages;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private ThreadPoolExecutor executor;
+
+    private record Candidate(Long documentId, Long moduleId, Long courseId, String url, String sourceUrl, String etag) {
+    }
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "document-text-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues documents that need (re)indexing while the worker queue has room; the rest wait for the next scan.
+     */
+    @Scheduled(fixedDelayString = "${documents.text-index.scan-ms:30000}")
+    public void scan() {
+        int room = executor.getQueue().remainingCapacity();
+        if (room == 0) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Candidate> candidates = jdbcTemplate.query(
+                "SELECT d.id, d.module_id, m.course_id, d.document_url, s.source_url, s.etag "
+                        + "FROM document d JOIN module m ON m.id = d.module_id "
+                        + "JOIN courses c ON c.id = m.course_id AND c.deleted = false "
+                        + "LEFT JOIN document_text_index s ON s.document_id = d.id "
+                        + "WHERE d.document_url IS NOT NULL "
+                        + "AND (s.document_id IS NULL OR NOT (s.source_url <=> d.document_url) OR s.checked_at IS NULL OR s.checked_at < ?) "
+                        + "AND (s.locked_until IS NULL OR s.locked_until < ?) "
+                        + "LIMIT ?",
+                (rs, i) -> new Candidate(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getString(4), rs.getString(5), rs.getString(6)),
+                Timestamp.valueOf(now.minusHours(recheckHours)), Timestamp.valueOf(now), room);
+
+        for (Candidate candidate : candidates) {
+            if (!claim(candidate, now)) {
+                continue;
+            }
+            try {
+                executor.execute(() -> process(candidate));
+            } catch (RejectedExecutionException e) {
+                release(candidate.documentId());
+                break;
+            }
+        }
+        removeOrphans();
+    }
+
+    /**
+     * Creates the status row if needed and takes the lease; fails if another node holds it.
+     */
+    private boolean claim(Candidate candidate, LocalDateTime now) {
+        jdbcTemplate.update("INSERT IGNORE INTO document_text_index (document_id, course_id, status, page_count) VALUES (?, ?, ?, 0)",
+                candidate.documentId(), candidate.courseId(), TextIndexStatus.PENDING.name());
+        return jdbcTemplate.update("UPDATE document_text_index SET locked_by = ?, locked_until = ? "
+                        + "WHERE document_id = ? AND (locked_until IS NULL OR locked_until < ?)",
+                nodeId, Timestamp.valueOf(now.plusSeconds(leaseSeconds)), candidate.documentId(), Timestamp.valueOf(now)) == 1;
+    }
+
+    private void release(Long documentId) {
+        jdbcTemplate.update("UPDATE document_text_index SET locked_by = NULL, locked_until = NULL WHERE document_id = ? AND locked_by = ?",
+                documentId, nodeId);
+    }
+
+    private void process(Candidate candidate) {
+        boolean sameSource = Objects.equals(candidate.url(), candidate.sourceUrl());
+        try {
+            Download download = download(cloudUrlProcessorService.getDirectDownloadUrl(candidate.url()),
+                    sameSource ? candidate.etag() : null);
+            if (download.notModified() || (sameSource && Objects.equals(download.etag(), candidate.etag()))) {
+                markChecked(candidate.documentId());
+                return;
+            }
+            if (!isPdf(download.body())) {
+                finish(candidate, download.etag(), TextIndexStatus.UNSUPPORTED, List.of(), null);
+                return;
+            }
+            List<String> pages = extractPages(download.body());
+            finish(candidate, download.etag(), TextIndexStatus.INDEXED, pages, null);
+            log.info("Indexed {} pages of document {} (course {})", pages.size(), candidate.documentId(), candidate.courseId());
+        } catch (RestClientException | IOException e) {
+            log.warn("Text extraction failed for document {}: {}", candidate.documentId(), e.getMessage());
+            finish(candidate, candidate.etag(), TextIndexStatus.FAILED, null, e.getMessage());
+        } catch (DataAccessException e) {
+            log.error("Could not store extracted text of document {}: {}", candidate.documentId(), e.getMessage());
+            release(candidate.documentId());
+        }
+    }
+
+    private record Download(boolean notModified, String etag, byte[] body) {
+    }
+
+    /**
+     * Conditional GET (If-None-Match) that reads at most max-bytes; documents without an ETag
+     * are identified by a hash of their content.
+     */
+    private Download download(String url, String knownEtag) {
+        return restTemplate.execute(url, HttpMethod.GET,
+                request -> {
+                    request.getHeaders().set(HttpHeaders.USER_AGENT, "Mozilla/5.0");
+                    if (knownEtag != null && !knownEtag.startsWith("sha256:")) {
+                        request.getHeaders().setIfNoneMatch(knownEtag);
+                    }
+                },
+                response -> {
+                    if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                        return new Download(true, knownEtag, null);
+                    }
+                    byte[] body = readLimited(response.getBody());
+                    String etag = response.getHeaders().getETag();
+                    return new Download(false, etag != null ? etag : "sha256:" + sha256(body), body);
+                });
+    }
+
+    private byte[] readLimited(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (out.size() + read > maxBytes) {
+                throw new IOException("Document exceeds " + maxBytes + " bytes");
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean isPdf(byte[] body) {
+        return body.length >= PDF_MAGIC.length && Arrays.equals(body, 0, PDF_MAGIC.length, PDF_MAGIC, 0, PDF_MAGIC.length);
+    }
+
+    private List<String> extractPages(byte[] pdf) throws IOException {
+        List<String> pages = new ArrayList<>();
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            int pageCount = Math.min(document.getNumberOfPages(), maxPages);
+            for (int page = 1; page <= pageCount; page++) {
+                stripper.setStartPage(page);
+                stripper.setEndPage(page);
+                pages.add(stripper.getText(document));
+            }
+        }
+        return pages;
+    }
+
+    private void markChecked(Long documentId) {
+        jdbcTemplate.update("UPDATE document_text_index SET checked_at = ?, locked_by = NULL, locked_until = NULL WHERE document_id = ?",
+                Timestamp.valueOf(LocalDateTime.now()), documentId);
+    }
+
+    /**
+     * Takes the next revision for changed pages. The counter row stays locked until the surrounding
+     * transaction commits, so readers following {@code revision > last seen} never skip a document.
+     */
+    private long nextRevision() {
+        jdbcTemplate.update("INSERT INTO document_text_revision (id, revision) VALUES (1, LAST_INSERT_ID(1)) "
+                + "ON DUPLICATE KEY UPDATE revision = LAST_INSERT_ID(revision + 1)");
+        return jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+    }
+
+    /**
+     * Replaces the stored pages (when given) and records the outcome in one transaction.
+     */
+    private void finish(Candidate candidate, String etag, TextIndexStatus status, List<String> pages, String error) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            if (pages != null) {
+                jdbcTemplate.update("DELETE FROM document_pages WHERE document_id = ?", candidate.documentId());
+                List<Object[]> rows = new ArrayList<>(pages.size());
+                for (int i = 0; i < pages.size(); i++) {
+                    rows.add(new Object[]{candidate.documentId(), candidate.moduleId(), candidate.courseId(), i + 1, pages.get(i)});
+                }
+                jdbcTemplate.batchUpdate("INSERT INTO document_pages (document_id, module_id, course_id, page_number, text) VALUES (?, ?, ?, ?, ?)", rows);
+            }
+            Long revision = pages == null ? null : nextRevision();
+            jdbcTemplate.update("UPDATE document_text_index SET course_id = ?, source_url = ?, etag = ?, status = ?, "
+                            + "page_count = COALESCE(?, page_count), error = ?, checked_at = ?, "
+                            + "indexed_at = CASE WHEN ? THEN ? ELSE indexed_at END, revision = COALESCE(?, revision), "
+                            + "locked_by = NULL, locked_until = NULL WHERE document_id = ?",
+                    candidate.courseId(), candidate.url(), etag, status.name(),
+                    pages == null ? null : pages.size(), error == null ? null : error.substring(0, Math.min(error.length(), 500)), now,
+                    pages != null, now, revision, candidate.documentId());
+        });
+    }
+
+    /**
+     * Drops extracted text of documents that were removed from their module.
+     */
+    private void removeOrphans() {
+        int pages = jdbcTemplate.update("DELETE FROM document_pages WHERE document_id NOT IN (SELECT id FROM document) LIMIT 1000");
+        int entries = jdbcTemplate.update("DELETE FROM document_text_index WHERE document_id NOT IN (SELECT id FROM document) LIMIT 1000");
+        if (pages + entries > 0) {
+            log.debug("Removed {} pages and {} index entries of deleted documents", pages, entries);
+        }
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package onlinecourseplatform.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import onlinecourseplatform.enrollment.EnrollmentBitmapIndex;
+import onlinecourseplatform.enrollment.EnrollmentBitmapIndex.Membership;
+import onlinecourseplatform.entity.Status;
+import onlinecourseplatform.event.CourseChangedEvent;
+import onlinecourseplatform.event.EnrollmentChangedEvent;
+import onlinecourseplatform.event.EnrollmentCompletedEvent;
+import onlinecourseplatform.repository.EnrollmentRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Answers "is this student enrolled in this course" from an in-memory {@link EnrollmentBitmapIndex}.
+ * <p>
+ * The index is loaded by streaming the enrollments table once the application is ready and kept
+ * current from enrollment events; changes are broadcast over Redis pub/sub so other nodes apply them
+ * too. Enrollments found in the index are answered from memory. Anything else (not loaded yet, an id
+ * too large for the bitmaps, or a broadcast this node missed) is confirmed in the database, and a
+ * confirmed enrollment is added to the index. A scheduled job reloads the index and reports how far
+ * the running copy had drifted.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EnrollmentIndexService implements MessageListener {
+
+    public static final String CHANGES_CHANNEL = "ENROLLMENT:INDEX";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EnrollmentRepository enrollmentRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private volatile EnrollmentBitmapIndex index; // null until the first load completes
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private final Queue<Consumer<EnrollmentBitmapIndex>> changesDuringLoad = new ArrayDeque<>();
+
+    private enum Operation {
+        ADD,
+        REMOVE,
+        COMPLETE
+    }
+
+    public boolean isEnrolled(Long studentId, Long courseId) {
+        return membership(studentId, courseId) != Membership.NOT_ENROLLED;
+    }
+
+    /**
+     * Returns whether the student is enrolled in the course and whether they have completed it.
+     */
+    public Membership membership(Long studentId, Long courseId) {
+        EnrollmentBitmapIndex current = index;
+        if (current != null && EnrollmentBitmapIndex.indexable(studentId, courseId)) {
+            Membership membership = current.membership(courseId, studentId);
+            if (membership != Membership.NOT_ENROLLED) {
+                return membership;
+            }
+        }
+        Optional<Status> status = enrollmentRepository.findStatusByStudentIdAndCourseId(studentId, courseId);
+        if (status.isEmpty()) {
+            return Membership.NOT_ENROLLED;
+        }
+        boolean completed = status.get() == Status.COMPLETED;
+        if (EnrollmentBitmapIndex.indexable(studentId, courseId)) {
+            change(target -> target.add(courseId, studentId, completed));
+        }
+        return completed ? Membership.COMPLETED : Membership.ENROLLED;
+    }
+
+    /**
+     * Returns the ids of the student's courses, or null when the index cannot tell.
+     */
+    public long[] courseIdsOf(Long studentId) {
+        EnrollmentBitmapIndex current = index;
+        if (current == null || !EnrollmentBitmapIndex.indexable(studentId, 0)) {
+            return null;
+        }
+        return current.courseIdsOf(studentId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+    }
+
+    /**
+     * Consistency check: loads a fresh index from the database, logs how many entries the running
+     * index got wrong, and replaces it.
+     */
+    @Scheduled(cron = "${enrollment-index.verify-cron:0 15 * * * *}")
+    public void verify() {
+        reload();
+    }
+
+    private void reload() {
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            EnrollmentBitmapIndex fresh = new EnrollmentBitmapIndex();
+            scan(fresh);
+            fresh.optimize();
+            long differences;
+            synchronized (changesDuringLoad) {
+                Consumer<EnrollmentBitmapIndex> pending;
+                while ((pending = changesDuringLoad.poll()) != null) {
+                    pending.accept(fresh);
+                }
+                differences = index == null ? 0 : index.differences(fresh);
+                index = fresh;
+                loading.set(false);
+            }
+            if (differences > 0) {
+                log.warn("Enrollment index was off by {} entries, replaced with a fresh load", differences);
+            }
+            log.info("Loaded enrollment index with {} enrollments in {} ms", fresh.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (DataAccessException e) {
+            log.error("Enrollment index load failed: {}", e.getMessage());
+        } finally {
+            synchronized (changesDuringLoad) {
+                changesDuringLoad.clear();
+                loading.set(false);
+            }
+        }
+    }
+
+    /**
+     * Streams all enrollments of live courses row by row (MySQL streaming result set).
+     */
+    private void scan(EnrollmentBitmapIndex target) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT e.course_id, e.student_id, e.status FROM enrollments e JOIN courses c ON c.id = e.course_id AND c.deleted = false",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE);
+            return statement;
+        }, rs -> {
+            long courseId = rs.getLong(1);
+            long studentId = rs.getLong(2);
+            if (EnrollmentBitmapIndex.indexable(studentId, courseId)) {
+                target.add(courseId, studentId, Status.COMPLETED.name().equals(rs.getString(3)));
+            }
+        });
+    }
+
+    /**
+     * Applies a change to the index; during a load it is also queued for the new index.
+     */
+    private void change(Consumer<EnrollmentBitmapIndex> change) {
+        synchronized (changesDuringLoad) {
+            if (index != null) {
+                change.accept(index);
+            }
+            if (loading.get()) {
+                changesDuringLoad.add(change);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        Operation operation = event.getDelta() > 0 ? Operation.ADD : Operation.REMOVE;
+        apply(operation, event.getCourseId(), event.getStudentIds());
+        broadcast(operation, event.getCourseId(), event.getStudentIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentCompleted(EnrollmentCompletedEvent event) {
+        apply(Operation.COMPLETE, event.getCourseId(), List.of(event.getStudentId()));
+        broadcast(Operation.COMPLETE, event.getCourseId(), List.of(event.getStudentId()));
+    }
+
+    /**
+     * Drops a deleted course, whether it was deleted on this node or another one.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        if (event.getChange() == CourseChangedEvent.Change.DELETED) {
+            change(target -> target.removeCourse(event.getCourseId()));
+        }
+    }
+
+    private void apply(Operation operation, Long courseId, List<Long> studentIds) {
+        List<Long> indexable = studentIds.stream().filter(id -> EnrollmentBitmapIndex.indexable(id, courseId)).toList();
+        if (indexable.isEmpty()) {
+            return;
+        }
+        change(target -> indexable.forEach(studentId -> {
+            switch (operation) {
+                case ADD -> target.add(courseId, studentId, false);
+                case REMOVE -> target.remove(courseId, studentId);
+                case COMPLETE -> target.complete(courseId, studentId);
+            }
+        }));
+    }
+
+    private void broadcast(Operation operation, Long courseId, List<Long> studentIds) {
+        try {
+            redisTemplate.convertAndSend(CHANGES_CHANNEL, nodeId + "|" + operation + "|" + courseId + "|"
+                    + studentIds.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        } catch (DataAccessException e) {
+            log.warn("Failed to broadcast enrollment index change for course {}: {}", courseId, e.getMessage());
+        }
+    }
+
+    /**
+     * Applies changes broadcast by other nodes.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|");
+        if (parts.length != 4 || nodeId.equals(parts[0])) {
+            return;
+        }
+        List<Long> studentIds = Arrays.stream(parts[3].split(",")).map(Long::valueOf).toList();
+        apply(Operation.valueOf(parts[1]), Long.valueOf(parts[2]), studentIds);
+    }
+}
@@ -1,21 +1,39 @@
 package onlinecourseplatform.service;
 
 import onlinecourseplatform.dto.responseDTOs.BasicCourseDetailsResponse;
+import onlinecourseplatform.dto.responseDTOs.BulkEnrollmentItemDTO;
+import onlinecourseplatform.dto.responseDTOs.BulkEnrollmentResponse;
 import onlinecourseplatform.dto.responseDTOs.EnrollmentResponseDTO;
-import onlinecourseplatform.entity.Course;
 import onlinecourseplatform.entity.Enrollment;
-import onlinecourseplatform.entity.Status;
+import onlinecourseplatform.event.CourseActivityEvent;
+import onlinecourseplatform.event.EnrollmentChangedEvent;
 import onlinecourseplatform.repository.CourseRepository;
 import onlinecourseplatform.utility.Conversion;
 import onlinecourseplatform.utility.Utility;
 import lombok.extern.slf4j.Slf4j;
 import onlinecourseplatform.repository.EnrollmentRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Service class to manage course enrollments for students.
@@ -26,10 +44,17 @@ import java.util.List;
 @Slf4j
 public class EnrollmentService {
 
+    private static final int MAX_ENROLL_ATTEMPTS = 3;
+    public static final int MAX_BULK_ENROLLMENTS = 10_000;
+
     private final EnrollmentRepository enrollmentRepository;
     private final CourseRepository courseRepository;
     private final Conversion conversion;
     private final Utility utility;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final EnrollmentIndexService enrollmentIndexService;
 
     public List<EnrollmentResponseDTO> getAllEnrollments() {
         return enrollmentRepository.findAll()
@@ -46,39 +71,166 @@ public class EnrollmentService {
                 .stream().map(conversion::toBasicCourseDto).toList();
     }
 
-    @Transactional
-    public EnrollmentResponseDTO enroll(Long studentId, Long courseId) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new RuntimeException("Course not found with ID: " + courseId));
+    /**
+     * Result of an enrollment request; {@code created} is false when the student was already enrolled.
+     */
+    public record EnrollResult(EnrollmentResponseDTO enrollment, boolean created) {
+    }
+
+    /**
+     * Enrolls a student idempotently: repeated or concurrent requests return the one existing enrollment.
+     * The rare lock conflict between two concurrent first enrollments is retried.
+     */
+    public EnrollResult enroll(Long studentId, Long courseId) {
+        return inTransactionWithRetry(() -> enrollOnce(studentId, courseId),
+                "enrolling student " + studentId + " in course " + courseId);
+    }
 
-        if (enrollmentRepository.existsByStudentIdAndCourseId(studentId, courseId)) {
-            log.warn("Student {} is already enrolled in course {}", studentId, courseId);
-            throw new RuntimeException("Already enrolled in this course");
+    private <T> T inTransactionWithRetry(Supplier<T> work, String description) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(tx -> work.get());
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt == MAX_ENROLL_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Lock conflict {}, retrying", description);
+            }
         }
+    }
 
-        Enrollment enrollment = Enrollment.builder()
-                .studentId(studentId)
-                .course(course)
-                .price(course.getPrice())
-                .enrolledAt(LocalDateTime.now())
-                .status(Status.ACTIVE)
-                .build();
+    private EnrollResult enrollOnce(Long studentId, Long courseId) {
+        boolean created = enrollmentRepository.insertIfAbsent(studentId, courseId, LocalDateTime.now()) == 1;
+        Enrollment enrollment = enrollmentRepository.findByStudentIdAndCourseId(studentId, courseId);
+        if (enrollment == null) {
+            throw new RuntimeException("Course not found with ID: " + courseId);
+        }
+        if (!created) {
+            log.info("Student {} is already enrolled in course {}", studentId, courseId);
+            return new EnrollResult(conversion.toResponseDto(enrollment), false);
+        }
 
-        Enrollment saved = enrollmentRepository.save(enrollment);
+        courseRepository.adjustEnrollmentCount(courseId, 1);
+        eventPublisher.publishEvent(new EnrollmentChangedEvent(courseId, studentId, 1));
+        eventPublisher.publishEvent(new CourseActivityEvent(courseId, enrollment.getCourse().getInstructorId(),
+                CourseActivityEvent.Type.ENROLLMENT, 1, enrollment.getEnrolledAt()));
         log.info("Student {} enrolled in course {}", studentId, courseId);
-        return conversion.toResponseDto(saved);
+        return new EnrollResult(conversion.toResponseDto(enrollment), true);
+    }
+
+    private record BulkCourse(Long instructorId, BigDecimal price) {
+    }
+
+    private record BulkOutcome(Set<Long> liveCourseIds, Map<Long, Set<Long>> alreadyEnrolled) {
+    }
+
+    /**
+     * Enrolls every given student in every given course and reports the result per pair.
+     * Students and courses are each validated with one set-based query. In the transaction, a locking
+     * read returns the pairs that already exist and keeps concurrent enrollments of the other pairs
+     * waiting until commit, so those can be inserted in JDBC batches and all count as created; the
+     * unique key makes the insert a no-op should a duplicate slip through anyway.
+     */
+    public BulkEnrollmentResponse bulkEnroll(List<Long> studentIds, List<Long> courseIds) {
+        List<Long> students = studentIds.stream().filter(Objects::nonNull).distinct().toList();
+        List<Long> courses = courseIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (students.isEmpty() || courses.isEmpty()) {
+            throw new RuntimeException("Student and course ids are required");
+        }
+        if ((long) students.size() * courses.size() > MAX_BULK_ENROLLMENTS) {
+            throw new RuntimeException("At most " + MAX_BULK_ENROLLMENTS + " enrollments per request");
+        }
+        long start = System.nanoTime();
+
+        List<Long> validStudents = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE role = 'STUDENT' AND id IN (" + placeholders(students.size()) + ")",
+                Long.class, students.toArray());
+        BulkOutcome outcome = inTransactionWithRetry(() -> bulkEnrollOnce(validStudents, courses, LocalDateTime.now()),
+                "bulk enrolling " + students.size() + " students");
+
+        Set<Long> valid = new HashSet<>(validStudents);
+        List<BulkEnrollmentItemDTO> items = new ArrayList<>(students.size() * courses.size());
+        int[] counts = new int[BulkEnrollmentItemDTO.Result.values().length];
+        for (Long courseId : courses) {
+            Set<Long> existing = outcome.alreadyEnrolled().getOrDefault(courseId, Set.of());
+            for (Long studentId : students) {
+                BulkEnrollmentItemDTO.Result result;
+                if (!valid.contains(studentId)) {
+                    result = BulkEnrollmentItemDTO.Result.STUDENT_NOT_FOUND;
+                } else if (!outcome.liveCourseIds().contains(courseId)) {
+                    result = BulkEnrollmentItemDTO.Result.COURSE_NOT_FOUND;
+                } else if (existing.contains(studentId)) {
+                    result = BulkEnrollmentItemDTO.Result.ALREADY_ENROLLED;
+                } else {
+                    result = BulkEnrollmentItemDTO.Result.CREATED;
+                }
+                counts[result.ordinal()]++;
+                items.add(new BulkEnrollmentItemDTO(studentId, courseId, result));
+            }
+        }
+
+        int created = counts[BulkEnrollmentItemDTO.Result.CREATED.ordinal()];
+        int alreadyEnrolled = counts[BulkEnrollmentItemDTO.Result.ALREADY_ENROLLED.ordinal()];
+        log.info("Bulk enrollment: {} created, {} already enrolled, {} rejected in {} ms", created, alreadyEnrolled,
+                items.size() - created - alreadyEnrolled, (System.nanoTime() - start) / 1_000_000);
+        return BulkEnrollmentResponse.builder()
+                .created(created)
+                .alreadyEnrolled(alreadyEnrolled)
+                .rejected(items.size() - created - alreadyEnrolled)
+                .items(items)
+                .build();
+    }
+
+    private BulkOutcome bulkEnrollOnce(List<Long> students, List<Long> courses, LocalDateTime enrolledAt) {
+        // Shared locks keep the courses from being deleted before the enrollments commit
+        Map<Long, BulkCourse> live = new HashMap<>();
+        jdbcTemplate.query("SELECT id, instructor_id, price FROM courses WHERE deleted = false AND id IN ("
+                        + placeholders(courses.size()) + ") FOR SHARE",
+                rs -> {
+                    live.put(rs.getLong(1), new BulkCourse(rs.getLong(2), rs.getBigDecimal(3)));
+                }, courses.toArray());
+        if (students.isEmpty() || live.isEmpty()) {
+            return new BulkOutcome(live.keySet(), Map.of());
+        }
+
+        List<Long> liveCourses = courses.stream().filter(live::containsKey).toList();
+        Map<Long, Set<Long>> existing = new HashMap<>();
+        jdbcTemplate.query("SELECT student_id, course_id FROM enrollments WHERE student_id IN (" + placeholders(students.size())
+                        + ") AND course_id IN (" + placeholders(liveCourses.size()) + ") FOR UPDATE",
+                rs -> {
+                    existing.computeIfAbsent(rs.getLong(2), id -> new HashSet<>()).add(rs.getLong(1));
+                }, Stream.concat(students.stream(), liveCourses.stream()).toArray());
+
+        Timestamp timestamp = Timestamp.valueOf(enrolledAt);
+        Map<Long, List<Long>> created = new LinkedHashMap<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (Long courseId : liveCourses) {
+            Set<Long> enrolled = existing.getOrDefault(courseId, Set.of());
+            for (Long studentId : students) {
+                if (!enrolled.contains(studentId)) {
+                    rows.add(new Object[]{studentId, courseId, live.get(courseId).price(), timestamp});
+                    created.computeIfAbsent(courseId, id -> new ArrayList<>()).add(studentId);
+                }
+            }
+        }
+        // rewriteBatchedStatements turns the batch into multi-row inserts
+        jdbcTemplate.batchUpdate("INSERT INTO enrollments (student_id, course_id, price, enrolled_at, status) "
+                + "VALUES (?, ?, ?, ?, 'ACTIVE') ON DUPLICATE KEY UPDATE id = id", rows);
+
+        created.forEach((courseId, studentIds) -> {
+            courseRepository.adjustEnrollmentCount(courseId, studentIds.size());
+            eventPublisher.publishEvent(new EnrollmentChangedEvent(courseId, studentIds, studentIds.size()));
+            eventPublisher.publishEvent(new CourseActivityEvent(courseId, live.get(courseId).instructorId(),
+                    CourseActivityEvent.Type.ENROLLMENT, studentIds.size(), enrolledAt));
+        });
+        return new BulkOutcome(live.keySet(), existing);
     }
 
-    @Transactional
-    public void courseCompleted(Long studentId, Long courseId) {
-        Enrollment enrollment = utility.validateEnrollment(studentId, courseId);
-        enrollment.setCompletedAt(LocalDateTime.now());
-        enrollment.setStatus(Status.COMPLETED);
-        enrollmentRepository.save(enrollment);
-        log.info("Student {} completed course {}", studentId, courseId);
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
     }
 
     public boolean isEnrolled(Long studentId, Long courseId) {
-        return enrollmentRepository.existsByStudentIdAndCourseId(studentId, courseId);
+        return enrollmentIndexService.isEnrolled(studentId, courseId);
     }
 }
@@ -4,6 +4,8 @@ import onlinecourseplatform.dto.requestDTOs.FeedbackRequestDTO;
 import onlinecourseplatform.dto.responseDTOs.FeedbackResponseDTO;
 import onlinecourseplatform.entity.Course;
 import onlinecourseplatform.entity.Feedback;
+import onlinecourseplatform.event.CourseActivityEvent;
+import onlinecourseplatform.event.CourseChangedEvent;
 import onlinecourseplatform.repository.CourseRepository;
 import onlinecourseplatform.repository.FeedbackRepository;
 import onlinecourseplatform.utility.Conversion;
@@ -11,6 +13,7 @@ import onlinecourseplatform.utility.Utility;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -25,6 +28,7 @@ public class FeedbackServices {
     private final Conversion conversion;
     private final Utility utility;
     private final FeedbackRepository feedbackRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Get feedback by ID.
@@ -40,7 +44,7 @@ public class FeedbackServices {
      * Get all feedbacks for a course.
      */
     public List<FeedbackResponseDTO> getAllFeedbacks(Long id) {
-        Course course = courseRepository.findById(id)
+        Course course = courseRepository.findByIdAndDeletedFalse(id)
                 .orElseThrow(() -> new RuntimeException("Course not found with ID: " + id));
         log.info("Found {} feedbacks for course ID {}", course.getFeedbackList().size(), id);
         return course.getFeedbackList().stream()
@@ -52,7 +56,7 @@ public class FeedbackServices {
      * Submit feedback for a course.
      */
     public FeedbackResponseDTO setFeedback(Long courseId, Long studentId, @Valid FeedbackRequestDTO feedback) {
-        utility.validateEnrollment(studentId, courseId);
+        utility.checkEnrollment(studentId, courseId);
 
         boolean alreadySubmitted = feedbackRepository.existsByCourseIdAndStudentId(courseId, studentId);
         if (alreadySubmitted) {
@@ -60,7 +64,7 @@ public class FeedbackServices {
             throw new RuntimeException("You have already submitted feedback for this course.");
         }
 
-        Course course = courseRepository.findById(courseId)
+        Course course = courseRepository.findByIdAndDeletedFalse(courseId)
                 .orElseThrow(() -> new RuntimeException("Course not found with ID: " + courseId));
 
         Feedback newFeedback = Feedback.builder()
@@ -75,6 +79,9 @@ public class FeedbackServices {
         Feedback savedFeedback = feedbackRepository.save(newFeedback);
 
         log.info("Student {} submitted feedback for course {}", studentId, courseId);
+        eventPublisher.publishEvent(new CourseChangedEvent(courseId, CourseChangedEvent.Change.FEEDBACK));
+        eventPublisher.publishEvent(new CourseActivityEvent(courseId, course.getInstructorId(),
+                CourseActivityEvent.Type.RATING, savedFeedback.getRating(), savedFeedback.getCreatedAt()));
         return conversion.toResponseDto(savedFeedback);
     }
 }
@@ -9,11 +9,14 @@ import onlinecourseplatform.entity.Course;
 import onlinecourseplatform.entity.Payment;
 import onlinecourseplatform.entity.PaymentStatus;
 import onlinecourseplatform.entity.User;
+import onlinecourseplatform.event.CourseActivityEvent;
 import onlinecourseplatform.repository.CourseRepository;
 import onlinecourseplatform.repository.PaymentRepository;
 import onlinecourseplatform.repository.UserRepository;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -23,11 +26,13 @@ import java.util.*;
 @RequiredArgsConstructor
 public class PaymentService {
 
-    private PaymentRepository paymentRepository;
+    private final PaymentRepository paymentRepository;
 
-    private UserRepository userRepository;
+    private final UserRepository userRepository;
 
-    private CourseRepository courseRepository;
+    private final CourseRepository courseRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${razorpay.key}")
     private String razorpayKey;
@@ -71,7 +76,9 @@ public class PaymentService {
 
     public void savePayment(String orderId, String paymentId, String signature, Double amount, Long userId, Long courseId) {
         User user = userRepository.findById(userId).orElseThrow();
-        Course course = courseRepository.findById(courseId).orElseThrow();
+        // A captured payment is recorded even if the course was soft-deleted meanwhile,
+        // and without a course once the purge has removed the course row
+        Course course = courseRepository.findById(courseId).orElse(null);
 
         Payment payment = Payment.builder()
                 .orderId(orderId)
@@ -85,6 +92,18 @@ public class PaymentService {
                 .course(course)
                 .build();
 
-        paymentRepository.save(payment);
+        try {
+            paymentRepository.save(payment);
+        } catch (DataIntegrityViolationException e) {
+            // the purge deleted the course row between the lookup and the insert
+            payment.setCourse(null);
+            paymentRepository.save(payment);
+            course = null;
+        }
+        if (course == null) {
+            return;
+        }
+        eventPublisher.publishEvent(new CourseActivityEvent(courseId, course.getInstructorId(),
+                CourseActivityEvent.Type.PAYMENT, amount, payment.getPaymentDate()));
     }
 }
\ No newline at end of file
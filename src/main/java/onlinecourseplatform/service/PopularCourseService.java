@@ -0,0 +1,227 @@
+package onlinecourseplatform.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import onlinecourseplatform.event.CourseChangedEvent;
+import onlinecourseplatform.event.EnrollmentChangedEvent;
+import onlinecourseplatform.repository.CourseRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Ranked ids of the most enrolled courses. {@code courses.enrollment_count} is the source of truth and
+ * is mirrored into the Redis sorted set {@value #RANKING_KEY}, so the top k is a single ZREVRANGEBYSCORE
+ * instead of a GROUP BY over all enrollments. Lists are additionally cached per limit bucket and reloaded
+ * in the background. A scheduled reconciliation recounts from the enrollments table and rebuilds the set.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PopularCourseService {
+
+    private static final String RANKING_KEY = "POPULAR:COURSES";
+    private static final String RECONCILE_LOCK_KEY = "POPULAR:COURSES:RECONCILE";
+    private static final int REBUILD_BATCH = 1000;
+    // KEYS: rebuilt set, live set, snapshot of the live set taken before the counters were read.
+    // Adds the increments made since the snapshot to the rebuilt set and swaps it in, atomically.
+    private static final RedisScript<Long> SWAP_IN_REBUILD = new DefaultRedisScript<>(
+            "redis.call('ZUNIONSTORE', KEYS[1], 3, KEYS[1], KEYS[2], KEYS[3], 'WEIGHTS', 1, 1, -1) "
+                    + "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', 0) "
+                    + "redis.call('DEL', KEYS[3]) "
+                    + "if redis.call('EXISTS', KEYS[1]) == 1 then redis.call('RENAME', KEYS[1], KEYS[2]) else redis.call('DEL', KEYS[2]) end "
+                    + "return redis.call('ZCARD', KEYS[2])",
+            Long.class);
+    private static final int[] LIMIT_BUCKETS = {5, 10, 20, 50, 100};
+    public static final int MAX_LIMIT = LIMIT_BUCKETS[LIMIT_BUCKETS.length - 1];
+
+    private final CourseRepository courseRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${popular.cache.refresh-seconds:5}")
+    private long refreshSeconds;
+
+    @Value("${popular.cache.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    @Value("${popular.reconcile-lock-seconds:600}")
+    private long reconcileLockSeconds;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "popular-courses-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private LoadingCache<Integer, List<Long>> topCourseIds;
+
+    @PostConstruct
+    void init() {
+        topCourseIds = Caffeine.newBuilder()
+                .maximumSize(LIMIT_BUCKETS.length)
+                .refreshAfterWrite(Duration.ofSeconds(refreshSeconds))
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .executor(refreshExecutor)
+                .build(this::load);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Seeds the sorted set if Redis lost it and loads the home page ranking before the first request.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(RANKING_KEY))) {
+                rebuildRanking();
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not seed the popular courses ranking: {}", e.getMessage());
+        }
+        topCourseIds.refresh(LIMIT_BUCKETS[0]);
+    }
+
+    /**
+     * Returns the ids of the {@code limit} most enrolled courses, most enrolled first.
+     */
+    public List<Long> topCourseIds(int limit) {
+        List<Long> ids = topCourseIds.get(bucket(limit));
+        return ids.subList(0, Math.min(limit, ids.size()));
+    }
+
+    /**
+     * Mirrors a committed enrollment change into the sorted set; misses are repaired by reconciliation.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        try {
+            redisTemplate.opsForZSet().incrementScore(RANKING_KEY, event.getCourseId().toString(), event.getDelta());
+        } catch (DataAccessException e) {
+            log.warn("Failed to update popularity of course {}: {}", event.getCourseId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Drops a deleted course from the ranking right away; other course changes do not affect it.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        if (event.getChange() != CourseChangedEvent.Change.DELETED) {
+            return;
+        }
+        topCourseIds.asMap().replaceAll((bucket, ids) ->
+                ids.stream().filter(id -> !id.equals(event.getCourseId())).toList());
+        if (!event.isRemote()) {
+            try {
+                redisTemplate.opsForZSet().remove(RANKING_KEY, event.getCourseId().toString());
+            } catch (DataAccessException e) {
+                log.warn("Failed to remove course {} from the popularity ranking: {}", event.getCourseId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Recounts enrollments per course, fixes drifted counters and rebuilds the sorted set.
+     * A Redis lock keeps the full recount to one node per run.
+     */
+    @Scheduled(cron = "${popular.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        try {
+            Boolean locked = redisTemplate.opsForValue().setIfAbsent(RECONCILE_LOCK_KEY, nodeId, Duration.ofSeconds(reconcileLockSeconds));
+            if (!Boolean.TRUE.equals(locked)) {
+                return;
+            }
+            int fixed = jdbcTemplate.update("UPDATE courses c LEFT JOIN "
+                    + "(SELECT course_id, COUNT(*) AS n FROM enrollments GROUP BY course_id) e ON e.course_id = c.id "
+                    + "SET c.enrollment_count = COALESCE(e.n, 0) WHERE c.enrollment_count <> COALESCE(e.n, 0)");
+            if (fixed > 0) {
+                log.warn("Reconciled enrollment counters of {} courses", fixed);
+            }
+            rebuildRanking();
+        } catch (DataAccessException e) {
+            log.error("Popularity reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the counters into a temporary key and swaps it in for the live one, so readers never see a
+     * partial set. Increments applied to the live set while the counters were read and written are carried
+     * over by diffing it against a snapshot taken just before the read.
+     */
+    private void rebuildRanking() {
+        String tempKey = RANKING_KEY + ":REBUILD:" + nodeId;
+        String snapshotKey = RANKING_KEY + ":SNAPSHOT:" + nodeId;
+        redisTemplate.delete(tempKey);
+        redisTemplate.opsForZSet().unionAndStore(RANKING_KEY, List.of(), snapshotKey);
+        List<Object[]> counts = courseRepository.findEnrollmentCounts();
+        Set<ZSetOperations.TypedTuple<String>> batch = new HashSet<>();
+        for (Object[] row : counts) {
+            batch.add(new DefaultTypedTuple<>(row[0].toString(), ((Long) row[1]).doubleValue()));
+            if (batch.size() == REBUILD_BATCH) {
+                redisTemplate.opsForZSet().add(tempKey, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            redisTemplate.opsForZSet().add(tempKey, batch);
+        }
+        Long ranked = redisTemplate.execute(SWAP_IN_REBUILD, List.of(tempKey, RANKING_KEY, snapshotKey));
+        log.info("Rebuilt popularity ranking with {} courses ({} ranked after concurrent enrollments)", counts.size(), ranked);
+    }
+
+    /**
+     * Top ids from the sorted set (courses with at least one enrollment); falls back to the indexed
+     * counter column if Redis is unavailable.
+     */
+    private List<Long> load(Integer bucket) {
+        try {
+            Set<String> members = redisTemplate.opsForZSet().reverseRangeByScore(RANKING_KEY, 1, Double.POSITIVE_INFINITY, 0, bucket);
+            if (members != null) {
+                return members.stream().map(Long::valueOf).toList();
+            }
+        } catch (DataAccessException e) {
+            log.warn("Popularity ranking unavailable, reading counters from the database: {}", e.getMessage());
+        }
+        return List.copyOf(courseRepository.findIdsOrderByEnrollmentCount(PageRequest.of(0, bucket)));
+    }
+
+    /**
+     * Rounds a requested limit up to a fixed bucket so that similar limits share one cache entry.
+     */
+    private static int bucket(int limit) {
+        for (int bucket : LIMIT_BUCKETS) {
+            if (limit <= bucket) {
+                return bucket;
+            }
+        }
+        return MAX_LIMIT;
+    }
+}
@@ -0,0 +1,209 @@
+package onlinecourseplatform.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import onlinecourseplatform.event.CourseChangedEvent;
+import onlinecourseplatform.event.EnrollmentChangedEvent;
+import onlinecourseplatform.repository.CourseRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ranks courses by recent activity (enrollments and content views) with exponential time decay.
+ * <p>
+ * Activity is counted in Redis hashes, one per minute for the current and previous hour and one per
+ * hour further back, so every node contributes to the same window and old buckets simply expire.
+ * Requests only bump an in-memory counter; a scheduled flush pushes the accumulated points into the
+ * current minute and hour buckets. The ranking merges the buckets, weighting each by its age, and is
+ * recomputed periodically into a snapshot that the endpoint reads.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TrendingCourseService {
+
+    private static final String MINUTE_PREFIX = "TRENDING:M:";
+    private static final String HOUR_PREFIX = "TRENDING:H:";
+    public static final int MAX_LIMIT = 100;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final CourseRepository courseRepository;
+
+    @Value("${trending.window-hours:48}")
+    private int windowHours;
+
+    @Value("${trending.half-life-hours:12}")
+    private double halfLifeHours;
+
+    @Value("${trending.enrollment-weight:5}")
+    private long enrollmentWeight;
+
+    @Value("${trending.view-weight:1}")
+    private long viewWeight;
+
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    private final AtomicReference<List<Long>> trending = new AtomicReference<>(List.of());
+
+    /**
+     * Returns the ids of the {@code limit} currently trending courses, hottest first.
+     */
+    public List<Long> topCourseIds(int limit) {
+        List<Long> ids = trending.get();
+        return ids.subList(0, Math.min(limit, ids.size()));
+    }
+
+    /**
+     * Counts a student opening a video or document of the course.
+     */
+    public void recordView(Long courseId) {
+        record(courseId, viewWeight);
+    }
+
+    /**
+     * Counts new enrollments once they are committed; removals do not make a course less trending.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        if (event.getDelta() > 0) {
+            record(event.getCourseId(), enrollmentWeight * event.getDelta());
+        }
+    }
+
+    /**
+     * Drops a deleted course from the snapshot; its buckets age out on their own.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        if (event.getChange() == CourseChangedEvent.Change.DELETED) {
+            trending.updateAndGet(ids -> ids.stream().filter(id -> !id.equals(event.getCourseId())).toList());
+        }
+    }
+
+    private void record(Long courseId, long points) {
+        pending.computeIfAbsent(courseId, id -> new LongAdder()).add(points);
+    }
+
+    /**
+     * Pushes the points gathered since the last flush into the current minute and hour buckets.
+     * Points are put back if Redis is unavailable, so a short outage only delays them.
+     */
+    @Scheduled(fixedDelayString = "${trending.flush-ms:10000}")
+    public void flush() {
+        Map<Long, Long> points = new HashMap<>();
+        for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+            long value = entry.getValue().sumThenReset();
+            if (value != 0) {
+                points.put(entry.getKey(), value);
+            }
+        }
+        if (points.isEmpty()) {
+            return;
+        }
+        long minute = currentMinute();
+        String minuteKey = MINUTE_PREFIX + minute;
+        String hourKey = HOUR_PREFIX + minute / 60;
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) {
+                    points.forEach((courseId, value) -> {
+                        operations.opsForHash().increment(minuteKey, courseId.toString(), value);
+                        operations.opsForHash().increment(hourKey, courseId.toString(), value);
+                    });
+                    operations.expire(minuteKey, Duration.ofHours(3));
+                    operations.expire(hourKey, Duration.ofHours(windowHours + 2L));
+                    return null;
+                }
+            });
+        } catch (DataAccessException e) {
+            points.forEach(this::record);
+            log.warn("Could not flush trending counters, retrying on the next run: {}", e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refresh();
+    }
+
+    /**
+     * Merges the window's buckets into decayed scores and publishes the top courses. Minute buckets
+     * cover everything since the start of the previous hour; hour buckets cover the older part of the
+     * window, so no activity is counted twice.
+     */
+    @Scheduled(fixedDelayString = "${trending.refresh-ms:60000}")
+    public void refresh() {
+        long now = currentMinute();
+        long firstMinute = (now / 60 - 1) * 60;
+        List<String> keys = new ArrayList<>();
+        List<Long> ages = new ArrayList<>(); // minutes between the middle of each bucket and now
+        for (long minute = firstMinute; minute <= now; minute++) {
+            keys.add(MINUTE_PREFIX + minute);
+            ages.add(now - minute);
+        }
+        for (long hour = now / 60 - 2; hour > now / 60 - windowHours; hour--) {
+            keys.add(HOUR_PREFIX + hour);
+            ages.add(now - (hour * 60 + 30));
+        }
+
+        try {
+            List<Object> buckets = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) {
+                    keys.forEach(key -> operations.opsForHash().entries(key));
+                    return null;
+                }
+            });
+
+            double halfLifeMinutes = halfLifeHours * 60;
+            Map<Long, Double> scores = new HashMap<>();
+            for (int i = 0; i < buckets.size(); i++) {
+                double weight = Math.pow(0.5, ages.get(i) / halfLifeMinutes);
+                ((Map<?, ?>) buckets.get(i)).forEach((courseId, points) ->
+                        scores.merge(Long.valueOf(courseId.toString()), weight * Long.parseLong(points.toString()), Double::sum));
+            }
+
+            // Over-fetch so that courses deleted since they were counted do not shorten the list
+            List<Long> candidates = scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(MAX_LIMIT * 2L)
+                    .map(Map.Entry::getKey)
+                    .toList();
+            Set<Long> live = candidates.isEmpty() ? Set.of() : new HashSet<>(courseRepository.findLiveIdsByIdIn(candidates));
+            trending.set(candidates.stream().filter(live::contains).limit(MAX_LIMIT).toList());
+        } catch (DataAccessException e) {
+            log.warn("Trending refresh failed, keeping the previous ranking: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private static long currentMinute() {
+        return System.currentTimeMillis() / 60_000;
+    }
+}
@@ -4,16 +4,27 @@ import onlinecourseplatform.dto.requestDTOs.ChangePasswordRequest;
 import onlinecourseplatform.dto.requestDTOs.UpdateUserRequest;
 import onlinecourseplatform.dto.responseDTOs.UserResponseDTO;
 import onlinecourseplatform.entity.User;
+import onlinecourseplatform.event.CourseChangedEvent;
+import onlinecourseplatform.event.EnrollmentChangedEvent;
+import onlinecourseplatform.repository.AssetCompletionRepository;
+import onlinecourseplatform.repository.CourseRepository;
+import onlinecourseplatform.repository.EnrollmentRepository;
+import onlinecourseplatform.repository.FeedbackRepository;
+import onlinecourseplatform.repository.PaymentRepository;
 import onlinecourseplatform.repository.UserRepository;
+import onlinecourseplatform.repository.VideoProgressRepository;
 import onlinecourseplatform.utility.Conversion;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -26,6 +37,14 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final Conversion conversion;
+    private final EnrollmentRepository enrollmentRepository;
+    private final CourseRepository courseRepository;
+    private final FeedbackRepository feedbackRepository;
+    private final PaymentRepository paymentRepository;
+    private final VideoProgressRepository videoProgressRepository;
+    private final AssetCompletionRepository assetCompletionRepository;
+    private final RedisService redisService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Retrieves a user based on their email address.
@@ -43,7 +62,8 @@ public class UserService {
     }
 
     /**
-     * Deletes a user by ID if they exist.
+     * Deletes a user by ID if they exist, removing their enrollments, feedback and login token
+     * with set-based statements. Payments are kept but detached from the user.
      */
     @Transactional
     public void deleteUser(Long id) {
@@ -64,7 +84,27 @@ public class UserService {
             }
             default -> log.info("Deleting user with ID: {}", id);
         }
+
+        List<Long> reviewedCourseIds = feedbackRepository.findCourseIdsByStudentId(id);
+        Map<Long, Long> enrolledCourses = enrollmentRepository.findCourseIdsByStudentId(id).stream()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        int enrollments = enrollmentRepository.deleteByStudentId(id);
+        enrolledCourses.forEach((courseId, count) -> {
+            courseRepository.adjustEnrollmentCount(courseId, -count);
+            eventPublisher.publishEvent(new EnrollmentChangedEvent(courseId, id, -count.intValue()));
+        });
+        int feedbacks = feedbackRepository.deleteByStudentId(id);
+        int payments = paymentRepository.detachUser(id);
+        videoProgressRepository.deleteByStudentId(id);
+        assetCompletionRepository.deleteByStudentId(id);
         userRepository.deleteById(id);
+        redisService.deleteToken(id);
+        log.info("Deleted user {} with {} enrollments, {} feedbacks, {} payments detached",
+                id, enrollments, feedbacks, payments);
+
+        // Course details embed feedback, so the cached copies of reviewed courses must go
+        reviewedCourseIds.forEach(courseId ->
+                eventPublisher.publishEvent(new CourseChangedEvent(courseId, CourseChangedEvent.Change.FEEDBACK)));
 
     }
 
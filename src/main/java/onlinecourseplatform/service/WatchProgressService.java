@@ -0,0 +1,286 @@
+package onlinecourseplatform.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import onlinecourseplatform.dto.responseDTOs.VideoProgressDTO;
+import onlinecourseplatform.entity.AssetType;
+import onlinecourseplatform.event.CourseChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Video watch progress with write-behind heartbeats.
+ * <p>
+ * Players report the position every few seconds. A heartbeat only replaces the pending entry of its
+ * (student, video) in memory, keeping the latest position and the highest percentage; a scheduled
+ * writer upserts the pending entries into {@code video_progress} in JDBC batches, and once more on
+ * shutdown. Reads merge the pending entries over the stored rows, so they never lag behind.
+ * <p>
+ * The percentage comes from the time actually watched, not from the reported position: a heartbeat
+ * is credited only with the playback it could have covered since the previous one (up to
+ * {@code progress.max-playback-rate} times the wall-clock time), so seeking moves the resume position
+ * but watches nothing. The duration is the video's own, learned once from the first heartbeat;
+ * heartbeats reporting a different one are rejected.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WatchProgressService {
+
+    private static final String UPSERT = "INSERT INTO video_progress "
+            + "(student_id, video_id, course_id, position_seconds, duration_seconds, watched_seconds, percent, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE position_seconds = VALUES(position_seconds), duration_seconds = VALUES(duration_seconds), "
+            + "watched_seconds = GREATEST(watched_seconds, VALUES(watched_seconds)), "
+            + "percent = GREATEST(percent, VALUES(percent)), updated_at = VALUES(updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EnrollmentIndexService enrollmentIndexService;
+    private final CourseProgressService courseProgressService;
+
+    @Value("${progress.flush-batch-size:1000}")
+    private int flushBatchSize;
+
+    @Value("${progress.video-complete-percent:90}")
+    private int videoCompletePercent;
+
+    @Value("${progress.video-cache-size:100000}")
+    private long videoCacheSize;
+
+    @Value("${progress.max-playback-rate:2}")
+    private double maxPlaybackRate;
+
+    @Value("${progress.heartbeat-slack-seconds:5}")
+    private int heartbeatSlackSeconds;
+
+    @Value("${progress.duration-tolerance-seconds:2}")
+    private int durationToleranceSeconds;
+
+    private record Key(long studentId, long videoId) {
+    }
+
+    private record Heartbeat(long courseId, int positionSeconds, int durationSeconds, int watchedSeconds, int percent,
+                             LocalDateTime at) {
+    }
+
+    private record VideoInfo(long courseId, Integer durationSeconds) {
+    }
+
+    private final Map<Key, Heartbeat> pending = new ConcurrentHashMap<>();
+    private Cache<Long, VideoInfo> videos; // live courses only
+
+    @PostConstruct
+    void init() {
+        videos = Caffeine.newBuilder().maximumSize(videoCacheSize).build();
+    }
+
+    /**
+     * Records the player position of an enrolled student; nothing is written until the next flush.
+     * Only the playback since the previous heartbeat that real time allows counts as watched.
+     */
+    public void heartbeat(Long studentId, Long videoId, int positionSeconds, int durationSeconds) {
+        VideoInfo video = videoOf(studentId, videoId);
+        int duration = durationOf(videoId, video, durationSeconds);
+        int position = Math.min(positionSeconds, duration);
+        Key key = new Key(studentId, videoId);
+        // The stored row stands in for the previous heartbeat once it has been flushed
+        Heartbeat stored = pending.containsKey(key) ? null : stored(key, video.courseId());
+        LocalDateTime now = LocalDateTime.now();
+        pending.compute(key, (k, previous) -> {
+            Heartbeat last = previous != null ? previous : stored;
+            int watched = watched(last, position, now);
+            int percent = (int) (watched * 100L / duration);
+            if (last != null) {
+                percent = Math.max(percent, last.percent());
+            }
+            return new Heartbeat(video.courseId(), position, duration, watched, percent, now);
+        });
+    }
+
+    private int watched(Heartbeat last, int position, LocalDateTime now) {
+        if (last == null) {
+            return 0; // first heartbeat of the video: nothing watched yet
+        }
+        long advance = position - last.positionSeconds();
+        double allowed = Math.max(0, Duration.between(last.at(), now).toMillis()) / 1000.0 * maxPlaybackRate
+                + heartbeatSlackSeconds;
+        if (advance < 0 || advance > allowed) {
+            log.debug("Position moved from {} to {} in {}; counted as a seek", last.positionSeconds(), position,
+                    Duration.between(last.at(), now));
+            return last.watchedSeconds();
+        }
+        return Math.max(last.watchedSeconds(), (int) Math.min(position, last.watchedSeconds() + advance));
+    }
+
+    private Heartbeat stored(Key key, long courseId) {
+        List<Heartbeat> rows = jdbcTemplate.query("SELECT position_seconds, duration_seconds, watched_seconds, percent, updated_at "
+                        + "FROM video_progress WHERE student_id = ? AND video_id = ?",
+                (rs, i) -> new Heartbeat(courseId, rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4),
+                        rs.getTimestamp(5).toLocalDateTime()),
+                key.studentId(), key.videoId());
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * The duration of the video. The first heartbeat of a video sets it; later ones must agree with it.
+     */
+    private int durationOf(Long videoId, VideoInfo video, int reportedSeconds) {
+        Integer duration = video.durationSeconds();
+        if (duration == null) {
+            // Conditional update: of concurrent first heartbeats, on any node, only one sets the duration
+            jdbcTemplate.update("UPDATE video SET duration_seconds = ? WHERE id = ? AND duration_seconds IS NULL",
+                    reportedSeconds, videoId);
+            List<Integer> stored = jdbcTemplate.queryForList("SELECT duration_seconds FROM video WHERE id = ?", Integer.class, videoId);
+            duration = stored.isEmpty() ? null : stored.get(0);
+            if (duration == null) {
+                videos.invalidate(videoId); // deleted since it was cached
+                throw videoNotFound(videoId);
+            }
+            videos.put(videoId, new VideoInfo(video.courseId(), duration));
+        }
+        if (Math.abs(reportedSeconds - duration) > durationToleranceSeconds) {
+            throw new RuntimeException("Reported duration does not match the video: " + reportedSeconds + "s instead of " + duration + "s");
+        }
+        return duration;
+    }
+
+    /**
+     * Progress of one video, or null if the student has not started it.
+     */
+    public VideoProgressDTO getVideoProgress(Long studentId, Long videoId) {
+        long courseId = videoOf(studentId, videoId).courseId();
+        return getCourseProgress(studentId, courseId).stream()
+                .filter(progress -> progress.getVideoId().equals(videoId))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Progress of every video of the course the student has started, most recently watched first.
+     */
+    public List<VideoProgressDTO> getCourseProgress(Long studentId, Long courseId) {
+        if (!enrollmentIndexService.isEnrolled(studentId, courseId)) {
+            throw new AccessDeniedException("You are not enrolled in this course");
+        }
+        // Pending entries are read before the table: a flush that lands in between is then seen in one or the other
+        Map<Long, Heartbeat> unflushed = new HashMap<>();
+        pending.forEach((key, heartbeat) -> {
+            if (key.studentId() == studentId && heartbeat.courseId() == courseId) {
+                unflushed.put(key.videoId(), heartbeat);
+            }
+        });
+
+        Map<Long, VideoProgressDTO> progress = new HashMap<>();
+        jdbcTemplate.query("SELECT p.video_id, p.position_seconds, p.duration_seconds, p.percent, p.updated_at FROM video_progress p "
+                        + "JOIN video v ON v.id = p.video_id WHERE p.student_id = ? AND p.course_id = ?",
+                rs -> {
+                    progress.put(rs.getLong(1), new VideoProgressDTO(rs.getLong(1), rs.getInt(2), rs.getInt(3), rs.getInt(4),
+                            rs.getTimestamp(5).toLocalDateTime()));
+                }, studentId, courseId);
+        unflushed.forEach((videoId, heartbeat) -> {
+            VideoProgressDTO stored = progress.get(videoId);
+            int percent = stored == null ? heartbeat.percent() : Math.max(stored.getPercent(), heartbeat.percent());
+            progress.put(videoId, new VideoProgressDTO(videoId, heartbeat.positionSeconds(), heartbeat.durationSeconds(),
+                    percent, heartbeat.at()));
+        });
+        return progress.values().stream()
+                .sorted(Comparator.comparing(VideoProgressDTO::getUpdatedAt).reversed())
+                .toList();
+    }
+
+    private VideoInfo videoOf(Long studentId, Long videoId) {
+        VideoInfo video = videos.get(videoId, id -> jdbcTemplate.query("SELECT m.course_id, v.duration_seconds FROM video v "
+                        + "JOIN module m ON m.id = v.module_id JOIN courses c ON c.id = m.course_id "
+                        + "WHERE v.id = ? AND c.deleted = false",
+                (rs, i) -> new VideoInfo(rs.getLong(1), rs.getObject(2, Integer.class)), id)
+                .stream().findFirst().orElse(null));
+        if (video == null) {
+            throw videoNotFound(videoId);
+        }
+        if (!enrollmentIndexService.isEnrolled(studentId, video.courseId())) {
+            throw new AccessDeniedException("You are not enrolled in this course");
+        }
+        return video;
+    }
+
+    private static ResponseStatusException videoNotFound(Long videoId) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Video not found with ID: " + videoId);
+    }
+
+    /**
+     * Writes the pending heartbeats in batched upserts. An entry is dropped from memory only if no newer
+     * heartbeat replaced it meanwhile and, for a video watched past the completion threshold, once the
+     * completion is stored too; on a database error everything stays pending for the next run.
+     */
+    @Scheduled(fixedDelayString = "${progress.flush-ms:30000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Key, Heartbeat>> entries = new ArrayList<>();
+        pending.forEach((key, heartbeat) -> entries.add(Map.entry(key, heartbeat)));
+        int written = 0;
+        try {
+            for (int from = 0; from < entries.size(); from += flushBatchSize) {
+                List<Map.Entry<Key, Heartbeat>> batch = entries.subList(from, Math.min(from + flushBatchSize, entries.size()));
+                jdbcTemplate.batchUpdate(UPSERT, batch.stream().map(entry -> new Object[]{
+                        entry.getKey().studentId(), entry.getKey().videoId(), entry.getValue().courseId(),
+                        entry.getValue().positionSeconds(), entry.getValue().durationSeconds(), entry.getValue().watchedSeconds(),
+                        entry.getValue().percent(), Timestamp.valueOf(entry.getValue().at())
+                }).toList());
+                written += batch.size();
+                for (Map.Entry<Key, Heartbeat> entry : batch) {
+                    boolean done = entry.getValue().percent() < videoCompletePercent
+                            || courseProgressService.recordCompletion(entry.getKey().studentId(), entry.getValue().courseId(),
+                            AssetType.VIDEO, entry.getKey().videoId());
+                    if (done) {
+                        pending.remove(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            log.debug("Flushed {} watch progress entries", written);
+        } catch (DataAccessException e) {
+            log.warn("Could not flush watch progress ({} of {} written), retrying on the next run: {}",
+                    written, entries.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Forgets the videos of a deleted course, or of a course whose modules may have changed, so heartbeats
+     * for deleted videos are rejected.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        CourseChangedEvent.Change change = event.getChange();
+        if (change == CourseChangedEvent.Change.DELETED || change == CourseChangedEvent.Change.UPDATED
+                || change == CourseChangedEvent.Change.CONTENT) {
+            videos.asMap().values().removeIf(video -> video.courseId() == event.getCourseId());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+}
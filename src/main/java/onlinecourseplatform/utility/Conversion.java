@@ -120,12 +120,13 @@ public class Conversion {
         return CourseContentResponseDTO.builder()
                 .courseId(course.getId())
                 .title(course.getTitle())
+                .contentVersion(course.getContentVersion())
                 .modules(moduleDTOs)
                 .build();
     }
 
     // Convert Module Entity → ModuleDTO
-    private ModuleDTO toModuleDto(Module module) {
+    public ModuleDTO toModuleDto(Module module) {
         return ModuleDTO.builder()
                 .id(module.getId())
                 .courseId(module.getCourse().getId())
@@ -140,7 +141,7 @@ public class Conversion {
     }
 
     // Entity → DTO
-    private DocumentDTO toDocumentDto(Document document) {
+    public DocumentDTO toDocumentDto(Document document) {
         return DocumentDTO.builder()
                 .id(document.getId())
                 .moduleId(document.getModule().getId())
@@ -151,7 +152,7 @@ public class Conversion {
     }
 
     // Entity → DTO
-    private VideoDTO toVideoDto(Video video) {
+    public VideoDTO toVideoDto(Video video) {
         return VideoDTO.builder()
                 .id(video.getId())
                 .moduleId(video.getModule().getId())
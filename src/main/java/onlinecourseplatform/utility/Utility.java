@@ -2,13 +2,11 @@ package onlinecourseplatform.utility;
 
 import onlinecourseplatform.dto.responseDTOs.UserResponseDTO;
 import onlinecourseplatform.entity.Course;
-import onlinecourseplatform.entity.Enrollment;
-import onlinecourseplatform.entity.Status;
 import onlinecourseplatform.entity.User;
 import onlinecourseplatform.repository.CourseRepository;
-import onlinecourseplatform.repository.EnrollmentRepository;
 import onlinecourseplatform.repository.UserRepository;
 import onlinecourseplatform.security.CustomUserDetails;
+import onlinecourseplatform.service.EnrollmentIndexService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -16,7 +14,6 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 import java.security.Principal;
-import java.util.Objects;
 
 @Component
 @RequiredArgsConstructor
@@ -24,14 +21,14 @@ public class Utility {
 
     private final UserRepository userRepository;
     private final CourseRepository courseRepository;
-    private final EnrollmentRepository enrollmentRepository;
     private final Conversion conversion;
+    private final EnrollmentIndexService enrollmentIndexService;
 
     /**
      * Find course by course ID.
      */
     public Course findCourseById(Long courseId) {
-        return courseRepository.findById(courseId)
+        return courseRepository.findByIdAndDeletedFalse(courseId)
                 .orElseThrow(() -> new RuntimeException("Course not found with ID: " + courseId));
     }
 
@@ -70,18 +67,12 @@ public class Utility {
     }
 
     /**
-     * Validate enrollment of a student in a course.
+     * Check that a student is enrolled in a course, completed or not, from the enrollment index when possible.
      */
-    public Enrollment validateEnrollment(Long studentId, Long courseId) {
-        Enrollment enrollment = enrollmentRepository.findByStudentIdAndCourseId(studentId, courseId);
-
-        if (enrollment == null) {
+    public void checkEnrollment(Long studentId, Long courseId) {
+        if (!enrollmentIndexService.isEnrolled(studentId, courseId)) {
             throw new RuntimeException("You are not enrolled in this course");
         }
-        if (Objects.requireNonNull(enrollment.getStatus()) == Status.COMPLETED) {
-            throw new RuntimeException("You have already completed the course");
-        }
-        return enrollment;
     }
 
     /**
@@ -131,6 +122,6 @@ public class Utility {
      * Optional: Check if user is enrolled in a course.
      */
     public boolean isUserEnrolled(Long userId, Long courseId) {
-        return enrollmentRepository.existsByStudentIdAndCourseId(userId, courseId);
+        return enrollmentIndexService.isEnrolled(userId, courseId);
     }
 }
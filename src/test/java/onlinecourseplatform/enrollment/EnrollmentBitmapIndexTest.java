@@ -0,0 +1,123 @@
+package onlinecourseplatform.enrollment;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EnrollmentBitmapIndexTest {
+
+    @Test
+    void indexableOnlyAcceptsIntRangeIds() {
+        assertTrue(EnrollmentBitmapIndex.indexable(0, Integer.MAX_VALUE));
+        assertFalse(EnrollmentBitmapIndex.indexable(Integer.MAX_VALUE + 1L, 1));
+        assertFalse(EnrollmentBitmapIndex.indexable(1, -1));
+    }
+
+    @Test
+    void tracksMembershipAndCompletion() {
+        EnrollmentBitmapIndex index = new EnrollmentBitmapIndex();
+        index.add(10, 1, false);
+        index.add(10, 2, true);
+        index.complete(10, 3); // not enrolled, ignored
+
+        assertEquals(EnrollmentBitmapIndex.Membership.ENROLLED, index.membership(10, 1));
+        assertEquals(EnrollmentBitmapIndex.Membership.COMPLETED, index.membership(10, 2));
+        assertEquals(EnrollmentBitmapIndex.Membership.NOT_ENROLLED, index.membership(10, 3));
+
+        index.complete(10, 1);
+        index.add(10, 1, false); // re-adding neither counts twice nor clears the completion
+        assertEquals(EnrollmentBitmapIndex.Membership.COMPLETED, index.membership(10, 1));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void removeClearsCompletionAndTheStudentsCourses() {
+        EnrollmentBitmapIndex index = new EnrollmentBitmapIndex();
+        index.add(10, 1, true);
+        index.add(11, 1, false);
+
+        index.remove(10, 1);
+        index.remove(10, 1);
+
+        assertEquals(1, index.size());
+        assertArrayEquals(new long[]{11}, index.courseIdsOf(1));
+        index.add(10, 1, false);
+        assertEquals(EnrollmentBitmapIndex.Membership.ENROLLED, index.membership(10, 1));
+    }
+
+    @Test
+    void removeCourseCleansEveryStudentsCourses() {
+        EnrollmentBitmapIndex index = new EnrollmentBitmapIndex();
+        index.add(10, 1, false);
+        index.add(10, 2, true);
+        index.add(11, 2, false);
+
+        index.removeCourse(10);
+
+        assertEquals(1, index.size());
+        assertArrayEquals(new long[0], index.courseIdsOf(1));
+        assertArrayEquals(new long[]{11}, index.courseIdsOf(2));
+        assertEquals(EnrollmentBitmapIndex.Membership.NOT_ENROLLED, index.membership(10, 2));
+    }
+
+    @Test
+    void reverseIndexStaysConsistentUnderRandomChanges() {
+        Random random = new Random(5);
+        EnrollmentBitmapIndex index = new EnrollmentBitmapIndex();
+        Map<Long, Set<Long>> coursesByStudent = new HashMap<>();
+
+        for (int i = 0; i < 5_000; i++) {
+            long course = random.nextInt(20);
+            long student = random.nextInt(50);
+            int op = random.nextInt(10);
+            if (op < 6) {
+                index.add(course, student, random.nextBoolean());
+                coursesByStudent.computeIfAbsent(student, id -> new TreeSet<>()).add(course);
+            } else if (op < 9) {
+                index.remove(course, student);
+                coursesByStudent.getOrDefault(student, new HashSet<>()).remove(course);
+            } else {
+                index.removeCourse(course);
+                coursesByStudent.values().forEach(courses -> courses.remove(course));
+            }
+        }
+        index.optimize();
+
+        long size = 0;
+        for (long student = 0; student < 50; student++) {
+            Set<Long> expected = coursesByStudent.getOrDefault(student, Set.of());
+            long[] actual = index.courseIdsOf(student);
+            assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), actual, "student " + student);
+            for (long course = 0; course < 20; course++) {
+                assertEquals(expected.contains(course),
+                        index.membership(course, student) != EnrollmentBitmapIndex.Membership.NOT_ENROLLED);
+            }
+            size += actual.length;
+        }
+        assertEquals(size, index.size());
+    }
+
+    @Test
+    void differencesCountsEnrollmentsAndCompletionsInOnlyOneIndex() {
+        EnrollmentBitmapIndex left = new EnrollmentBitmapIndex();
+        EnrollmentBitmapIndex right = new EnrollmentBitmapIndex();
+        left.add(10, 1, true);
+        left.add(10, 2, false);
+        right.add(10, 1, false);
+        right.add(11, 3, false);
+
+        // student 1's completion, student 2 in course 10, student 3 in course 11
+        assertEquals(3, left.differences(right));
+        assertEquals(0, left.differences(left));
+    }
+}
@@ -0,0 +1,90 @@
+package onlinecourseplatform.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoEnrollmentMatrixTest {
+
+    // four students: {1, 2, 3}, {1, 2}, {1, 3}, {2}
+    private static final List<long[]> STUDENTS = List.of(
+            new long[]{1, 2, 3}, new long[]{1, 2}, new long[]{1, 3}, new long[]{2});
+
+    private static CoEnrollmentMatrix incremental(List<long[]> students) {
+        CoEnrollmentMatrix matrix = CoEnrollmentMatrix.empty();
+        for (long[] courses : students) {
+            for (int i = 0; i < courses.length; i++) {
+                long[] earlier = new long[i];
+                System.arraycopy(courses, 0, earlier, 0, i);
+                matrix.addEnrollment(courses[i], earlier);
+            }
+        }
+        return matrix;
+    }
+
+    private static List<Long> ids(List<CoEnrollmentMatrix.Related> related) {
+        return related.stream().map(CoEnrollmentMatrix.Related::courseId).toList();
+    }
+
+    @Test
+    void ranksByCosineSimilarity() {
+        List<CoEnrollmentMatrix.Related> related = incremental(STUDENTS).related(1, 10, 1);
+
+        assertEquals(List.of(3L, 2L), ids(related));
+        assertEquals(2 / Math.sqrt(3 * 2), related.get(0).score(), 1e-9);
+        assertEquals(2 / Math.sqrt(3 * 3), related.get(1).score(), 1e-9);
+        assertEquals(2, related.get(1).sharedStudents());
+    }
+
+    @Test
+    void appliesMinSharedAndLimit() {
+        CoEnrollmentMatrix matrix = incremental(STUDENTS);
+
+        assertEquals(List.of(1L), ids(matrix.related(2, 10, 2)));
+        assertEquals(List.of(3L), ids(matrix.related(1, 1, 1)));
+        assertTrue(matrix.related(1, 0, 1).isEmpty());
+        assertTrue(matrix.related(99, 10, 1).isEmpty());
+    }
+
+    @Test
+    void tiesGoToTheLowerCourseId() {
+        CoEnrollmentMatrix matrix = incremental(List.of(new long[]{5, 9}, new long[]{5, 7}));
+
+        assertEquals(List.of(7L, 9L), ids(matrix.related(5, 10, 1)));
+    }
+
+    @Test
+    void removeCourseDropsItsRowAndColumn() {
+        CoEnrollmentMatrix matrix = incremental(STUDENTS);
+
+        matrix.removeCourse(3);
+
+        assertEquals(2, matrix.courseCount());
+        assertEquals(List.of(2L), ids(matrix.related(1, 10, 1)));
+        assertTrue(matrix.related(3, 10, 1).isEmpty());
+    }
+
+    @Test
+    void builderMatchesIncrementalAdds() {
+        Random random = new Random(3);
+        List<long[]> students = new ArrayList<>();
+        for (int s = 0; s < 300; s++) {
+            students.add(random.longs(1 + random.nextInt(5), 1, 40).distinct().toArray());
+        }
+        CoEnrollmentMatrix.Builder builder = new CoEnrollmentMatrix.Builder(4);
+        builder.addStudents(students.subList(0, 150));
+        builder.addStudents(students.subList(150, 300));
+        CoEnrollmentMatrix built = builder.build();
+        CoEnrollmentMatrix expected = incremental(students);
+
+        assertEquals(expected.courseCount(), built.courseCount());
+        for (long course = 1; course < 40; course++) {
+            assertEquals(expected.related(course, 100, 1), built.related(course, 100, 1), "course " + course);
+        }
+    }
+}
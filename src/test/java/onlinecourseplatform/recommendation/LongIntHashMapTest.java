@@ -0,0 +1,118 @@
+package onlinecourseplatform.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LongIntHashMapTest {
+
+    // same hash as LongIntHashMap, to pick keys with a chosen home slot in the default 8-slot table
+    private static int home(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & 7;
+    }
+
+    private static long[] keysWithHome(int slot, int count) {
+        long[] found = new long[count];
+        int n = 0;
+        for (long key = 1; n < count; key++) {
+            if (home(key) == slot) {
+                found[n++] = key;
+            }
+        }
+        return found;
+    }
+
+    private static Map<Long, Integer> entries(LongIntHashMap map) {
+        Map<Long, Integer> entries = new HashMap<>();
+        map.forEach(entries::put);
+        return entries;
+    }
+
+    @Test
+    void addToAccumulatesAndDropsEntriesThatReachZero() {
+        LongIntHashMap map = new LongIntHashMap();
+
+        assertEquals(3, map.addTo(42, 3));
+        assertEquals(5, map.addTo(42, 2));
+        assertEquals(0, map.addTo(7, 0));
+        assertEquals(1, map.size());
+
+        assertEquals(0, map.addTo(42, -5));
+        assertEquals(0, map.size());
+        assertEquals(0, map.get(42));
+    }
+
+    @Test
+    void removeShiftsChainsBackAcrossTheEndOfTheTable() {
+        long[] lastSlot = keysWithHome(7, 2);
+        long firstSlot = keysWithHome(0, 1)[0];
+        LongIntHashMap map = new LongIntHashMap();
+        map.addTo(lastSlot[0], 1);  // slot 7
+        map.addTo(lastSlot[1], 2);  // wraps to slot 0
+        map.addTo(firstSlot, 3);    // displaced to slot 1
+
+        assertEquals(1, map.remove(lastSlot[0]));
+
+        assertEquals(0, map.get(lastSlot[0]));
+        assertEquals(2, map.get(lastSlot[1]));
+        assertEquals(3, map.get(firstSlot));
+        assertEquals(Map.of(lastSlot[1], 2, firstSlot, 3), entries(map));
+
+        // the wrapped key moved back home; removing it must still leave the slot 0 key reachable
+        assertEquals(2, map.remove(lastSlot[1]));
+        assertEquals(3, map.get(firstSlot));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void removeKeepsEntriesWhoseHomeIsPastTheGap() {
+        long sixth = keysWithHome(6, 1)[0];
+        long[] seventh = keysWithHome(7, 2);
+        LongIntHashMap map = new LongIntHashMap();
+        map.addTo(sixth, 1);       // slot 6
+        map.addTo(seventh[0], 2);  // slot 7, at home
+        map.addTo(seventh[1], 3);  // wraps to slot 0
+
+        map.remove(sixth);
+
+        // the slot 7 entry must not move into slot 6, before its home
+        assertEquals(2, map.get(seventh[0]));
+        assertEquals(3, map.get(seventh[1]));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void behavesLikeAHashMapUnderRandomChurn() {
+        Random random = new Random(11);
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(300);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    Integer removed = expected.remove(key);
+                    assertEquals(removed == null ? 0 : removed, map.remove(key));
+                }
+                case 1 -> {
+                    int delta = random.nextInt(5) - 2;
+                    int value = expected.getOrDefault(key, 0) + delta;
+                    if (value == 0) {
+                        expected.remove(key);
+                    } else {
+                        expected.put(key, value);
+                    }
+                    assertEquals(value, map.addTo(key, delta));
+                }
+                default -> assertEquals(expected.getOrDefault(key, 0).intValue(), map.get(key));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected, entries(map));
+    }
+}
@@ -0,0 +1,88 @@
+package onlinecourseplatform.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FacetIndexTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2025, 1, 1);
+
+    private FacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FacetIndex();
+        index.put(1, Map.of("price", "FREE", "rating", "4+"), JAN_1);
+        index.put(2, Map.of("price", "UNDER_50", "rating", "4+"), JAN_1.plusDays(1));
+        index.put(3, Map.of("price", "UNDER_50", "rating", "3+"), JAN_1.plusDays(2));
+        index.put(4, Map.of("price", "OVER_50"), JAN_1.plusDays(3)); // not rated yet
+    }
+
+    private static Map<String, Set<String>> select(String facet, String... values) {
+        Map<String, Set<String>> selected = new HashMap<>();
+        selected.put(facet, Set.of(values));
+        return selected;
+    }
+
+    @Test
+    void valuesOfOneFacetAreOredAndFacetsAnded() {
+        Map<String, Set<String>> selected = select("price", "FREE", "UNDER_50");
+        assertEquals(List.of(3, 2, 1), index.query(selected, null, null, 0, 10).docIds());
+
+        selected.put("rating", Set.of("4+"));
+        FacetIndex.Result result = index.query(selected, null, null, 0, 10);
+        assertEquals(2, result.total());
+        assertEquals(List.of(2, 1), result.docIds());
+    }
+
+    @Test
+    void eachFacetIsCountedWithoutItsOwnFilter() {
+        FacetIndex.Result result = index.query(select("price", "UNDER_50"), null, null, 0, 10);
+
+        // price counts ignore the price filter, rating counts apply it
+        assertEquals(Map.of("FREE", 1, "UNDER_50", 2, "OVER_50", 1), result.counts().get("price"));
+        assertEquals(Map.of("4+", 1, "3+", 1), result.counts().get("rating"));
+    }
+
+    @Test
+    void filtersByInclusiveCreationRange() {
+        assertEquals(List.of(3, 2), index.query(Map.of(), JAN_1.plusDays(1), JAN_1.plusDays(2), 0, 10).docIds());
+        assertEquals(List.of(2, 1), index.query(Map.of(), null, JAN_1.plusDays(1), 0, 10).docIds());
+        assertEquals(List.of(4), index.query(Map.of(), JAN_1.plusDays(3), null, 0, 10).docIds());
+    }
+
+    @Test
+    void pagesFromTheHighestId() {
+        FacetIndex.Result page = index.query(Map.of(), null, null, 1, 2);
+
+        assertEquals(4, page.total());
+        assertEquals(List.of(3, 2), page.docIds());
+    }
+
+    @Test
+    void updateMovesADocumentBetweenValues() {
+        index.update(4, "rating", "4+");
+        index.update(99, "rating", "4+"); // unknown documents are ignored
+
+        assertEquals(List.of(4, 2, 1), index.query(select("rating", "4+"), null, null, 0, 10).docIds());
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void removeDropsTheDocumentAndEmptyValues() {
+        index.remove(1);
+
+        FacetIndex.Result result = index.query(Map.of(), null, null, 0, 10);
+        assertEquals(List.of(4, 3, 2), result.docIds());
+        assertEquals(Map.of("UNDER_50", 2, "OVER_50", 1), result.counts().get("price"));
+        assertEquals(List.of(), index.query(Map.of(), JAN_1, JAN_1, 0, 10).docIds());
+    }
+}
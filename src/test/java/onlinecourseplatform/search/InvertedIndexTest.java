@@ -0,0 +1,88 @@
+package onlinecourseplatform.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex(2.0f, 1.0f); // title, description
+        index.put(1, "Java Basics", "Variables, loops and classes");
+        index.put(2, "Spring Boot", "Build REST services with Java and Spring");
+        index.put(3, "Python for Data Science", "Pandas and notebooks");
+    }
+
+    private static List<Long> ids(SearchHits hits) {
+        return hits.hits().stream().map(SearchHits.Hit::docId).toList();
+    }
+
+    @Test
+    void titleMatchesOutrankDescriptionMatches() {
+        SearchHits hits = index.search("java", 0, 10);
+
+        assertEquals(2, hits.total());
+        assertEquals(List.of(1L, 2L), ids(hits));
+        assertTrue(hits.hits().get(0).score() > hits.hits().get(1).score());
+    }
+
+    @Test
+    void rareTermsWeighMoreThanCommonOnes() {
+        index.put(4, "Java Streams", "Collections");
+        index.put(5, "Java Concurrency", "Threads");
+
+        // "spring" appears in one document, "java" in four: the spring document leads
+        assertEquals(2L, index.search("java spring", 0, 10).hits().get(0).docId());
+    }
+
+    @Test
+    void scoresFollowBm25() {
+        InvertedIndex single = new InvertedIndex(1.0f);
+        single.put(1, "alpha beta");
+        single.put(2, "gamma");
+
+        double idf = Math.log(1 + (2 - 1 + 0.5) / (1 + 0.5));
+        double norm = 1.2 * (1 - 0.75 + 0.75 * 2 / 1.5);
+        assertEquals(idf * 1 * 2.2 / (1 + norm), single.search("alpha", 0, 1).hits().get(0).score(), 1e-9);
+    }
+
+    @Test
+    void pagesKeepTheTotal() {
+        SearchHits second = index.search("java", 1, 1);
+
+        assertEquals(2, second.total());
+        assertEquals(List.of(2L), ids(second));
+        assertTrue(index.search("java", 5, 1).hits().isEmpty());
+    }
+
+    @Test
+    void queriesAreAnalyzedLikeDocuments() {
+        assertEquals(List.of(1L), ids(index.search("the LOOP", 0, 10)));
+        assertTrue(index.search("the and of", 0, 10).hits().isEmpty());
+    }
+
+    @Test
+    void putReplacesAndRemoveForgets() {
+        index.put(2, "Go Microservices", "Channels");
+        assertEquals(List.of(1L), ids(index.search("java", 0, 10)));
+
+        index.remove(1);
+        index.remove(42);
+        assertEquals(2, index.size());
+        assertTrue(index.search("java", 0, 10).hits().isEmpty());
+        assertEquals(List.of(2L), ids(index.search("channels", 0, 10)));
+    }
+
+    @Test
+    void rejectsTheWrongNumberOfFields() {
+        assertThrows(IllegalArgumentException.class, () -> index.put(9, "Only a title"));
+    }
+}
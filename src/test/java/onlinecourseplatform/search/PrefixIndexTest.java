@@ -0,0 +1,84 @@
+package onlinecourseplatform.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrefixIndexTest {
+
+    private static Completion course(long id, String title) {
+        return new Completion(Completion.Type.COURSE, id, title);
+    }
+
+    @Test
+    void completesFromTheStartOfAnyWord() {
+        Completion python = course(1, "Python for Data Science");
+        PrefixIndex index = new PrefixIndex.Builder().add(python.text(), python, 10).build();
+
+        assertEquals(List.of(python), index.complete("pyth", 5));
+        assertEquals(List.of(python), index.complete("Data  SCI", 5));
+        assertEquals(List.of(python), index.complete("science", 5));
+        assertTrue(index.complete("for data", 5).isEmpty()); // stop words do not start a key
+        assertTrue(index.complete("ata", 5).isEmpty());
+    }
+
+    @Test
+    void returnsEachCompletionOnceHeaviestFirst() {
+        Completion javaBasics = course(1, "Java Basics");
+        Completion javaStreams = course(2, "Java Streams and Java Collections");
+        Completion javascript = course(3, "JavaScript");
+        PrefixIndex index = new PrefixIndex.Builder()
+                .add(javaBasics.text(), javaBasics, 5)
+                .add(javaStreams.text(), javaStreams, 20)
+                .add(javascript.text(), javascript, 10)
+                .build();
+
+        assertEquals(List.of(javaStreams, javascript, javaBasics), index.complete("java", 10));
+        assertEquals(List.of(javaStreams, javascript), index.complete("jav", 2));
+    }
+
+    @Test
+    void blankPrefixOrLimitFindsNothing() {
+        Completion docker = course(1, "Docker");
+        PrefixIndex index = new PrefixIndex.Builder().add(docker.text(), docker, 1).build();
+
+        assertTrue(index.complete(" - ", 5).isEmpty());
+        assertTrue(index.complete("doc", 0).isEmpty());
+        assertTrue(PrefixIndex.empty().complete("doc", 5).isEmpty());
+    }
+
+    @Test
+    void topKMatchesASortedScanOfTheRange() {
+        Random random = new Random(7);
+        List<Integer> weights = new ArrayList<>();
+        for (int weight = 1; weight <= 500; weight++) {
+            weights.add(weight);
+        }
+        Collections.shuffle(weights, random);
+
+        PrefixIndex.Builder builder = new PrefixIndex.Builder();
+        List<Completion> matching = new ArrayList<>();
+        for (int i = 0; i < weights.size(); i++) {
+            String title = (i % 2 == 0 ? "kafka " : "kotlin ") + i;
+            Completion completion = course(i, title);
+            builder.add(title, completion, weights.get(i));
+            if (i % 2 == 0) {
+                matching.add(completion);
+            }
+        }
+        PrefixIndex index = builder.build();
+
+        List<Completion> expected = matching.stream()
+                .sorted(Comparator.comparingInt((Completion completion) -> weights.get((int) completion.id())).reversed())
+                .limit(15)
+                .toList();
+        assertEquals(expected, index.complete("kaf", 15));
+    }
+}
@@ -0,0 +1,47 @@
+package onlinecourseplatform.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextAnalyzerTest {
+
+    @Test
+    void tokenizeLowerCasesAndKeepsLanguageNames() {
+        assertEquals(List.of("c++", "and", "c#", "for", "net", "8"), TextAnalyzer.tokenize("C++ and C# for .NET 8!"));
+        assertTrue(TextAnalyzer.tokenize(null).isEmpty());
+        assertTrue(TextAnalyzer.tokenize("  -- ").isEmpty());
+    }
+
+    @Test
+    void analyzeDropsStopWordsAndStems() {
+        assertEquals(List.of("run", "class", "python"), TextAnalyzer.analyze("Running the Classes in Python"));
+    }
+
+    @Test
+    void stemFollowsPorterStepOne() {
+        assertEquals("caress", TextAnalyzer.stem("caresses"));
+        assertEquals("poni", TextAnalyzer.stem("ponies"));
+        assertEquals("caress", TextAnalyzer.stem("caress"));
+        assertEquals("cat", TextAnalyzer.stem("cats"));
+        assertEquals("agree", TextAnalyzer.stem("agreed"));
+        assertEquals("plaster", TextAnalyzer.stem("plastered"));
+        assertEquals("motor", TextAnalyzer.stem("motoring"));
+        assertEquals("conflate", TextAnalyzer.stem("conflated"));
+        assertEquals("hop", TextAnalyzer.stem("hopping"));
+        assertEquals("fall", TextAnalyzer.stem("falling"));
+        assertEquals("file", TextAnalyzer.stem("filing"));
+        assertEquals("happi", TextAnalyzer.stem("happy"));
+        assertEquals("sky", TextAnalyzer.stem("sky"));
+    }
+
+    @Test
+    void stemLeavesShortAndNonAlphabeticTokensAlone() {
+        assertEquals("is", TextAnalyzer.stem("is"));
+        assertEquals("c++", TextAnalyzer.stem("c++"));
+        assertEquals("web3s", TextAnalyzer.stem("web3s"));
+    }
+}
@@ -0,0 +1,114 @@
+package onlinecourseplatform.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrigramIndexTest {
+
+    private static List<Long> ids(SearchHits hits) {
+        return hits.hits().stream().map(SearchHits.Hit::docId).toList();
+    }
+
+    @Test
+    void distanceCountsAdjacentSwapsAsOneEdit() {
+        assertEquals(0, TrigramIndex.distance("java", "java", 0));
+        assertEquals(3, TrigramIndex.distance("kitten", "sitting", 3));
+        assertEquals(1, TrigramIndex.distance("java", "jaav", 2));
+        assertEquals(3, TrigramIndex.distance("ca", "abc", 3)); // no edits inside a swapped pair (unrestricted Damerau gives 2)
+    }
+
+    @Test
+    void distanceGivesUpBeyondTheLimit() {
+        assertEquals(3, TrigramIndex.distance("abcdef", "uvwxyz", 2));
+        assertEquals(2, TrigramIndex.distance("a", "abcd", 1));
+    }
+
+    @Test
+    void findsTitlesDespiteTypos() {
+        TrigramIndex index = new TrigramIndex(50);
+        index.put(1, "Introduction to Kubernetes");
+        index.put(2, "Kotlin for Beginners");
+        index.put(3, "Docker Basics");
+
+        assertEquals(List.of(1L), ids(index.search("kubernetse", 2, 0, 10, id -> 0)));
+        assertTrue(index.search("kubernetse", 0, 0, 10, id -> 0).hits().isEmpty());
+        assertEquals(List.of(3L), ids(index.search("dokcer", 1, 0, 10, id -> 0)));
+    }
+
+    @Test
+    void ranksByMatchedWordsThenDistanceThenPopularity() {
+        TrigramIndex index = new TrigramIndex(50);
+        index.put(1, "Kubernetes Basics");
+        index.put(2, "Kubernetes for Beginners");
+        index.put(3, "Beginners Guide");
+        index.put(4, "Beginner Guide");
+
+        assertEquals(List.of(2L, 1L, 3L, 4L), ids(index.search("kubernetes beginners", 1, 0, 10, id -> 0)));
+        assertEquals(List.of(4L, 3L), ids(index.search("guide", 0, 0, 10, id -> id == 4 ? 10 : 1)));
+    }
+
+    @Test
+    void pagesKeepTheTotal() {
+        TrigramIndex index = new TrigramIndex(50);
+        for (long id = 1; id <= 5; id++) {
+            index.put(id, "Docker");
+        }
+
+        SearchHits page = index.search("docker", 0, 2, 2, id -> 0);
+        assertEquals(5, page.total());
+        assertEquals(List.of(3L, 4L), ids(page));
+    }
+
+    @Test
+    void removedDocumentsAndTheirWordsAreForgotten() {
+        TrigramIndex index = new TrigramIndex(50);
+        index.put(1, "Terraform");
+        index.put(2, "Terraform Modules");
+
+        index.remove(1);
+        assertEquals(List.of(2L), ids(index.search("terraform", 0, 0, 10, id -> 0)));
+        index.put(2, "Ansible");
+        assertTrue(index.search("terraform", 1, 0, 10, id -> 0).hits().isEmpty());
+    }
+
+    @Test
+    void pruningNeverDropsAWordWithinTheEditLimit() {
+        Random random = new Random(42);
+        TrigramIndex index = new TrigramIndex(Integer.MAX_VALUE);
+        Map<Long, String> words = new HashMap<>();
+        for (long id = 1; id <= 400; id++) {
+            String word = randomWord(random, 5 + random.nextInt(4));
+            words.put(id, word);
+            index.put(id, word);
+        }
+
+        // Query words of five or more letters keep a trigram after one edit, so every match is reachable
+        for (int i = 0; i < 100; i++) {
+            String query = randomWord(random, 5 + random.nextInt(4));
+            Set<Long> expected = new HashSet<>();
+            words.forEach((id, word) -> {
+                if (TrigramIndex.distance(query, word, 1) <= 1) {
+                    expected.add(id);
+                }
+            });
+            assertEquals(expected, new HashSet<>(ids(index.search(query, 1, 0, 1000, id -> 0))), query);
+        }
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(3)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,133 @@
+package onlinecourseplatform.service;
+
+import onlinecourseplatform.event.CourseActivityEvent;
+import onlinecourseplatform.repository.CourseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalyticsServiceTest {
+
+    private static final String MARKER = "SELECT cutoff FROM analytics_backfill WHERE id = 1";
+    private static final String LIVE_INSERT = "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String MARK = "INSERT INTO analytics_backfill";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> values = mock(ValueOperations.class);
+    private AnalyticsService analyticsService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        analyticsService = new AnalyticsService(jdbcTemplate, mock(CourseRepository.class), transactionTemplate, redisTemplate);
+        ReflectionTestUtils.setField(analyticsService, "lockSeconds", 60L);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        when(transactionTemplate.execute(any())).thenAnswer(call -> ((TransactionCallback<Object>) call.getArgument(0)).doInTransaction(null));
+        doAnswer(call -> {
+            ((Consumer<TransactionStatus>) call.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class))).thenReturn(false);
+        when(jdbcTemplate.queryForList(MARKER, Timestamp.class)).thenReturn(List.of());
+    }
+
+    private static CourseActivityEvent enrollment(LocalDateTime at) {
+        return new CourseActivityEvent(3L, 1L, CourseActivityEvent.Type.ENROLLMENT, 1, at);
+    }
+
+    private void claimSucceeds() {
+        when(values.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+    }
+
+    @Test
+    void failedBackfillKeepsHoldingEventsUntilARetrySucceeds() {
+        claimSucceeds();
+        when(jdbcTemplate.update(contains("FROM enrollments e"), any(Object[].class)))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(1);
+        analyticsService.onActivity(enrollment(LocalDateTime.now().minusMinutes(1)));
+        analyticsService.onActivity(enrollment(LocalDateTime.now().plusHours(1)));
+
+        analyticsService.backfillIfEmpty();
+
+        verify(jdbcTemplate, never()).update(contains(LIVE_INSERT), any(Object[].class));
+        verify(jdbcTemplate, never()).update(startsWith(MARK), any(Object[].class));
+        verify(redisTemplate).delete("ANALYTICS:BACKFILL"); // the next retry may claim it again
+
+        analyticsService.retryBackfill();
+
+        verify(jdbcTemplate).update(startsWith(MARK), any(Object[].class));
+        // the earlier event is counted by the backfill, only the later one is applied
+        verify(jdbcTemplate, times(1)).update(contains(LIVE_INSERT), any(Object[].class));
+    }
+
+    @Test
+    void recordedBackfillAppliesEventsFromItsCutoff() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(1);
+        when(jdbcTemplate.queryForList(MARKER, Timestamp.class)).thenReturn(List.of(Timestamp.valueOf(cutoff)));
+
+        analyticsService.backfillIfEmpty();
+        analyticsService.onActivity(enrollment(cutoff.minusSeconds(1)));
+        analyticsService.onActivity(enrollment(cutoff.plusSeconds(1)));
+
+        verify(values, never()).setIfAbsent(anyString(), anyString(), any(Duration.class));
+        verify(jdbcTemplate, times(1)).update(contains(LIVE_INSERT), any(Object[].class));
+    }
+
+    @Test
+    void otherNodesWaitForTheMarker() {
+        when(values.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        analyticsService.backfillIfEmpty();
+        analyticsService.onActivity(enrollment(LocalDateTime.now()));
+        verify(jdbcTemplate, never()).update(contains(LIVE_INSERT), any(Object[].class));
+
+        when(jdbcTemplate.queryForList(MARKER, Timestamp.class))
+                .thenReturn(List.of(Timestamp.valueOf(LocalDateTime.now().minusHours(1))));
+        analyticsService.retryBackfill();
+
+        verify(jdbcTemplate, times(1)).update(contains(LIVE_INSERT), any(Object[].class));
+        verify(jdbcTemplate, never()).update(argThat((String sql) -> sql.contains("FROM enrollments e")), any(Object[].class));
+    }
+
+    @Test
+    void rollupsWithoutAMarkerAreAdopted() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class))).thenReturn(true);
+        analyticsService.onActivity(enrollment(LocalDateTime.now().minusDays(3)));
+
+        analyticsService.backfillIfEmpty();
+
+        verify(jdbcTemplate).update(startsWith(MARK), any(Object[].class));
+        verify(jdbcTemplate, times(1)).update(contains(LIVE_INSERT), any(Object[].class));
+        verify(values, never()).setIfAbsent(anyString(), anyString(), any(Duration.class));
+    }
+}
@@ -0,0 +1,141 @@
+package onlinecourseplatform.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import onlinecourseplatform.event.CourseChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CatalogCacheServiceTest {
+
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> values = mock(ValueOperations.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final AtomicInteger loads = new AtomicInteger();
+    private CatalogCacheService cacheService;
+
+    @BeforeEach
+    void setUp() {
+        cacheService = new CatalogCacheService(redisTemplate, new ObjectMapper(), eventPublisher);
+        ReflectionTestUtils.setField(cacheService, "l1MaxWeightBytes", 1_000_000L);
+        ReflectionTestUtils.setField(cacheService, "l2TtlMinutes", 10L);
+        cacheService.init();
+        when(redisTemplate.opsForValue()).thenReturn(values);
+    }
+
+    private List<String> titles() {
+        return cacheService.getCatalog("titles", cacheService.listOf(String.class), TTL, () -> {
+            loads.incrementAndGet();
+            return List.of("Java", "Kafka");
+        });
+    }
+
+    @Test
+    void missLoadsOnceAndFillsBothTiers() {
+        when(values.get("CATALOG:VERSION")).thenReturn("4");
+
+        assertEquals(List.of("Java", "Kafka"), titles());
+        assertEquals(List.of("Java", "Kafka"), titles());
+
+        assertEquals(1, loads.get());
+        verify(values).set("CATALOG:ENTRY:v4:titles", "[\"Java\",\"Kafka\"]", 10L, TimeUnit.MINUTES);
+    }
+
+    @Test
+    void l2HitSkipsTheLoader() {
+        when(values.get("CATALOG:ENTRY:v0:titles")).thenReturn("[\"Docker\"]");
+
+        assertEquals(List.of("Docker"), titles());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void nullIsReturnedButNotCached() {
+        for (int i = 0; i < 2; i++) {
+            assertNull(cacheService.getCourse(7L, "details", cacheService.typeOf(String.class), TTL, () -> {
+                loads.incrementAndGet();
+                return null;
+            }));
+        }
+
+        assertEquals(2, loads.get());
+        verify(values, never()).set(anyString(), anyString(), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    void localChangeEvictsAndBumpsVersions() {
+        when(values.increment("CATALOG:VERSION")).thenReturn(1L);
+        titles();
+
+        cacheService.onCourseChanged(new CourseChangedEvent(7L, CourseChangedEvent.Change.UPDATED));
+        titles();
+
+        assertEquals(2, loads.get());
+        verify(values).increment("CATALOG:VERSION:7");
+        verify(redisTemplate).convertAndSend(eq(CatalogCacheService.INVALIDATION_CHANNEL),
+                argThat((String message) -> message.endsWith("|7|UPDATED|1")));
+    }
+
+    @Test
+    void contentChangeIsBroadcastWithoutEvictingTheCatalog() {
+        titles();
+
+        cacheService.onCourseChanged(new CourseChangedEvent(7L, CourseChangedEvent.Change.CONTENT));
+        titles();
+
+        assertEquals(1, loads.get());
+        verify(values, never()).increment(anyString());
+        verify(redisTemplate).convertAndSend(eq(CatalogCacheService.INVALIDATION_CHANNEL), anyString());
+    }
+
+    @Test
+    void remoteInvalidationEvictsAndIsRepublishedAsRemote() {
+        titles();
+
+        cacheService.onMessage(new DefaultMessage(CatalogCacheService.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "other-node|7|DELETED|1".getBytes(StandardCharsets.UTF_8)), null);
+        titles();
+
+        assertEquals(2, loads.get());
+        verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof CourseChangedEvent changed
+                && changed.isRemote() && changed.getCourseId() == 7L && changed.getChange() == CourseChangedEvent.Change.DELETED));
+    }
+
+    @Test
+    void missedBroadcastIsCaughtByTheVersionPoll() {
+        when(values.get("CATALOG:VERSION")).thenReturn("2", "2", "5");
+        cacheService.pollVersion(); // first poll only records the version
+        titles();
+
+        cacheService.pollVersion();
+        titles();
+
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,37 @@
+package onlinecourseplatform.service;
+
+import onlinecourseplatform.entity.Course;
+import onlinecourseplatform.entity.Module;
+import onlinecourseplatform.entity.Video;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ContentOrderTest {
+
+    private static Video video(Long id, Integer position) {
+        return Video.builder().id(id).position(position).build();
+    }
+
+    @Test
+    void sortsLikeMysqlOrderByPositionThenId() {
+        Module module = Module.builder().id(1L).position(0).documents(new ArrayList<>())
+                .videos(new ArrayList<>(List.of(video(4L, 1), video(9L, null), video(2L, 1), video(3L, null), video(8L, 0))))
+                .build();
+        Course course = Course.builder().modules(new ArrayList<>(List.of(module))).build();
+
+        ContentOrder.sort(course);
+
+        // MySQL sorts NULL first for ASC
+        assertEquals(List.of(3L, 9L, 8L, 2L, 4L), module.getVideos().stream().map(Video::getId).toList());
+    }
+
+    @Test
+    void nextPositionFollowsTheHighestPosition() {
+        assertEquals(0, ContentOrder.nextPosition(List.<Video>of(), Video::getPosition));
+        assertEquals(6, ContentOrder.nextPosition(List.of(video(1L, 0), video(2L, 5), video(3L, 2)), Video::getPosition));
+    }
+}
@@ -0,0 +1,82 @@
+package onlinecourseplatform.service;
+
+import onlinecourseplatform.entity.Course;
+import onlinecourseplatform.entity.User;
+import onlinecourseplatform.event.CourseChangedEvent;
+import onlinecourseplatform.repository.CourseRepository;
+import onlinecourseplatform.repository.UserRepository;
+import onlinecourseplatform.search.Completion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CourseAutocompleteServiceTest {
+
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final CourseAutocompleteService autocompleteService = new CourseAutocompleteService(courseRepository, userRepository);
+
+    private final Completion javaBasics = new Completion(Completion.Type.COURSE, 1, "Java Basics");
+    private final Completion javaStreams = new Completion(Completion.Type.COURSE, 2, "Java Streams");
+    private final Completion javascript = new Completion(Completion.Type.COURSE, 3, "JavaScript");
+    private final Completion jacob = new Completion(Completion.Type.INSTRUCTOR, 11, "Jacob Smith");
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(autocompleteService, "maxAgeMs", 300_000L);
+        when(courseRepository.findAllByDeletedFalse()).thenReturn(List.of(
+                Course.builder().id(1L).title("Java Basics").instructorId(11L).enrollmentCount(5).build(),
+                Course.builder().id(2L).title("Java Streams").instructorId(11L).enrollmentCount(20).build(),
+                Course.builder().id(3L).title("JavaScript").instructorId(12L).enrollmentCount(30).build()));
+        when(userRepository.findAllById(any())).thenReturn(List.of(
+                User.builder().id(11L).name("Jacob Smith").build(),
+                User.builder().id(12L).name("Anna Lee").build()));
+    }
+
+    @Test
+    void completesTitlesAndInstructorsRankedByEnrollments() {
+        assertTrue(autocompleteService.complete("ja", 10).isEmpty()); // nothing built yet
+
+        autocompleteService.rebuildIfStale();
+
+        // an instructor weighs as much as all of their courses together
+        assertEquals(List.of(javascript, jacob, javaStreams, javaBasics), autocompleteService.complete("ja", 10));
+    }
+
+    @Test
+    void onlyTitleChangesTriggerARebuild() {
+        autocompleteService.rebuildIfStale();
+
+        autocompleteService.onCourseChanged(new CourseChangedEvent(1L, CourseChangedEvent.Change.CONTENT));
+        autocompleteService.rebuildIfStale();
+        verify(courseRepository, times(1)).findAllByDeletedFalse();
+
+        autocompleteService.onCourseChanged(new CourseChangedEvent(1L, CourseChangedEvent.Change.UPDATED));
+        autocompleteService.rebuildIfStale();
+        verify(courseRepository, times(2)).findAllByDeletedFalse();
+    }
+
+    @Test
+    void failedRebuildKeepsThePreviousIndexAndRetries() {
+        autocompleteService.rebuildIfStale();
+        when(courseRepository.findAllByDeletedFalse()).thenThrow(new QueryTimeoutException("timeout"));
+
+        autocompleteService.onCourseChanged(new CourseChangedEvent(3L, CourseChangedEvent.Change.DELETED));
+        autocompleteService.rebuildIfStale();
+
+        assertEquals(List.of(javascript), autocompleteService.complete("javas", 10));
+        autocompleteService.rebuildIfStale();
+        verify(courseRepository, times(3)).findAllByDeletedFalse();
+    }
+}
@@ -0,0 +1,114 @@
+package onlinecourseplatform.service;
+
+import onlinecourseplatform.dto.requestDTOs.VideoRequestDTO;
+import onlinecourseplatform.entity.Course;
+import onlinecourseplatform.entity.Module;
+import onlinecourseplatform.entity.Video;
+import onlinecourseplatform.event.CourseChangedEvent;
+import onlinecourseplatform.repository.CourseRepository;
+import onlinecourseplatform.repository.DocumentRepository;
+import onlinecourseplatform.repository.ModuleRepository;
+import onlinecourseplatform.repository.VideoRepository;
+import onlinecourseplatform.utility.Conversion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CourseContentServiceTest {
+
+    private static final Long COURSE = 3L;
+    private static final Long INSTRUCTOR = 1L;
+
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    private final ModuleRepository moduleRepository = mock(ModuleRepository.class);
+    private final VideoRepository videoRepository = mock(VideoRepository.class);
+    private final DocumentRepository documentRepository = mock(DocumentRepository.class);
+    private final CourseManifestService courseManifestService = mock(CourseManifestService.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private CourseContentService contentService;
+    private Module module;
+
+    @BeforeEach
+    void setUp() {
+        contentService = new CourseContentService(courseRepository, moduleRepository, videoRepository,
+                documentRepository, courseManifestService,
+                mock(CloudUrlProcessorService.class), mock(Conversion.class), eventPublisher);
+        // positions have a gap after an earlier delete
+        module = Module.builder().id(10L).position(0).documents(new ArrayList<>()).videos(new ArrayList<>(List.of(
+                Video.builder().id(21L).position(0).build(),
+                Video.builder().id(22L).position(3).build()))).build();
+        Course course = Course.builder().id(COURSE).instructorId(INSTRUCTOR).modules(new ArrayList<>(List.of(module))).build();
+        module.setCourse(course);
+        when(courseRepository.findByIdAndDeletedFalse(COURSE)).thenReturn(Optional.of(course));
+    }
+
+    private List<Long> videoIds() {
+        return module.getVideos().stream().map(Video::getId).toList();
+    }
+
+    @Test
+    void appendedVideoGoesAfterTheHighestPosition() {
+        contentService.addVideo(COURSE, 10L, VideoRequestDTO.builder().filename("intro.mp4").build(), INSTRUCTOR);
+
+        Video added = module.getVideos().get(2);
+        assertEquals(4, added.getPosition());
+        verify(courseManifestService).rebuild(module.getCourse());
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof CourseChangedEvent changed
+                && changed.getCourseId().equals(COURSE) && changed.getChange() == CourseChangedEvent.Change.CONTENT));
+    }
+
+    @Test
+    void reorderRenumbersAndKeepsTheListInDisplayOrder() {
+        contentService.reorderVideos(COURSE, 10L, List.of(22L, 21L), INSTRUCTOR);
+
+        assertEquals(List.of(22L, 21L), videoIds());
+        assertEquals(List.of(0, 1), module.getVideos().stream().map(Video::getPosition).toList());
+        verify(courseManifestService).rebuild(module.getCourse());
+    }
+
+    @Test
+    void reorderRejectsIncompleteIdsAndOtherInstructors() {
+        assertThrows(RuntimeException.class, () -> contentService.reorderVideos(COURSE, 10L, List.of(22L), INSTRUCTOR));
+        assertThrows(AccessDeniedException.class, () -> contentService.reorderVideos(COURSE, 10L, List.of(22L, 21L), 99L));
+        assertEquals(List.of(21L, 22L), videoIds());
+        verify(courseManifestService, never()).rebuild(any());
+    }
+
+    @Test
+    void deleteModuleUsesBulkStatementsAndRebuildsFromTheReloadedCourse() {
+        Course reloaded = Course.builder().id(COURSE).instructorId(INSTRUCTOR).modules(new ArrayList<>()).build();
+        when(courseRepository.findByIdAndDeletedFalse(COURSE)).thenReturn(Optional.of(module.getCourse()), Optional.of(reloaded));
+
+        contentService.deleteModule(COURSE, 10L, INSTRUCTOR);
+
+        InOrder order = inOrder(videoRepository, documentRepository, moduleRepository, courseManifestService);
+        order.verify(videoRepository).deleteByModuleIdIn(List.of(10L));
+        order.verify(documentRepository).deleteByModuleIdIn(List.of(10L));
+        order.verify(moduleRepository).deleteByIdIn(List.of(10L));
+        order.verify(courseManifestService).rebuild(reloaded);
+        // the stale course keeps its module: nothing is removed through orphan removal
+        assertEquals(1, module.getCourse().getModules().size());
+    }
+
+    @Test
+    void deleteModuleRejectsModulesOfOtherCourses() {
+        assertThrows(RuntimeException.class, () -> contentService.deleteModule(COURSE, 99L, INSTRUCTOR));
+        verify(moduleRepository, never()).deleteByIdIn(any());
+    }
+}
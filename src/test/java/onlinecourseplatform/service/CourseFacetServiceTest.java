@@ -0,0 +1,99 @@
+package onlinecourseplatform.service;
+
+import onlinecourseplatform.entity.Course;
+import onlinecourseplatform.event.CourseChangedEvent;
+import onlinecourseplatform.repository.CourseRepository;
+import onlinecourseplatform.repository.FeedbackRepository;
+import onlinecourseplatform.search.FacetIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CourseFacetServiceTest {
+
+    private static final LocalDateTime JAN_1 = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    private final FeedbackRepository feedbackRepository = mock(FeedbackRepository.class);
+    private final CourseFacetService facetService = new CourseFacetService(courseRepository, feedbackRepository);
+
+    @BeforeEach
+    void setUp() {
+        when(courseRepository.findAllByDeletedFalse()).thenReturn(List.of(
+                course(1, "0", 11, JAN_1),
+                course(2, "499", 11, JAN_1.plusDays(1)),
+                course(3, "1500", 12, JAN_1.plusDays(2)),
+                course(4, "2000", 12, JAN_1.plusDays(3))));
+        when(feedbackRepository.averageRatingPerCourse()).thenReturn(List.of(new Object[]{1L, 4.5}, new Object[]{3L, 3.2}));
+    }
+
+    private static Course course(long id, String price, long instructorId, LocalDateTime createdAt) {
+        return Course.builder().id(id).price(new BigDecimal(price)).instructorId(instructorId).createdAt(createdAt).build();
+    }
+
+    private List<Integer> browse(String facet, String... values) {
+        return facetService.browse(Map.of(facet, Set.of(values)), null, null, 0, 10).docIds();
+    }
+
+    @Test
+    void bandsPricesAndRatings() {
+        assertEquals("free", CourseFacetService.priceBand(BigDecimal.ZERO));
+        assertEquals("under-500", CourseFacetService.priceBand(new BigDecimal("499.99")));
+        assertEquals("500-1999", CourseFacetService.priceBand(new BigDecimal("500")));
+        assertEquals("2000-plus", CourseFacetService.priceBand(new BigDecimal("2000")));
+        assertEquals("unrated", CourseFacetService.ratingBand(null));
+        assertEquals("4-5", CourseFacetService.ratingBand(4.0));
+        assertEquals("3-4", CourseFacetService.ratingBand(3.0));
+        assertEquals("below-3", CourseFacetService.ratingBand(2.9));
+    }
+
+    @Test
+    void browsesTheBuiltIndexWithCounts() {
+        assertThrows(RuntimeException.class, () -> browse(CourseFacetService.PRICE, "free"));
+        facetService.rebuild();
+
+        assertEquals(List.of(2, 1), browse(CourseFacetService.PRICE, "free", "under-500"));
+        assertEquals(List.of(4, 2), browse(CourseFacetService.RATING, "unrated"));
+        FacetIndex.Result result = facetService.browse(Map.of(CourseFacetService.INSTRUCTOR, Set.of("12")),
+                LocalDate.of(2025, 1, 3), null, 0, 10);
+        assertEquals(List.of(4, 3), result.docIds());
+        // values outside the selection are still listed, with a zero count
+        assertEquals(Map.of("unrated", 1, "3-4", 1, "4-5", 0), result.counts().get(CourseFacetService.RATING));
+    }
+
+    @Test
+    void rejectsAnInvertedDateRange() {
+        facetService.rebuild();
+
+        assertThrows(RuntimeException.class,
+                () -> facetService.browse(Map.of(), LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1), 0, 10));
+    }
+
+    @Test
+    void followsFeedbackAndCourseChanges() {
+        facetService.rebuild();
+
+        when(feedbackRepository.averageRating(4L)).thenReturn(4.8);
+        facetService.onCourseChanged(new CourseChangedEvent(4L, CourseChangedEvent.Change.FEEDBACK));
+        assertEquals(List.of(4, 1), browse(CourseFacetService.RATING, "4-5"));
+
+        when(courseRepository.findByIdAndDeletedFalse(2L)).thenReturn(Optional.of(course(2, "0", 11, JAN_1.plusDays(1))));
+        facetService.onCourseChanged(new CourseChangedEvent(2L, CourseChangedEvent.Change.UPDATED));
+        assertEquals(List.of(2, 1), browse(CourseFacetService.PRICE, "free"));
+
+        facetService.onCourseChanged(new CourseChangedEvent(1L, CourseChangedEvent.Change.DELETED));
+        assertEquals(List.of(2), browse(CourseFacetService.PRICE, "free"));
+    }
+}
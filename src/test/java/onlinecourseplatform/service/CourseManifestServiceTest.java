@@ -0,0 +1,99 @@
+package onlinecourseplatform.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import onlinecourseplatform.dto.entityDTOs.ModuleDTO;
+import onlinecourseplatform.dto.responseDTOs.CourseContentResponseDTO;
+import onlinecourseplatform.entity.Course;
+import onlinecourseplatform.entity.CourseContentManifest;
+import onlinecourseplatform.repository.CourseContentManifestRepository;
+import onlinecourseplatform.repository.CourseRepository;
+import onlinecourseplatform.utility.Conversion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CourseManifestServiceTest {
+
+    private static final Long COURSE = 3L;
+
+    private final CourseContentManifestRepository manifestRepository = mock(CourseContentManifestRepository.class);
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    private final Conversion conversion = mock(Conversion.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private CourseManifestService manifestService;
+    private Course course;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        manifestService = new CourseManifestService(manifestRepository, courseRepository, conversion, new ObjectMapper(),
+                jdbcTemplate, transactionTemplate);
+        doAnswer(call -> {
+            ((Consumer<TransactionStatus>) call.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        course = Course.builder().id(COURSE).title("Java").contentVersion(4).build();
+        when(conversion.toCourseContentResponseDTO(course)).thenAnswer(call -> CourseContentResponseDTO.builder()
+                .courseId(COURSE).title("Java").contentVersion(course.getContentVersion())
+                .modules(List.of(ModuleDTO.builder().id(10L).moduleName("Basics").build())).build());
+    }
+
+    @Test
+    void rebuiltManifestIsServedWithoutTouchingTheContentTables() {
+        manifestService.rebuild(course);
+
+        ArgumentCaptor<CourseContentManifest> saved = ArgumentCaptor.forClass(CourseContentManifest.class);
+        verify(manifestRepository).save(saved.capture());
+        assertEquals(5, course.getContentVersion());
+        assertEquals(5, saved.getValue().getContentVersion());
+
+        when(manifestRepository.findCurrent(COURSE)).thenReturn(Optional.of(saved.getValue()));
+        CourseContentResponseDTO content = manifestService.read(COURSE);
+
+        assertEquals(5L, content.getContentVersion());
+        assertEquals("Basics", content.getModules().get(0).getModuleName());
+        verify(courseRepository, never()).findByIdAndDeletedFalse(any());
+    }
+
+    @Test
+    void staleManifestIsAnsweredFromTheContentTables() {
+        when(courseRepository.findByIdAndDeletedFalse(COURSE)).thenReturn(Optional.of(course));
+
+        assertEquals(4L, manifestService.read(COURSE).getContentVersion());
+        verify(manifestRepository, never()).save(any());
+    }
+
+    @Test
+    void backfillBuildsEachMissingManifestAndSkipsFailures() {
+        Course other = Course.builder().id(4L).contentVersion(0).build();
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class))).thenReturn(List.of(COURSE, 4L));
+        when(courseRepository.findByIdAndDeletedFalse(COURSE)).thenThrow(new QueryTimeoutException("timeout"));
+        when(courseRepository.findByIdAndDeletedFalse(4L)).thenReturn(Optional.of(other));
+        when(conversion.toCourseContentResponseDTO(other)).thenReturn(CourseContentResponseDTO.builder().courseId(4L).build());
+
+        manifestService.backfill();
+
+        assertEquals(1, other.getContentVersion());
+        verify(manifestRepository).save(any(CourseContentManifest.class));
+    }
+}
@@ -0,0 +1,92 @@
+package onlinecourseplatform.service;
+
+import onlinecourseplatform.entity.AssetType;
+import onlinecourseplatform.event.CourseActivityEvent;
+import onlinecourseplatform.event.EnrollmentCompletedEvent;
+import onlinecourseplatform.repository.CourseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CourseProgressServiceTest {
+
+    private static final Long STUDENT = 7L;
+    private static final Long COURSE = 3L;
+    private static final String INSERT = "INSERT IGNORE INTO asset_completions";
+    private static final String BUMP = "UPDATE enrollments SET completed_assets";
+    private static final String COMPLETE = "UPDATE enrollments e JOIN courses c";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private CourseProgressService progressService;
+
+    @BeforeEach
+    void setUp() {
+        progressService = new CourseProgressService(jdbcTemplate, mock(PlatformTransactionManager.class),
+                mock(CourseRepository.class), eventPublisher);
+        ReflectionTestUtils.setField(progressService, "recordedCacheSize", 100L);
+        progressService.init();
+    }
+
+    @Test
+    void lastAssetCompletesTheCourseOnce() {
+        when(jdbcTemplate.update(startsWith(INSERT), any(Object[].class))).thenReturn(1);
+        when(jdbcTemplate.update(startsWith(COMPLETE), any(Object[].class))).thenReturn(1);
+
+        assertTrue(progressService.recordCompletion(STUDENT, COURSE, AssetType.VIDEO, 21L));
+
+        verify(jdbcTemplate).update(startsWith(BUMP), any(Object[].class));
+        verify(eventPublisher).publishEvent(any(EnrollmentCompletedEvent.class));
+        verify(eventPublisher).publishEvent(any(CourseActivityEvent.class));
+    }
+
+    @Test
+    void assetsBeforeTheLastOnlyCount() {
+        when(jdbcTemplate.update(startsWith(INSERT), any(Object[].class))).thenReturn(1);
+        when(jdbcTemplate.update(startsWith(COMPLETE), any(Object[].class))).thenReturn(0); // counter below the total
+
+        assertTrue(progressService.recordCompletion(STUDENT, COURSE, AssetType.DOCUMENT, 31L));
+
+        verify(jdbcTemplate).update(startsWith(BUMP), any(Object[].class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void repeatedCompletionsDoNotCountTwice() {
+        when(jdbcTemplate.update(startsWith(INSERT), any(Object[].class))).thenReturn(0); // row already stored
+
+        assertTrue(progressService.recordCompletion(STUDENT, COURSE, AssetType.VIDEO, 21L));
+        assertTrue(progressService.recordCompletion(STUDENT, COURSE, AssetType.VIDEO, 21L));
+
+        verify(jdbcTemplate, times(1)).update(startsWith(INSERT), any(Object[].class)); // second call answered from the cache
+        verify(jdbcTemplate, never()).update(startsWith(BUMP), any(Object[].class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void failedCompletionIsReportedAndRetried() {
+        when(jdbcTemplate.update(startsWith(INSERT), any(Object[].class)))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(1);
+
+        assertFalse(progressService.recordCompletion(STUDENT, COURSE, AssetType.VIDEO, 21L));
+        assertTrue(progressService.recordCompletion(STUDENT, COURSE, AssetType.VIDEO, 21L));
+
+        verify(jdbcTemplate, times(2)).update(startsWith(INSERT), any(Object[].class));
+        verify(jdbcTemplate, times(1)).update(startsWith(BUMP), any(Object[].class));
+    }
+}
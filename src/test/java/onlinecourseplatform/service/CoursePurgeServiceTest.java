@@ -0,0 +1,104 @@
+package onlinecourseplatform.service;
+
+import onlinecourseplatform.entity.CoursePurgeJob;
+import onlinecourseplatform.entity.PurgePhase;
+import onlinecourseplatform.repository.CoursePurgeJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CoursePurgeServiceTest {
+
+    private static final Long COURSE = 5L;
+
+    private final CoursePurgeJobRepository purgeJobRepository = mock(CoursePurgeJobRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final List<String> phasesSaved = new ArrayList<>();
+    private CoursePurgeService purgeService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        purgeService = new CoursePurgeService(purgeJobRepository, jdbcTemplate, transactionTemplate);
+        ReflectionTestUtils.setField(purgeService, "batchSize", 2);
+        ReflectionTestUtils.setField(purgeService, "leaseSeconds", 300L);
+        when(transactionTemplate.execute(any())).thenAnswer(call -> ((TransactionCallback<Object>) call.getArgument(0)).doInTransaction(null));
+        // lease claim, progress and completion updates of the job row always succeed
+        when(jdbcTemplate.update(startsWith("UPDATE course_purge_jobs"), any(Object[].class))).thenAnswer(call -> {
+            Object[] args = call.getArguments();
+            if (call.getArgument(0, String.class).contains("phase = ?")) {
+                phasesSaved.add((String) args[1]);
+            }
+            return 1;
+        });
+    }
+
+    private void pending(PurgePhase phase) {
+        when(purgeJobRepository.findByPhaseNot(PurgePhase.DONE)).thenReturn(List.of(CoursePurgeJob.builder()
+                .courseId(COURSE).instructorId(1L).phase(phase).rowsPurged(0).build()));
+    }
+
+    @Test
+    void deletesInBatchesUntilAPhaseIsEmpty() {
+        pending(PurgePhase.MODULES);
+        when(jdbcTemplate.update(eq("DELETE FROM module WHERE course_id = ? LIMIT ?"), eq(COURSE), eq(2)))
+                .thenReturn(2, 2, 1);
+        when(jdbcTemplate.update("DELETE FROM courses WHERE id = ? AND deleted = true", COURSE)).thenReturn(1);
+
+        purgeService.purgePending();
+
+        assertEquals(List.of("MODULES", "MODULES", "MODULES", "COURSE", "COURSE", "DONE"), phasesSaved);
+        verify(jdbcTemplate).update(startsWith("UPDATE course_purge_jobs SET completed_at"), any(Object[].class));
+    }
+
+    @Test
+    void detachesLatePaymentsUnderTheCourseLockBeforeDeletingTheRow() {
+        pending(PurgePhase.COURSE);
+        // a payment recorded after the PAYMENTS phase
+        when(jdbcTemplate.update("UPDATE payment SET course_id = NULL WHERE course_id = ?", COURSE)).thenReturn(1);
+        when(jdbcTemplate.update("DELETE FROM courses WHERE id = ? AND deleted = true", COURSE)).thenReturn(1);
+
+        purgeService.purgePending();
+
+        InOrder order = inOrder(transactionTemplate, jdbcTemplate);
+        order.verify(transactionTemplate).execute(any());
+        order.verify(jdbcTemplate).queryForList("SELECT id FROM courses WHERE id = ? FOR UPDATE", Long.class, COURSE);
+        order.verify(jdbcTemplate).update("UPDATE payment SET course_id = NULL WHERE course_id = ?", COURSE);
+        order.verify(jdbcTemplate).update("DELETE FROM courses WHERE id = ? AND deleted = true", COURSE);
+        assertEquals(List.of("COURSE", "DONE"), phasesSaved);
+    }
+
+    @Test
+    void failedPhaseReleasesTheLeaseAndIsRetriedFromThatPhase() {
+        pending(PurgePhase.COURSE);
+        when(jdbcTemplate.update("DELETE FROM courses WHERE id = ? AND deleted = true", COURSE))
+                .thenThrow(new DataIntegrityViolationException("fk"));
+
+        purgeService.purgePending();
+
+        assertTrue(phasesSaved.isEmpty());
+        verify(jdbcTemplate).update(startsWith("UPDATE course_purge_jobs SET locked_by = NULL"), eq(COURSE), anyString());
+        verify(jdbcTemplate, never()).update(startsWith("UPDATE course_purge_jobs SET completed_at"), any(Object[].class));
+    }
+}
@@ -0,0 +1,90 @@
+package onlinecourseplatform.service;
+
+import onlinecourseplatform.event.CourseChangedEvent;
+import onlinecourseplatform.event.EnrollmentChangedEvent;
+import onlinecourseplatform.recommendation.CoEnrollmentMatrix;
+import onlinecourseplatform.repository.EnrollmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CourseRecommendationServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final EnrollmentRepository enrollmentRepository = mock(EnrollmentRepository.class);
+    private final EnrollmentIndexService enrollmentIndexService = mock(EnrollmentIndexService.class);
+    private final CourseRecommendationService recommendationService =
+            new CourseRecommendationService(jdbcTemplate, enrollmentRepository, enrollmentIndexService);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(recommendationService, "minSharedStudents", 2);
+        // (student, course) ordered by student: {1, 2}, {1, 2, 3}, {1, 3}
+        long[][] rows = {{1, 1}, {1, 2}, {2, 1}, {2, 2}, {2, 3}, {3, 1}, {3, 3}};
+        doAnswer(call -> {
+            RowCallbackHandler handler = call.getArgument(1);
+            for (long[] row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong(1)).thenReturn(row[0]);
+                when(rs.getLong(2)).thenReturn(row[1]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    private List<Long> related(long courseId) {
+        return recommendationService.related(courseId, 10).stream()
+                .map(CoEnrollmentMatrix.Related::courseId).sorted().toList();
+    }
+
+    @Test
+    void buildsTheMatrixFromStreamedEnrollments() {
+        assertEquals(List.of(), related(1));
+
+        recommendationService.rebuild();
+
+        assertEquals(List.of(2L, 3L), related(1));
+        assertEquals(List.of(1L), related(2)); // courses 2 and 3 share a single student
+    }
+
+    @Test
+    void newEnrollmentsAreAddedWithTheStudentsOtherCourses() {
+        recommendationService.rebuild();
+        when(enrollmentIndexService.courseIdsOf(9L)).thenReturn(new long[]{2, 3});
+        when(enrollmentIndexService.courseIdsOf(10L)).thenReturn(null); // not answerable from the index
+        when(enrollmentRepository.findStudentCoursePairs(List.of(10L)))
+                .thenReturn(List.of(new Object[]{10L, 1L}, new Object[]{10L, 3L}));
+
+        recommendationService.onEnrollmentChanged(new EnrollmentChangedEvent(3L, List.of(9L, 10L), 2));
+
+        assertEquals(List.of(1L, 3L), related(2));
+        assertEquals(3, recommendationService.related(3L, 10).stream()
+                .filter(related -> related.courseId() == 1L).findFirst().orElseThrow().sharedStudents());
+    }
+
+    @Test
+    void unenrollmentsWaitForTheRebuildAndDeletedCoursesLeaveAtOnce() {
+        recommendationService.rebuild();
+
+        recommendationService.onEnrollmentChanged(new EnrollmentChangedEvent(2L, 1L, -1));
+        recommendationService.onCourseChanged(new CourseChangedEvent(3L, CourseChangedEvent.Change.DELETED));
+
+        verify(enrollmentIndexService, never()).courseIdsOf(any());
+        assertEquals(List.of(2L), related(1));
+    }
+}
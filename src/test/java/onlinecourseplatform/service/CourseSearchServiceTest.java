@@ -0,0 +1,89 @@
+package onlinecourseplatform.service;
+
+import onlinecourseplatform.entity.Course;
+import onlinecourseplatform.event.CourseChangedEvent;
+import onlinecourseplatform.repository.CourseRepository;
+import onlinecourseplatform.search.SearchHits;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CourseSearchServiceTest {
+
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    private CourseSearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        searchService = new CourseSearchService(courseRepository);
+        ReflectionTestUtils.setField(searchService, "titleBoost", 3.0f);
+        ReflectionTestUtils.setField(searchService, "fuzzyMaxCandidates", 200);
+        ReflectionTestUtils.setField(searchService, "resultCacheMaxEntries", 100L);
+        ReflectionTestUtils.setField(searchService, "resultCacheTtlSeconds", 60L);
+        ReflectionTestUtils.setField(searchService, "resultCacheRefreshSeconds", 15L);
+        searchService.init();
+
+        when(courseRepository.findAllByDeletedFalse()).thenReturn(List.of(
+                course(1, "Java Programming", "Learn the basics"),
+                course(2, "Python for Data Science", "pandas and numpy"),
+                course(3, "Advanced Streams", "functional programming in java"),
+                course(4, "Python Basics", "a first course")));
+        when(courseRepository.findEnrollmentCounts()).thenReturn(List.of(new Object[]{2L, 10L}, new Object[]{4L, 50L}));
+    }
+
+    private static Course course(long id, String title, String description) {
+        return Course.builder().id(id).title(title).description(description).build();
+    }
+
+    private static List<Long> ids(SearchHits hits) {
+        return hits.hits().stream().map(SearchHits.Hit::docId).toList();
+    }
+
+    @Test
+    void searchIsUnavailableUntilTheIndexIsBuilt() {
+        assertThrows(IllegalStateException.class, () -> searchService.search("java", 0, 10));
+
+        searchService.rebuild();
+
+        assertEquals(List.of(1L, 3L), ids(searchService.search("java", 0, 10))); // title matches are boosted
+    }
+
+    @Test
+    void equivalentQueriesShareACachedPage() {
+        searchService.rebuild();
+
+        SearchHits first = searchService.search("java programming", 0, 10);
+
+        assertSame(first, searchService.search("Programming  JAVA java", 0, 10));
+    }
+
+    @Test
+    void changedAndDeletedCoursesAreReindexed() {
+        searchService.rebuild();
+        assertEquals(2, searchService.search("java", 0, 10).total());
+
+        when(courseRepository.findByIdAndDeletedFalse(1L)).thenReturn(Optional.of(course(1, "Kotlin Programming", "Learn the basics")));
+        searchService.onCourseChanged(new CourseChangedEvent(1L, CourseChangedEvent.Change.UPDATED));
+        assertEquals(List.of(3L), ids(searchService.search("java", 0, 10)));
+
+        searchService.onCourseChanged(new CourseChangedEvent(3L, CourseChangedEvent.Change.DELETED));
+        assertEquals(0, searchService.search("java", 0, 10).total());
+    }
+
+    @Test
+    void fuzzyMatchesToleratesTyposAndPrefersPopularCourses() {
+        searchService.rebuild();
+
+        assertEquals(List.of(4L, 2L), ids(searchService.searchFuzzy("pyhton", 2, 0, 10)));
+        assertEquals(0, searchService.searchFuzzy("pyhton", 0, 0, 10).total());
+    }
+}
@@ -0,0 +1,282 @@
+package onlinecourseplatform.service;
+
+import onlinecourseplatform.dto.entityDTOs.DocumentDTO;
+import onlinecourseplatform.dto.entityDTOs.ModuleDTO;
+import onlinecourseplatform.dto.entityDTOs.VideoDTO;
+import onlinecourseplatform.dto.requestDTOs.CourseRequestDTO;
+import onlinecourseplatform.dto.requestDTOs.CourseUpdateRequest;
+import onlinecourseplatform.dto.requestDTOs.DocumentRequestDTO;
+import onlinecourseplatform.dto.requestDTOs.ModuleRequestDTO;
+import onlinecourseplatform.dto.requestDTOs.VideoRequestDTO;
+import onlinecourseplatform.dto.responseDTOs.EnrolledStudentDTO;
+import onlinecourseplatform.dto.responseDTOs.InstructorCourseSummaryDTO;
+import onlinecourseplatform.entity.Course;
+import onlinecourseplatform.entity.Document;
+import onlinecourseplatform.entity.Module;
+import onlinecourseplatform.entity.Status;
+import onlinecourseplatform.entity.Video;
+import onlinecourseplatform.repository.CourseRepository;
+import onlinecourseplatform.repository.DocumentRepository;
+import onlinecourseplatform.repository.EnrollmentRepository;
+import onlinecourseplatform.repository.ModuleRepository;
+import onlinecourseplatform.repository.VideoRepository;
+import onlinecourseplatform.utility.Conversion;
+import onlinecourseplatform.utility.Utility;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CourseServiceTest {
+
+    private static final Long COURSE = 3L;
+    private static final Long INSTRUCTOR = 1L;
+
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    private final EnrollmentRepository enrollmentRepository = mock(EnrollmentRepository.class);
+    private final CourseManifestService courseManifestService = mock(CourseManifestService.class);
+    private final CourseContentService courseContentService = mock(CourseContentService.class);
+    private final ModuleRepository moduleRepository = mock(ModuleRepository.class);
+    private final VideoRepository videoRepository = mock(VideoRepository.class);
+    private final DocumentRepository documentRepository = mock(DocumentRepository.class);
+    private final Conversion conversion = mock(Conversion.class);
+    private CourseService courseService;
+    private Course course;
+    private Module module;
+    private Video intro;
+    private Video setup;
+
+    @BeforeEach
+    void setUp() {
+        courseService = new CourseService(courseRepository, enrollmentRepository, moduleRepository,
+                videoRepository, documentRepository, conversion, mock(Utility.class),
+                mock(CloudUrlProcessorService.class), mock(CatalogCacheService.class), courseManifestService,
+                courseContentService, mock(CoursePurgeService.class), mock(CourseSearchService.class),
+                mock(CourseFacetService.class), mock(DocumentSearchService.class), mock(PopularCourseService.class),
+                mock(TrendingCourseService.class), mock(CourseRecommendationService.class),
+                mock(ApplicationEventPublisher.class));
+
+        intro = Video.builder().id(21L).filename("intro.mp4").URL("https://cdn/intro.mp4").position(0).build();
+        setup = Video.builder().id(22L).filename("setup.mp4").URL("https://cdn/setup.mp4").position(1).build();
+        Document slides = Document.builder().id(31L).filename("slides.pdf").URL("https://cdn/slides.pdf").position(0).build();
+        module = Module.builder().id(10L).moduleName("Basics").position(0)
+                .videos(new ArrayList<>(List.of(intro, setup))).documents(new ArrayList<>(List.of(slides))).build();
+        course = Course.builder().id(COURSE).instructorId(INSTRUCTOR).title("Java").modules(new ArrayList<>(List.of(module))).build();
+        module.setCourse(course);
+        when(courseRepository.findByIdAndDeletedFalse(COURSE)).thenReturn(Optional.of(course));
+        when(courseRepository.save(any(Course.class))).thenAnswer(call -> call.getArgument(0));
+    }
+
+    private static CourseUpdateRequest modules(ModuleDTO... modules) {
+        return CourseUpdateRequest.builder().modules(List.of(modules)).build();
+    }
+
+    private static ModuleDTO basics(List<VideoDTO> videos) {
+        return ModuleDTO.builder().id(10L).moduleName("Basics").videos(videos)
+                .documents(List.of(DocumentDTO.builder().id(31L).filename("slides.pdf").URL("https://cdn/slides.pdf").build()))
+                .build();
+    }
+
+    private static VideoDTO video(Long id, String filename) {
+        return VideoDTO.builder().id(id).filename(filename).URL("https://cdn/" + filename).build();
+    }
+
+    @Test
+    void createdTreeIsPersistedWithOneCascadingSave() {
+        Course created = Course.builder().title("Kafka").modules(new ArrayList<>()).build();
+        CourseRequestDTO request = CourseRequestDTO.builder().title("Kafka").modules(List.of(
+                ModuleRequestDTO.builder().moduleName("Producers").documents(List.of())
+                        .videos(List.of(VideoRequestDTO.builder().filename("a.mp4").build(),
+                                VideoRequestDTO.builder().filename("b.mp4").build()))
+                        .build(),
+                ModuleRequestDTO.builder().moduleName("Consumers").videos(List.of())
+                        .documents(List.of(DocumentRequestDTO.builder().filename("notes.pdf").build()))
+                        .build())).build();
+        when(conversion.toEntityFromRequest(request)).thenReturn(created);
+
+        courseService.createCourse(request, INSTRUCTOR);
+
+        assertEquals(INSTRUCTOR, created.getInstructorId());
+        assertEquals(List.of(0, 1), created.getModules().stream().map(Module::getPosition).toList());
+        Module producers = created.getModules().get(0);
+        assertEquals(List.of(0, 1), producers.getVideos().stream().map(Video::getPosition).toList());
+        assertSame(producers, producers.getVideos().get(1).getModule());
+        assertEquals("notes.pdf", created.getModules().get(1).getDocuments().get(0).getFilename());
+
+        InOrder order = inOrder(courseRepository, courseManifestService);
+        order.verify(courseRepository).save(created);
+        order.verify(courseManifestService).rebuild(created);
+        verifyNoInteractions(moduleRepository, videoRepository, documentRepository);
+    }
+
+    @Test
+    void unchangedTreeDoesNotRebuildTheManifest() {
+        courseService.updateCourse(COURSE, modules(basics(List.of(video(21L, "intro.mp4"), video(22L, "setup.mp4")))), INSTRUCTOR);
+
+        verify(courseManifestService, never()).rebuild(any());
+        verify(courseContentService, never()).deleteModules(any());
+        assertEquals(List.of(intro, setup), module.getVideos());
+    }
+
+    @Test
+    void diffKeepsIdsUpdatesInPlaceAndRemovesMissingEntries() {
+        // setup.mp4 is dropped, intro.mp4 is renamed and moved behind a new video
+        courseService.updateCourse(COURSE, modules(basics(List.of(
+                video(null, "welcome.mp4"), video(21L, "introduction.mp4")))), INSTRUCTOR);
+
+        List<Video> videos = module.getVideos();
+        assertEquals(2, videos.size());
+        assertEquals("welcome.mp4", videos.get(0).getFilename());
+        assertEquals(0, videos.get(0).getPosition());
+        assertSame(module, videos.get(0).getModule());
+        assertSame(intro, videos.get(1));
+        assertEquals("introduction.mp4", intro.getFilename());
+        assertEquals(1, intro.getPosition());
+
+        InOrder order = inOrder(courseRepository, courseManifestService);
+        order.verify(courseRepository).flush();
+        order.verify(courseManifestService).rebuild(course);
+    }
+
+    @Test
+    void missingModulesAreDeletedInBulkBeforeTheDiff() {
+        Course reloaded = Course.builder().id(COURSE).instructorId(INSTRUCTOR).title("Java").modules(new ArrayList<>()).build();
+        when(courseRepository.findByIdAndDeletedFalse(COURSE)).thenReturn(Optional.of(course), Optional.of(reloaded));
+
+        courseService.updateCourse(COURSE, modules(ModuleDTO.builder().moduleName("Advanced").build()), INSTRUCTOR);
+
+        verify(courseContentService).deleteModules(List.of(10L));
+        assertEquals(1, reloaded.getModules().size());
+        assertEquals("Advanced", reloaded.getModules().get(0).getModuleName());
+        verify(courseManifestService).rebuild(reloaded);
+    }
+
+    @Test
+    void idsFromAnotherModuleAreRejected() {
+        assertThrows(RuntimeException.class, () -> courseService.updateCourse(COURSE,
+                modules(basics(List.of(video(21L, "intro.mp4"), video(99L, "other.mp4")))), INSTRUCTOR));
+        assertThrows(RuntimeException.class, () -> courseService.updateCourse(COURSE,
+                modules(ModuleDTO.builder().id(99L).moduleName("Other").build()), INSTRUCTOR));
+
+        assertEquals(List.of(intro, setup), module.getVideos());
+        verify(courseManifestService, never()).rebuild(any());
+    }
+
+    private static EnrolledStudentDTO student(long enrollmentId, String name) {
+        return EnrolledStudentDTO.builder().enrollmentId(enrollmentId).studentId(enrollmentId + 100).name(name)
+                .email(name.toLowerCase() + "@mail.com").enrolledAt(LocalDateTime.of(2025, 3, 1, 10, 0))
+                .status(Status.ACTIVE).build();
+    }
+
+    @Test
+    void enrolledStudentsArePagedByTheLastEnrollmentIdForTheOwnerOnly() {
+        List<EnrolledStudentDTO> page = List.of(student(41L, "Asha"));
+        when(enrollmentRepository.findEnrolledStudents(COURSE, 40L, "Asha", PageRequest.of(0, 20))).thenReturn(page);
+        when(enrollmentRepository.findEnrolledStudents(COURSE, 0L, null, PageRequest.of(0, 20))).thenReturn(page);
+
+        assertSame(page, courseService.getEnrolledStudents(COURSE, INSTRUCTOR, false, " Asha ", 40L, 20));
+        assertSame(page, courseService.getEnrolledStudents(COURSE, 99L, true, " ", null, 20));
+        assertThrows(AccessDeniedException.class,
+                () -> courseService.getEnrolledStudents(COURSE, 99L, false, null, null, 20));
+    }
+
+    @Test
+    void exportWritesEscapedCsvPageByPage() throws Exception {
+        List<EnrolledStudentDTO> full = LongStream.rangeClosed(1, 1000).mapToObj(id -> student(id, "S" + id)).toList();
+        EnrolledStudentDTO quoted = student(1001L, "Doe, \"JD\"");
+        EnrolledStudentDTO formula = student(1002L, "=cmd");
+        formula.setCompletedAt(LocalDateTime.of(2025, 4, 1, 8, 30));
+        formula.setStatus(Status.COMPLETED);
+        when(enrollmentRepository.findEnrolledStudents(eq(COURSE), anyLong(), isNull(), eq(PageRequest.of(0, 1000))))
+                .thenReturn(full, List.of(quoted, formula));
+        StringWriter out = new StringWriter();
+
+        courseService.exportEnrolledStudents(COURSE, out);
+
+        verify(enrollmentRepository).findEnrolledStudents(COURSE, 0L, null, PageRequest.of(0, 1000));
+        verify(enrollmentRepository).findEnrolledStudents(COURSE, 1000L, null, PageRequest.of(0, 1000));
+        List<String> lines = out.toString().lines().toList();
+        assertEquals(1003, lines.size());
+        assertEquals("student_id,name,email,enrolled_at,completed_at,status", lines.get(0));
+        assertEquals("1101,\"Doe, \"\"JD\"\"\",\"doe, \"\"jd\"\"@mail.com\",2025-03-01T10:00,,ACTIVE", lines.get(1001));
+        assertEquals("1102,'=cmd,'=cmd@mail.com,2025-03-01T10:00,2025-04-01T08:30,COMPLETED", lines.get(1002));
+    }
+
+    @Test
+    void enrolledCountComesFromTheCourseCounter() {
+        CourseRepository.EnrollmentCountView counter = mock(CourseRepository.EnrollmentCountView.class);
+        when(counter.getInstructorId()).thenReturn(INSTRUCTOR);
+        when(counter.getEnrollmentCount()).thenReturn(42L);
+        when(courseRepository.findEnrollmentCountById(COURSE)).thenReturn(Optional.of(counter));
+
+        assertEquals(42L, courseService.countEnrolledStudents(COURSE, INSTRUCTOR, false));
+        assertEquals(42L, courseService.countEnrolledStudents(COURSE, 99L, true));
+        assertThrows(AccessDeniedException.class, () -> courseService.countEnrolledStudents(COURSE, 99L, false));
+        assertThrows(RuntimeException.class, () -> courseService.countEnrolledStudents(4L, INSTRUCTOR, false));
+        verifyNoInteractions(enrollmentRepository);
+    }
+
+    private static CourseRepository.InstructorCourseStats stats(long courseId, long enrolled, Long completed, Double revenue) {
+        CourseRepository.InstructorCourseStats stats = mock(CourseRepository.InstructorCourseStats.class);
+        when(stats.getCourseId()).thenReturn(courseId);
+        when(stats.getTitle()).thenReturn("Course " + courseId);
+        when(stats.getPrice()).thenReturn(new BigDecimal("499"));
+        when(stats.getEnrollmentCount()).thenReturn(enrolled);
+        when(stats.getCompletedCount()).thenReturn(completed);
+        when(stats.getRevenue()).thenReturn(revenue);
+        return stats;
+    }
+
+    @Test
+    void instructorSummaryMapsTheAggregateRows() {
+        CourseRepository.InstructorCourseStats reviewed = stats(3L, 8, 2L, 3992.0);
+        when(reviewed.getAverageRating()).thenReturn(4.5);
+        when(reviewed.getReviewCount()).thenReturn(6L);
+        CourseRepository.InstructorCourseStats unsold = stats(4L, 0, null, null);
+        when(unsold.getAverageRating()).thenReturn(null);
+        when(unsold.getReviewCount()).thenReturn(null);
+        when(courseRepository.findInstructorCourseStats(INSTRUCTOR)).thenReturn(List.of(reviewed, unsold));
+
+        List<InstructorCourseSummaryDTO> summary = courseService.getInstructorSummary(INSTRUCTOR);
+
+        assertEquals(2, summary.size());
+        InstructorCourseSummaryDTO first = summary.get(0);
+        assertEquals(3L, first.getCourseId());
+        assertEquals(0.25, first.getCompletionRate());
+        assertEquals(4.5, first.getAverageRating());
+        assertEquals(6, first.getReviewCount());
+        assertEquals(3992.0, first.getRevenue());
+        // a course nobody enrolled in has no reviews, payments or completions yet
+        InstructorCourseSummaryDTO empty = summary.get(1);
+        assertEquals(0, empty.getCompletedCount());
+        assertEquals(0.0, empty.getCompletionRate());
+        assertNull(empty.getAverageRating());
+        assertEquals(0, empty.getReviewCount());
+        assertEquals(0.0, empty.getRevenue());
+    }
+}
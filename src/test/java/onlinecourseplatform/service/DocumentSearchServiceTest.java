@@ -0,0 +1,114 @@
+package onlinecourseplatform.service;
+
+import onlinecourseplatform.dto.responseDTOs.DocumentSearchHitDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DocumentSearchServiceTest {
+
+    private static final long COURSE = 3L;
+    private static final long KAFKA_PDF = 100L;
+    private static final long NOTES_PDF = 200L;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final DocumentSearchService searchService = new DocumentSearchService(jdbcTemplate);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(jdbcTemplate.query(startsWith("SELECT document_id, course_id, COALESCE(revision, 0)"), any(RowMapper.class)))
+                .thenAnswer(rows(new Object[]{KAFKA_PDF, COURSE, 4L}, new Object[]{NOTES_PDF, 4L, 5L}));
+        when(jdbcTemplate.query(startsWith("SELECT id, module_id, page_number, text"), any(RowMapper.class), eq(KAFKA_PDF)))
+                .thenAnswer(rows(
+                        new Object[]{1001L, 10L, 1, "Kafka stores records in partitions spread over brokers"},
+                        new Object[]{1002L, 10L, 2, "Consumer groups split the partitions of a topic"}));
+        when(jdbcTemplate.query(startsWith("SELECT id, module_id, page_number, text"), any(RowMapper.class), eq(NOTES_PDF)))
+                .thenAnswer(rows(new Object[]{2001L, 20L, 1, "Partitions of a set"}));
+        when(jdbcTemplate.queryForList(startsWith("SELECT document_id FROM document_text_index"), eq(Long.class)))
+                .thenReturn(List.of(KAFKA_PDF, NOTES_PDF));
+        doAnswer(rows(
+                new Object[]{1001L, "Kafka stores records in partitions spread over brokers", "kafka.pdf"},
+                new Object[]{1002L, "Consumer groups split the partitions of a topic", "kafka.pdf"}))
+                .when(jdbcTemplate).query(startsWith("SELECT p.id, p.text"), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    /**
+     * Feeds the rows to the RowMapper or RowCallbackHandler passed as the second argument, by column position.
+     */
+    private static Answer<Object> rows(Object[]... rows) {
+        return call -> {
+            List<Object> mapped = new ArrayList<>();
+            for (int i = 0; i < rows.length; i++) {
+                ResultSet rs = mock(ResultSet.class);
+                for (int column = 1; column <= rows[i].length; column++) {
+                    Object value = rows[i][column - 1];
+                    if (value instanceof Number number) {
+                        when(rs.getLong(column)).thenReturn(number.longValue());
+                        when(rs.getInt(column)).thenReturn(number.intValue());
+                    } else {
+                        when(rs.getString(column)).thenReturn((String) value);
+                    }
+                }
+                if (call.getArgument(1) instanceof RowMapper<?> mapper) {
+                    mapped.add(mapper.mapRow(rs, i));
+                } else {
+                    ((RowCallbackHandler) call.getArgument(1)).processRow(rs);
+                }
+            }
+            return mapped;
+        };
+    }
+
+    @Test
+    void findsPagesOfTheCourseWithSnippets() {
+        assertTrue(searchService.search(COURSE, "partition", 10).isEmpty()); // nothing loaded yet
+
+        searchService.refresh();
+        List<DocumentSearchHitDTO> hits = searchService.search(COURSE, "partition", 10);
+
+        assertEquals(2, hits.size());
+        assertEquals(List.of(1, 2), hits.stream().map(DocumentSearchHitDTO::getPage).sorted().toList());
+        DocumentSearchHitDTO hit = hits.get(0);
+        assertEquals(KAFKA_PDF, hit.getDocumentId());
+        assertEquals(10L, hit.getModuleId());
+        assertEquals("kafka.pdf", hit.getFilename());
+        assertTrue(hit.getSnippet().contains("partitions"));
+        assertTrue(searchService.search(COURSE, "consumer", 10).stream().allMatch(h -> h.getPage() == 2));
+        assertTrue(searchService.search(99L, "partition", 10).isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void followsReindexedAndRemovedDocuments() {
+        searchService.refresh();
+
+        // the Kafka document was re-extracted with a single page and the notes lost their text
+        when(jdbcTemplate.query(startsWith("SELECT document_id, course_id, revision"), any(RowMapper.class), eq(5L)))
+                .thenAnswer(rows(new Object[]{KAFKA_PDF, COURSE, 6L}));
+        when(jdbcTemplate.query(startsWith("SELECT id, module_id, page_number, text"), any(RowMapper.class), eq(KAFKA_PDF)))
+                .thenAnswer(rows(new Object[]{1003L, 10L, 1, "Consumer offsets"}));
+        when(jdbcTemplate.queryForList(startsWith("SELECT document_id FROM document_text_index"), eq(Long.class)))
+                .thenReturn(List.of(KAFKA_PDF));
+        searchService.refresh();
+
+        assertTrue(searchService.search(COURSE, "partition", 10).isEmpty());
+        assertTrue(searchService.search(4L, "partition", 10).isEmpty());
+    }
+}
@@ -0,0 +1,127 @@
+package onlinecourseplatform.service;
+
+import onlinecourseplatform.enrollment.EnrollmentBitmapIndex.Membership;
+import onlinecourseplatform.entity.Status;
+import onlinecourseplatform.event.CourseChangedEvent;
+import onlinecourseplatform.event.EnrollmentChangedEvent;
+import onlinecourseplatform.event.EnrollmentCompletedEvent;
+import onlinecourseplatform.repository.EnrollmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EnrollmentIndexServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final EnrollmentRepository enrollmentRepository = mock(EnrollmentRepository.class);
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+    private final EnrollmentIndexService indexService =
+            new EnrollmentIndexService(jdbcTemplate, enrollmentRepository, redisTemplate);
+
+    @BeforeEach
+    void setUp() {
+        // (course, student, status) of live courses
+        Object[][] rows = {{3L, 7L, "ACTIVE"}, {3L, 8L, "COMPLETED"}, {4L, 7L, "ACTIVE"}};
+        doAnswer(call -> {
+            RowCallbackHandler handler = call.getArgument(1);
+            for (Object[] row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong(1)).thenReturn((Long) row[0]);
+                when(rs.getLong(2)).thenReturn((Long) row[1]);
+                when(rs.getString(3)).thenReturn((String) row[2]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        when(enrollmentRepository.findStatusByStudentIdAndCourseId(anyLong(), anyLong())).thenReturn(Optional.empty());
+    }
+
+    private static Message message(String body) {
+        Message message = mock(Message.class);
+        when(message.getBody()).thenReturn(body.getBytes(StandardCharsets.UTF_8));
+        return message;
+    }
+
+    @Test
+    void answersFromTheLoadedIndexAndConfirmsMissesInTheDatabase() {
+        when(enrollmentRepository.findStatusByStudentIdAndCourseId(9L, 3L)).thenReturn(Optional.of(Status.ACTIVE));
+        assertNull(indexService.courseIdsOf(7L)); // not loaded yet
+
+        indexService.warmUp();
+
+        assertEquals(Membership.ENROLLED, indexService.membership(7L, 3L));
+        assertEquals(Membership.COMPLETED, indexService.membership(8L, 3L));
+        assertArrayEquals(new long[]{3, 4}, indexService.courseIdsOf(7L));
+        verify(enrollmentRepository, never()).findStatusByStudentIdAndCourseId(7L, 3L);
+
+        // enrolled after the load on a node whose broadcast was missed: confirmed once, then kept
+        assertTrue(indexService.isEnrolled(9L, 3L));
+        assertTrue(indexService.isEnrolled(9L, 3L));
+        verify(enrollmentRepository, times(1)).findStatusByStudentIdAndCourseId(9L, 3L);
+        assertFalse(indexService.isEnrolled(8L, 4L));
+    }
+
+    @Test
+    void eventsUpdateTheIndexAndReachOtherNodes() {
+        indexService.warmUp();
+        EnrollmentIndexService otherNode = new EnrollmentIndexService(jdbcTemplate, enrollmentRepository, redisTemplate);
+        otherNode.warmUp();
+
+        indexService.onEnrollmentChanged(new EnrollmentChangedEvent(4L, List.of(8L, 9L), 2));
+        indexService.onEnrollmentChanged(new EnrollmentChangedEvent(3L, 7L, -1));
+        indexService.onEnrollmentCompleted(new EnrollmentCompletedEvent(4L, 9L));
+
+        assertEquals(Membership.ENROLLED, indexService.membership(8L, 4L));
+        assertEquals(Membership.COMPLETED, indexService.membership(9L, 4L));
+        assertEquals(Membership.NOT_ENROLLED, indexService.membership(7L, 3L));
+
+        ArgumentCaptor<String> broadcasts = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate, times(3)).convertAndSend(eq(EnrollmentIndexService.CHANGES_CHANNEL), broadcasts.capture());
+        broadcasts.getAllValues().forEach(body -> {
+            otherNode.onMessage(message(body), null);
+            indexService.onMessage(message(body), null); // a node ignores its own broadcasts
+        });
+
+        assertEquals(Membership.ENROLLED, otherNode.membership(8L, 4L));
+        assertEquals(Membership.COMPLETED, otherNode.membership(9L, 4L));
+        assertEquals(Membership.NOT_ENROLLED, otherNode.membership(7L, 3L));
+        assertArrayEquals(new long[]{3, 4}, indexService.courseIdsOf(8L));
+    }
+
+    @Test
+    void deletedCourseLeavesTheIndex() {
+        indexService.warmUp();
+
+        indexService.onCourseChanged(new CourseChangedEvent(3L, CourseChangedEvent.Change.DELETED));
+
+        assertArrayEquals(new long[]{4}, indexService.courseIdsOf(7L));
+        assertFalse(indexService.isEnrolled(8L, 3L));
+        verify(enrollmentRepository).findStatusByStudentIdAndCourseId(8L, 3L);
+    }
+}
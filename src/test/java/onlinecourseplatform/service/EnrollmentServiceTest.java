@@ -0,0 +1,204 @@
+package onlinecourseplatform.service;
+
+import onlinecourseplatform.dto.responseDTOs.BulkEnrollmentItemDTO;
+import onlinecourseplatform.dto.responseDTOs.BulkEnrollmentResponse;
+import onlinecourseplatform.dto.responseDTOs.EnrollmentResponseDTO;
+import onlinecourseplatform.entity.Course;
+import onlinecourseplatform.entity.Enrollment;
+import onlinecourseplatform.entity.Status;
+import onlinecourseplatform.event.CourseActivityEvent;
+import onlinecourseplatform.event.EnrollmentChangedEvent;
+import onlinecourseplatform.repository.CourseRepository;
+import onlinecourseplatform.repository.EnrollmentRepository;
+import onlinecourseplatform.utility.Conversion;
+import onlinecourseplatform.utility.Utility;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.stubbing.Answer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static onlinecourseplatform.dto.responseDTOs.BulkEnrollmentItemDTO.Result.ALREADY_ENROLLED;
+import static onlinecourseplatform.dto.responseDTOs.BulkEnrollmentItemDTO.Result.COURSE_NOT_FOUND;
+import static onlinecourseplatform.dto.responseDTOs.BulkEnrollmentItemDTO.Result.CREATED;
+import static onlinecourseplatform.dto.responseDTOs.BulkEnrollmentItemDTO.Result.STUDENT_NOT_FOUND;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class EnrollmentServiceTest {
+
+    private static final Long STUDENT = 7L;
+    private static final Long COURSE = 3L;
+
+    private final EnrollmentRepository enrollmentRepository = mock(EnrollmentRepository.class);
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    private final Conversion conversion = mock(Conversion.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private EnrollmentService enrollmentService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        enrollmentService = new EnrollmentService(enrollmentRepository, courseRepository, conversion, mock(Utility.class),
+                eventPublisher, transactionTemplate, jdbcTemplate, mock(EnrollmentIndexService.class));
+        when(transactionTemplate.execute(any())).thenAnswer(call -> ((TransactionCallback<Object>) call.getArgument(0)).doInTransaction(null));
+
+        // The unique (student_id, course_id) key: INSERT IGNORE reports 0 once the row exists
+        Set<Long> enrolled = new HashSet<>();
+        when(enrollmentRepository.insertIfAbsent(eq(STUDENT), eq(COURSE), any())).thenAnswer(call -> enrolled.add(STUDENT) ? 1 : 0);
+        Course course = Course.builder().id(COURSE).instructorId(1L).build();
+        when(enrollmentRepository.findByStudentIdAndCourseId(STUDENT, COURSE)).thenReturn(Enrollment.builder()
+                .id(11L).studentId(STUDENT).course(course).enrolledAt(LocalDateTime.now()).status(Status.ACTIVE).build());
+        when(conversion.toResponseDto(any(Enrollment.class))).thenReturn(new EnrollmentResponseDTO());
+    }
+
+    @Test
+    void enrollingTwiceCountsOnce() {
+        assertTrue(enrollmentService.enroll(STUDENT, COURSE).created());
+        assertFalse(enrollmentService.enroll(STUDENT, COURSE).created());
+
+        verify(courseRepository, times(1)).adjustEnrollmentCount(COURSE, 1);
+        verify(eventPublisher, times(1)).publishEvent(any(EnrollmentChangedEvent.class));
+        verify(eventPublisher, times(1)).publishEvent(any(CourseActivityEvent.class));
+    }
+
+    @Test
+    void lockConflictIsRetriedInANewTransaction() {
+        doThrow(new CannotAcquireLockException("Deadlock found")).doReturn(1)
+                .when(enrollmentRepository).insertIfAbsent(eq(STUDENT), eq(COURSE), any());
+
+        assertTrue(enrollmentService.enroll(STUDENT, COURSE).created());
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(courseRepository, times(1)).adjustEnrollmentCount(COURSE, 1);
+    }
+
+    @Test
+    void persistentLockConflictGivesUpAfterThreeAttempts() {
+        doThrow(new CannotAcquireLockException("Deadlock found"))
+                .when(enrollmentRepository).insertIfAbsent(eq(STUDENT), eq(COURSE), any());
+
+        assertThrows(CannotAcquireLockException.class, () -> enrollmentService.enroll(STUDENT, COURSE));
+        verify(transactionTemplate, times(3)).execute(any());
+        verifyNoInteractions(courseRepository, eventPublisher);
+    }
+
+    @Test
+    void enrollingInAMissingCourseFails() {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> enrollmentService.enroll(STUDENT, 4L));
+
+        assertEquals("Course not found with ID: 4", e.getMessage());
+        verifyNoInteractions(courseRepository, eventPublisher);
+    }
+
+    /** Feeds each row to the RowCallbackHandler as longs, with price in column 3 where the query selects it. */
+    private static Answer<Void> rows(long[]... rows) {
+        return call -> {
+            RowCallbackHandler handler = call.getArgument(1);
+            for (long[] row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                for (int column = 1; column <= row.length; column++) {
+                    when(rs.getLong(column)).thenReturn(row[column - 1]);
+                }
+                when(rs.getBigDecimal(3)).thenReturn(BigDecimal.TEN);
+                handler.processRow(rs);
+            }
+            return null;
+        };
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bulkEnrollReportsEachPairAndCountsPerCourse() {
+        // 99 is not a student, course 4 is deleted, student 7 already takes course 3
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM users"), eq(Long.class), any(Object[].class)))
+                .thenReturn(List.of(7L, 8L));
+        doAnswer(rows(new long[]{3, 1}, new long[]{5, 2})).when(jdbcTemplate)
+                .query(startsWith("SELECT id, instructor_id, price FROM courses"), any(RowCallbackHandler.class), any(Object[].class));
+        doAnswer(rows(new long[]{7, 3})).when(jdbcTemplate)
+                .query(startsWith("SELECT student_id, course_id FROM enrollments"), any(RowCallbackHandler.class), any(Object[].class));
+
+        BulkEnrollmentResponse response = enrollmentService.bulkEnroll(List.of(7L, 8L, 99L, 7L), List.of(3L, 4L, 5L));
+
+        assertEquals(3, response.getCreated());
+        assertEquals(1, response.getAlreadyEnrolled());
+        assertEquals(5, response.getRejected());
+        assertEquals(List.of(
+                new BulkEnrollmentItemDTO(7L, 3L, ALREADY_ENROLLED),
+                new BulkEnrollmentItemDTO(8L, 3L, CREATED),
+                new BulkEnrollmentItemDTO(99L, 3L, STUDENT_NOT_FOUND),
+                new BulkEnrollmentItemDTO(7L, 4L, COURSE_NOT_FOUND),
+                new BulkEnrollmentItemDTO(8L, 4L, COURSE_NOT_FOUND),
+                new BulkEnrollmentItemDTO(99L, 4L, STUDENT_NOT_FOUND),
+                new BulkEnrollmentItemDTO(7L, 5L, CREATED),
+                new BulkEnrollmentItemDTO(8L, 5L, CREATED),
+                new BulkEnrollmentItemDTO(99L, 5L, STUDENT_NOT_FOUND)), response.getItems());
+
+        ArgumentCaptor<List<Object[]>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO enrollments"), inserted.capture());
+        assertEquals(List.of("8:3", "7:5", "8:5"), inserted.getValue().stream().map(row -> row[0] + ":" + row[1]).toList());
+
+        verify(courseRepository).adjustEnrollmentCount(3L, 1);
+        verify(courseRepository).adjustEnrollmentCount(5L, 2);
+        verify(courseRepository, never()).adjustEnrollmentCount(eq(4L), anyLong());
+        verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof EnrollmentChangedEvent c
+                && c.getCourseId() == 5L && c.getStudentIds().equals(List.of(7L, 8L)) && c.getDelta() == 2));
+        verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof CourseActivityEvent a
+                && a.getCourseId() == 3L && a.getInstructorId() == 1L));
+        verify(eventPublisher, times(4)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void bulkEnrollWithNoLiveCourseInsertsNothing() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM users"), eq(Long.class), any(Object[].class)))
+                .thenReturn(List.of(7L));
+
+        BulkEnrollmentResponse response = enrollmentService.bulkEnroll(List.of(7L), List.of(4L));
+
+        assertEquals(List.of(new BulkEnrollmentItemDTO(7L, 4L, COURSE_NOT_FOUND)), response.getItems());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verifyNoInteractions(courseRepository, eventPublisher);
+    }
+
+    @Test
+    void bulkEnrollRejectsEmptyAndOversizedRequests() {
+        List<Long> students = LongStream.rangeClosed(1, 101).boxed().toList();
+        List<Long> courses = LongStream.rangeClosed(1, 100).boxed().toList();
+
+        assertThrows(RuntimeException.class, () -> enrollmentService.bulkEnroll(List.of(), List.of(COURSE)));
+        assertThrows(RuntimeException.class, () -> enrollmentService.bulkEnroll(List.of(STUDENT), List.of()));
+        assertThrows(RuntimeException.class, () -> enrollmentService.bulkEnroll(students, courses));
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
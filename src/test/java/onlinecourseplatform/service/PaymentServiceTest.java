@@ -0,0 +1,87 @@
+package onlinecourseplatform.service;
+
+import onlinecourseplatform.entity.Course;
+import onlinecourseplatform.entity.Payment;
+import onlinecourseplatform.entity.User;
+import onlinecourseplatform.event.CourseActivityEvent;
+import onlinecourseplatform.repository.CourseRepository;
+import onlinecourseplatform.repository.PaymentRepository;
+import onlinecourseplatform.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentServiceTest {
+
+    private static final Long STUDENT = 7L;
+    private static final Long COURSE = 3L;
+
+    private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final List<Course> savedCourses = new ArrayList<>();
+    private PaymentService paymentService;
+
+    @BeforeEach
+    void setUp() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findById(STUDENT)).thenReturn(Optional.of(User.builder().id(STUDENT).build()));
+        paymentService = new PaymentService(paymentRepository, userRepository, courseRepository, eventPublisher);
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(call -> {
+            Payment payment = call.getArgument(0);
+            savedCourses.add(payment.getCourse());
+            return payment;
+        });
+    }
+
+    @Test
+    void recordsPaymentsForSoftDeletedCourses() {
+        when(courseRepository.findById(COURSE)).thenReturn(Optional.of(Course.builder().id(COURSE).instructorId(1L).deleted(true).build()));
+
+        paymentService.savePayment("order", "pay", "sig", 499.0, STUDENT, COURSE);
+
+        assertEquals(COURSE, savedCourses.get(0).getId());
+        verify(eventPublisher).publishEvent(any(CourseActivityEvent.class));
+    }
+
+    @Test
+    void recordsPaymentsWithoutACourseOncePurged() {
+        when(courseRepository.findById(COURSE)).thenReturn(Optional.empty());
+
+        paymentService.savePayment("order", "pay", "sig", 499.0, STUDENT, COURSE);
+
+        assertEquals(1, savedCourses.size());
+        assertNull(savedCourses.get(0));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void retriesWithoutTheCourseWhenThePurgeWinsTheRace() {
+        when(courseRepository.findById(COURSE)).thenReturn(Optional.of(Course.builder().id(COURSE).instructorId(1L).deleted(true).build()));
+        when(paymentRepository.save(any(Payment.class)))
+                .thenThrow(new DataIntegrityViolationException("fk"))
+                .thenAnswer(call -> {
+                    savedCourses.add(call.getArgument(0, Payment.class).getCourse());
+                    return call.getArgument(0);
+                });
+
+        paymentService.savePayment("order", "pay", "sig", 499.0, STUDENT, COURSE);
+
+        assertEquals(1, savedCourses.size());
+        assertNull(savedCourses.get(0));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+}
@@ -0,0 +1,131 @@
+package onlinecourseplatform.service;
+
+import onlinecourseplatform.event.CourseChangedEvent;
+import onlinecourseplatform.event.EnrollmentChangedEvent;
+import onlinecourseplatform.repository.CourseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PopularCourseServiceTest {
+
+    private static final String RANKING_KEY = "POPULAR:COURSES";
+
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ZSetOperations<String, String> zSet = mock(ZSetOperations.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> values = mock(ValueOperations.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private PopularCourseService popularCourseService;
+
+    @BeforeEach
+    void setUp() {
+        popularCourseService = new PopularCourseService(courseRepository, redisTemplate, jdbcTemplate);
+        ReflectionTestUtils.setField(popularCourseService, "refreshSeconds", 5L);
+        ReflectionTestUtils.setField(popularCourseService, "ttlMinutes", 60L);
+        ReflectionTestUtils.setField(popularCourseService, "reconcileLockSeconds", 600L);
+        popularCourseService.init();
+        when(redisTemplate.opsForZSet()).thenReturn(zSet);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+    }
+
+    @AfterEach
+    void tearDown() {
+        popularCourseService.shutdown();
+    }
+
+    @Test
+    void similarLimitsShareOneCachedRanking() {
+        when(zSet.reverseRangeByScore(RANKING_KEY, 1, Double.POSITIVE_INFINITY, 0, 5))
+                .thenReturn(new LinkedHashSet<>(List.of("4", "2", "9")));
+
+        assertEquals(List.of(4L, 2L), popularCourseService.topCourseIds(2));
+        assertEquals(List.of(4L, 2L, 9L), popularCourseService.topCourseIds(5));
+
+        verify(zSet, times(1)).reverseRangeByScore(RANKING_KEY, 1, Double.POSITIVE_INFINITY, 0, 5);
+    }
+
+    @Test
+    void fallsBackToTheCounterColumnWithoutRedis() {
+        when(zSet.reverseRangeByScore(RANKING_KEY, 1, Double.POSITIVE_INFINITY, 0, 10))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        when(courseRepository.findIdsOrderByEnrollmentCount(any())).thenReturn(List.of(7L, 3L));
+
+        assertEquals(List.of(7L, 3L), popularCourseService.topCourseIds(10));
+    }
+
+    @Test
+    void enrollmentChangesMoveTheScore() {
+        popularCourseService.onEnrollmentChanged(new EnrollmentChangedEvent(3L, List.of(7L, 8L), 2));
+        popularCourseService.onEnrollmentChanged(new EnrollmentChangedEvent(3L, 7L, -1));
+
+        verify(zSet).incrementScore(RANKING_KEY, "3", 2);
+        verify(zSet).incrementScore(RANKING_KEY, "3", -1);
+    }
+
+    @Test
+    void deletedCourseLeavesTheCachedRankingAndTheSortedSet() {
+        when(zSet.reverseRangeByScore(RANKING_KEY, 1, Double.POSITIVE_INFINITY, 0, 5))
+                .thenReturn(new LinkedHashSet<>(List.of("4", "2", "9")));
+        popularCourseService.topCourseIds(5);
+
+        popularCourseService.onCourseChanged(new CourseChangedEvent(2L, CourseChangedEvent.Change.DELETED));
+
+        assertEquals(List.of(4L, 9L), popularCourseService.topCourseIds(5));
+        verify(zSet).remove(RANKING_KEY, "2");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reconciliationFixesCountersAndSwapsInARebuiltSet() {
+        when(values.setIfAbsent(eq("POPULAR:COURSES:RECONCILE"), anyString(), any(Duration.class))).thenReturn(true);
+        when(courseRepository.findEnrollmentCounts()).thenReturn(List.of(new Object[]{3L, 12L}, new Object[]{4L, 1L}));
+
+        popularCourseService.reconcile();
+
+        verify(jdbcTemplate).update(startsWith("UPDATE courses c LEFT JOIN"));
+        verify(zSet).unionAndStore(eq(RANKING_KEY), eq(List.of()), startsWith("POPULAR:COURSES:SNAPSHOT:"));
+        verify(zSet).add(startsWith("POPULAR:COURSES:REBUILD:"), eq(Set.<ZSetOperations.TypedTuple<String>>of(
+                new DefaultTypedTuple<>("3", 12.0), new DefaultTypedTuple<>("4", 1.0))));
+        verify(redisTemplate).execute(any(RedisScript.class),
+                argThat((List<String> keys) -> keys.size() == 3 && keys.get(1).equals(RANKING_KEY)));
+    }
+
+    @Test
+    void reconciliationRunsOnOneNodeAtATime() {
+        when(values.setIfAbsent(eq("POPULAR:COURSES:RECONCILE"), anyString(), any(Duration.class))).thenReturn(false);
+
+        popularCourseService.reconcile();
+
+        verify(jdbcTemplate, never()).update(anyString());
+        verify(courseRepository, never()).findEnrollmentCounts();
+    }
+}
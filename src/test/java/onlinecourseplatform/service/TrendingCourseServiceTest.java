@@ -0,0 +1,119 @@
+package onlinecourseplatform.service;
+
+import onlinecourseplatform.event.CourseChangedEvent;
+import onlinecourseplatform.event.EnrollmentChangedEvent;
+import onlinecourseplatform.repository.CourseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TrendingCourseServiceTest {
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final RedisOperations<String, String> operations = mock(RedisOperations.class);
+    @SuppressWarnings("unchecked")
+    private final HashOperations<String, Object, Object> hashes = mock(HashOperations.class);
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    private final TrendingCourseService trendingService = new TrendingCourseService(redisTemplate, courseRepository);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(trendingService, "windowHours", 48);
+        ReflectionTestUtils.setField(trendingService, "halfLifeHours", 12.0);
+        ReflectionTestUtils.setField(trendingService, "enrollmentWeight", 5L);
+        ReflectionTestUtils.setField(trendingService, "viewWeight", 1L);
+        when(operations.opsForHash()).thenReturn(hashes);
+        pipelineReplies(key -> Map.of());
+    }
+
+    /**
+     * Runs pipelined callbacks against the operations mock and answers each bucket read with {@code bucket}.
+     */
+    @SuppressWarnings("unchecked")
+    private void pipelineReplies(Function<String, Map<Object, Object>> bucket) {
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(call -> {
+            List<String> keys = new ArrayList<>();
+            when(hashes.entries(anyString())).thenAnswer(read -> {
+                keys.add(read.getArgument(0));
+                return null;
+            });
+            ((SessionCallback<Object>) call.getArgument(0)).execute(operations);
+            return keys.stream().map(bucket).toList();
+        });
+    }
+
+    @Test
+    void flushPushesAggregatedPointsIntoTheCurrentBuckets() {
+        trendingService.recordView(3L);
+        trendingService.recordView(3L);
+        trendingService.onEnrollmentChanged(new EnrollmentChangedEvent(3L, List.of(7L, 8L), 2));
+        trendingService.onEnrollmentChanged(new EnrollmentChangedEvent(4L, 7L, -1)); // removals are not activity
+
+        trendingService.flush();
+        trendingService.flush(); // nothing new
+
+        verify(hashes).increment(startsWith("TRENDING:M:"), eq("3"), eq(12L));
+        verify(hashes).increment(startsWith("TRENDING:H:"), eq("3"), eq(12L));
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+    }
+
+    @Test
+    void pointsSurviveAFailedFlush() {
+        trendingService.recordView(3L);
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("down"))
+                .thenAnswer(call -> ((SessionCallback<?>) call.getArgument(0)).execute(operations));
+
+        trendingService.flush();
+        trendingService.recordView(3L);
+        trendingService.flush();
+
+        verify(hashes).increment(startsWith("TRENDING:M:"), eq("3"), eq(2L));
+    }
+
+    @Test
+    void ranksByDecayedActivityAndSkipsDeletedCourses() {
+        long hour = System.currentTimeMillis() / 3_600_000;
+        long oldestHour = hour - 47;
+        pipelineReplies(key -> {
+            if (key.startsWith("TRENDING:M:") && Long.parseLong(key.substring(11)) / 60 == hour) {
+                return Map.of("3", "20", "6", "10"); // this hour
+            }
+            if (key.equals("TRENDING:H:" + oldestHour)) {
+                return Map.of("4", "100"); // about four half-lives ago
+            }
+            return Map.of();
+        });
+        when(courseRepository.findLiveIdsByIdIn(any())).thenReturn(List.of(3L, 4L)); // course 6 was deleted
+
+        trendingService.refresh();
+
+        assertEquals(List.of(3L, 4L), trendingService.topCourseIds(10));
+        assertEquals(List.of(3L), trendingService.topCourseIds(1));
+
+        trendingService.onCourseChanged(new CourseChangedEvent(3L, CourseChangedEvent.Change.DELETED));
+        assertEquals(List.of(4L), trendingService.topCourseIds(10));
+    }
+}
@@ -0,0 +1,83 @@
+package onlinecourseplatform.service;
+
+import onlinecourseplatform.entity.Role;
+import onlinecourseplatform.entity.User;
+import onlinecourseplatform.event.CourseChangedEvent;
+import onlinecourseplatform.event.EnrollmentChangedEvent;
+import onlinecourseplatform.repository.AssetCompletionRepository;
+import onlinecourseplatform.repository.CourseRepository;
+import onlinecourseplatform.repository.EnrollmentRepository;
+import onlinecourseplatform.repository.FeedbackRepository;
+import onlinecourseplatform.repository.PaymentRepository;
+import onlinecourseplatform.repository.UserRepository;
+import onlinecourseplatform.repository.VideoProgressRepository;
+import onlinecourseplatform.utility.Conversion;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserServiceTest {
+
+    private static final Long STUDENT = 7L;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final EnrollmentRepository enrollmentRepository = mock(EnrollmentRepository.class);
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    private final FeedbackRepository feedbackRepository = mock(FeedbackRepository.class);
+    private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+    private final VideoProgressRepository videoProgressRepository = mock(VideoProgressRepository.class);
+    private final AssetCompletionRepository assetCompletionRepository = mock(AssetCompletionRepository.class);
+    private final RedisService redisService = mock(RedisService.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final UserService userService = new UserService(userRepository, mock(PasswordEncoder.class), mock(Conversion.class),
+            enrollmentRepository, courseRepository, feedbackRepository, paymentRepository, videoProgressRepository,
+            assetCompletionRepository, redisService, eventPublisher);
+
+    @Test
+    void deletingAStudentRemovesTheirRowsInBulkAndFixesTheCounters() {
+        when(userRepository.findById(STUDENT)).thenReturn(Optional.of(User.builder().id(STUDENT).role(Role.STUDENT).build()));
+        when(feedbackRepository.findCourseIdsByStudentId(STUDENT)).thenReturn(List.of(3L));
+        // two legacy duplicate rows in course 5 each take one off its counter
+        when(enrollmentRepository.findCourseIdsByStudentId(STUDENT)).thenReturn(List.of(3L, 5L, 5L));
+
+        userService.deleteUser(STUDENT);
+
+        verify(enrollmentRepository).deleteByStudentId(STUDENT);
+        verify(courseRepository).adjustEnrollmentCount(3L, -1);
+        verify(courseRepository).adjustEnrollmentCount(5L, -2);
+        verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof EnrollmentChangedEvent changed
+                && changed.getCourseId() == 5L && changed.getDelta() == -2));
+        verify(feedbackRepository).deleteByStudentId(STUDENT);
+        verify(paymentRepository).detachUser(STUDENT);
+        verify(videoProgressRepository).deleteByStudentId(STUDENT);
+        verify(assetCompletionRepository).deleteByStudentId(STUDENT);
+        verify(userRepository).deleteById(STUDENT);
+        verify(redisService).deleteToken(STUDENT);
+        verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof CourseChangedEvent changed
+                && changed.getCourseId() == 3L && changed.getChange() == CourseChangedEvent.Change.FEEDBACK));
+        verify(eventPublisher, times(3)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void adminsAreNotDeleted() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(User.builder().id(1L).role(Role.ADMIN).build()));
+
+        assertThrows(RuntimeException.class, () -> userService.deleteUser(1L));
+
+        verify(enrollmentRepository, never()).deleteByStudentId(anyLong());
+        verify(userRepository, never()).deleteById(anyLong());
+    }
+}
@@ -0,0 +1,129 @@
+package onlinecourseplatform.service;
+
+import onlinecourseplatform.entity.AssetType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WatchProgressServiceTest {
+
+    private static final Long STUDENT = 7L;
+    private static final Long COURSE = 3L;
+    private static final Long VIDEO = 21L;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final CourseProgressService courseProgressService = mock(CourseProgressService.class);
+    private WatchProgressService progressService;
+
+    @BeforeEach
+    void setUp() {
+        EnrollmentIndexService enrollmentIndexService = mock(EnrollmentIndexService.class);
+        when(enrollmentIndexService.isEnrolled(STUDENT, COURSE)).thenReturn(true);
+        progressService = new WatchProgressService(jdbcTemplate, enrollmentIndexService, courseProgressService);
+        ReflectionTestUtils.setField(progressService, "flushBatchSize", 100);
+        ReflectionTestUtils.setField(progressService, "videoCompletePercent", 30);
+        ReflectionTestUtils.setField(progressService, "videoCacheSize", 100L);
+        ReflectionTestUtils.setField(progressService, "maxPlaybackRate", 2.0);
+        ReflectionTestUtils.setField(progressService, "heartbeatSlackSeconds", 5);
+        ReflectionTestUtils.setField(progressService, "durationToleranceSeconds", 2);
+        progressService.init();
+        when(jdbcTemplate.query(startsWith("SELECT position_seconds"), any(RowMapper.class), any(Object[].class))).thenReturn(List.of());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void video(Integer durationSeconds) {
+        when(jdbcTemplate.query(startsWith("SELECT m.course_id"), any(RowMapper.class), eq(VIDEO))).thenAnswer(call -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong(1)).thenReturn(COURSE);
+            when(rs.getObject(2, Integer.class)).thenReturn(durationSeconds);
+            return List.of(((RowMapper<Object>) call.getArgument(1)).mapRow(rs, 0));
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> flushedRows() {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rows.capture());
+        return rows.getValue();
+    }
+
+    @Test
+    void onlyRealPlaybackCountsAsWatched() {
+        video(10);
+
+        progressService.heartbeat(STUDENT, VIDEO, 0, 10);
+        progressService.heartbeat(STUDENT, VIDEO, 4, 10);
+        progressService.heartbeat(STUDENT, VIDEO, 10, 10); // seek to the end
+        when(courseProgressService.recordCompletion(STUDENT, COURSE, AssetType.VIDEO, VIDEO)).thenReturn(true);
+        progressService.flush();
+
+        // student, video, course, position, duration, watched, percent
+        assertArrayEquals(new Object[]{STUDENT, VIDEO, COURSE, 10, 10, 4, 40}, Arrays.copyOf(flushedRows().get(0), 7));
+    }
+
+    @Test
+    void entryStaysPendingUntilItsCompletionIsStored() {
+        video(10);
+        progressService.heartbeat(STUDENT, VIDEO, 0, 10);
+        progressService.heartbeat(STUDENT, VIDEO, 4, 10); // 40%, past the threshold
+        when(courseProgressService.recordCompletion(STUDENT, COURSE, AssetType.VIDEO, VIDEO)).thenReturn(false, true);
+
+        progressService.flush();
+        progressService.flush();
+        progressService.flush(); // nothing left
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+        verify(courseProgressService, times(2)).recordCompletion(STUDENT, COURSE, AssetType.VIDEO, VIDEO);
+    }
+
+    @Test
+    void rejectsAMismatchedDuration() {
+        video(10);
+
+        assertThrows(RuntimeException.class, () -> progressService.heartbeat(STUDENT, VIDEO, 0, 60));
+    }
+
+    @Test
+    void videoDeletedBeforeItsDurationIsKnownIsNotFound() {
+        video(null);
+        when(jdbcTemplate.queryForList("SELECT duration_seconds FROM video WHERE id = ?", Integer.class, VIDEO)).thenReturn(List.of());
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> progressService.heartbeat(STUDENT, VIDEO, 0, 10));
+
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+        progressService.flush();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void unknownVideoIsNotFound() {
+        when(jdbcTemplate.query(startsWith("SELECT m.course_id"), any(RowMapper.class), eq(VIDEO))).thenReturn(List.of());
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> progressService.heartbeat(STUDENT, VIDEO, 0, 10));
+
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+    }
+}